@@ -0,0 +1,446 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.caldav4j;
+
+import com.github.caldav4j.exceptions.BadStatusException;
+import com.github.caldav4j.exceptions.CalDAV4JException;
+import com.github.caldav4j.exceptions.ResourceOutOfDateException;
+import com.github.caldav4j.methods.CalDAV4JMethodFactory;
+import com.github.caldav4j.methods.HttpCalDAVReportMethod;
+import com.github.caldav4j.methods.HttpDeleteMethod;
+import com.github.caldav4j.methods.HttpGetMethod;
+import com.github.caldav4j.methods.HttpPutMethod;
+import com.github.caldav4j.model.request.CalDAVReportRequest;
+import com.github.caldav4j.model.request.CalendarData;
+import com.github.caldav4j.model.request.CalendarMultiget;
+import com.github.caldav4j.model.request.CalendarQuery;
+import com.github.caldav4j.model.request.CalendarRequest;
+import com.github.caldav4j.model.response.MultiStatusEntry;
+import com.github.caldav4j.util.CalDAVStatus;
+import com.github.caldav4j.util.ICalendarUtils;
+import com.github.caldav4j.util.MethodUtil;
+import com.github.caldav4j.util.UrlUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.property.Uid;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous counterpart of {@link CalDAVCollection}, built on a non-blocking {@link
+ * HttpAsyncClient}. Requests are created by the {@link CalDAV4JMethodFactory} as for the
+ * synchronous API, and every operation returns a {@link CompletableFuture} instead of blocking
+ * the calling thread, so a few I/O threads can serve thousands of concurrent requests.
+ *
+ * <p>Responses are handled on the {@link #getExecutor() executor} and never on the I/O threads of
+ * the client, as parsing iCalendar data is CPU bound. The client must have been started.
+ *
+ * <p>Futures complete exceptionally with a {@link CalDAV4JException}, wrapped in a {@link
+ * CompletionException} when observed through dependent stages.
+ */
+public class AsyncCalDAVCollection extends CalDAVCalendarCollectionBase {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncCalDAVCollection.class);
+
+    private static final int ADD_ATTEMPTS = 3;
+
+    private Executor executor = ForkJoinPool.commonPool();
+    private final Random random = new Random();
+
+    public AsyncCalDAVCollection() {}
+
+    /**
+     * Creates a new collection with the calendar collection root, and a default method factory.
+     *
+     * @param uri The path to the collection
+     */
+    public AsyncCalDAVCollection(String uri) {
+        setCalendarCollectionRoot(uri);
+        setMethodFactory(new CalDAV4JMethodFactory());
+        this.prodId = CalDAVConstants.PROC_ID_DEFAULT;
+    }
+
+    /**
+     * Creates a new collection with the specified parameters
+     *
+     * @param path The path to the collection
+     * @param httpHost Host information for the CalDAV Server
+     * @param methodFactory methodFactory to obtain HTTP methods from
+     * @param prodId String identifying who creates the iCalendar objects
+     */
+    public AsyncCalDAVCollection(
+            String path, HttpHost httpHost, CalDAV4JMethodFactory methodFactory, String prodId) {
+        setCalendarCollectionRoot(path);
+        this.httpHost = httpHost;
+        this.methodFactory = methodFactory;
+        this.prodId = prodId;
+    }
+
+    /** @return Executor handling the responses */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /** @param executor Executor handling the responses, by default the common ForkJoinPool */
+    public void setExecutor(Executor executor) {
+        this.executor = executor != null ? executor : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Gets an icalendar object by GET. If the cache is enabled and holds the resource, the GET is
+     * conditional and the cached resource is used on 304 Not Modified.
+     *
+     * @param httpClient the started client which will make the request
+     * @param icsRelativePath the path, relative to the collection path
+     * @return Future of the Calendar object at the specified path
+     */
+    public CompletableFuture<Calendar> getCalendar(
+            HttpAsyncClient httpClient, String icsRelativePath) {
+        return getCalDAVResource(httpClient, getAbsolutePath(icsRelativePath))
+                .thenApply(CalDAVResource::getCalendar);
+    }
+
+    /**
+     * Gets the resource at the given path by GET.
+     *
+     * @param httpClient the started client which will make the request
+     * @param path path to resource
+     * @return Future of the CalDAVResource
+     */
+    public CompletableFuture<CalDAVResource> getCalDAVResource(
+            HttpAsyncClient httpClient, String path) {
+        final CalDAVResource cached;
+        try {
+            cached = cache.getResource(getHref(path));
+        } catch (CalDAV4JException e) {
+            return failed(e);
+        }
+
+        final HttpGetMethod getMethod = methodFactory.createGetMethod(path);
+        if (cached != null && cached.getCalendar() != null) {
+            getMethod.setIfNoneMatch(cached.getResourceMetadata().getETag());
+        }
+
+        final long start = System.nanoTime();
+        return execute(httpClient, getMethod)
+                .thenApplyAsync(
+                        response -> {
+                            int status = response.getStatusLine().getStatusCode();
+                            try {
+                                if (cached != null && status == CalDAVStatus.SC_NOT_MODIFIED) {
+                                    recordRevalidation(true);
+                                    return putRevalidated(cached);
+                                }
+                                if (status != CalDAVStatus.SC_OK) {
+                                    MethodUtil.StatusToExceptions(getMethod, response);
+                                    throw new BadStatusException(getMethod, response);
+                                }
+                                String etag =
+                                        UrlUtils.getHeaderPrettyValue(
+                                                response, CalDAVConstants.HEADER_ETAG);
+                                Calendar calendar = getMethod.getResponseBodyAsCalendar(response);
+                                CalDAVResource resource =
+                                        new CalDAVResource(calendar, etag, getHref(path));
+                                resource.getResourceMetadata()
+                                        .setLastValidated(System.currentTimeMillis());
+                                if (cached != null && cached.getCalendar() != null) {
+                                    recordRevalidation(false);
+                                }
+                                recordLoad(1, start);
+                                cache.putResource(resource);
+                                return resource;
+                            } catch (CalDAV4JException e) {
+                                throw new CompletionException(e);
+                            } catch (Exception e) {
+                                throw new CompletionException(
+                                        new CalDAV4JException("Problem executing get method", e));
+                            }
+                        },
+                        executor);
+    }
+
+    /**
+     * Executes the query, the calendar-data of the responses being parsed by the {@link
+     * #getParseStage() parse stage}.
+     *
+     * @param httpClient the started client which will make the request
+     * @param query Query to execute
+     * @return Future of the calendars matching the query
+     */
+    public CompletableFuture<List<Calendar>> queryCalendars(
+            HttpAsyncClient httpClient, CalendarQuery query) {
+        return getCalDAVResources(httpClient, query).thenApply(AsyncCalDAVCollection::calendars);
+    }
+
+    /**
+     * Implementing calendar multiget with Properties: getetag, calendar-data
+     *
+     * @see <a href="http://tools.ietf.org/html/rfc4791#section-7.9">RFC 4791 Section 7.9</a>
+     * @param httpClient the started client which will make the request
+     * @param calendarUris URI's for Multiget
+     * @return Future of the Calendars at the uris.
+     */
+    public CompletableFuture<List<Calendar>> multigetCalendarUris(
+            HttpAsyncClient httpClient, List<String> calendarUris) {
+        CalendarMultiget query = new CalendarMultiget();
+        query.addProperty(CalDAVConstants.DNAME_GETETAG);
+        query.setCalendarDataProp(new CalendarData());
+        query.setHrefs(calendarUris);
+
+        return getCalDAVResources(httpClient, query).thenApply(AsyncCalDAVCollection::calendars);
+    }
+
+    /**
+     * Executes a REPORT on the collection with Depth 1, and builds the resources out of the
+     * responses. Resources with calendar data are put in the cache, if enabled, under their
+     * normalized href (see {@link #getCacheHref(String)}).
+     *
+     * @param httpClient the started client which will make the request
+     * @param query Report to execute
+     * @return Future of the resources, in server order
+     */
+    public CompletableFuture<List<CalDAVResource>> getCalDAVResources(
+            HttpAsyncClient httpClient, CalDAVReportRequest query) {
+        final HttpCalDAVReportMethod reportMethod;
+        try {
+            reportMethod =
+                    methodFactory.createCalDAVReportMethod(
+                            getCalendarCollectionRoot(), query, CalDAVConstants.DEPTH_1);
+        } catch (Exception e) {
+            return failed(new CalDAV4JException("Problem creating report method", e));
+        }
+
+        return execute(httpClient, reportMethod)
+                .thenApplyAsync(
+                        response -> {
+                            try {
+                                List<MultiStatusEntry> entries = new ArrayList<>();
+                                reportMethod.processResponseBody(response, entries::add);
+                                List<CalDAVResource> resources = parseStage.parse(entries);
+                                List<CalDAVResource> cacheable = new ArrayList<>();
+                                for (CalDAVResource resource : resources) {
+                                    ResourceMetadata metadata = resource.getResourceMetadata();
+                                    metadata.setHref(getCacheHref(metadata.getHref()));
+                                    // etag-only responses would shadow the cached calendars
+                                    if (resource.getCalendar() != null) cacheable.add(resource);
+                                }
+                                cache.putResources(cacheable);
+                                return resources;
+                            } catch (Exception e) {
+                                throw new CompletionException(
+                                        new CalDAV4JException("Problem executing method", e));
+                            }
+                        },
+                        executor);
+    }
+
+    /**
+     * Adds a new Calendar to the collection, named after the UID of its component. As for {@link
+     * CalDAVCollection#add(org.apache.http.client.HttpClient, Calendar)}, the UID is changed and
+     * the PUT retried if a resource with that name already exists. The UID is set on a copy: the
+     * given calendar is not modified.
+     *
+     * @param httpClient the started client which will make the request
+     * @param calendar Calendar to add
+     * @return Future of the UID of the added component
+     */
+    public CompletableFuture<String> add(HttpAsyncClient httpClient, Calendar calendar) {
+        try {
+            return add(httpClient, ICalendarUtils.copyCalendar(calendar), 0);
+        } catch (CalDAV4JException e) {
+            return failed(e);
+        }
+    }
+
+    private CompletableFuture<String> add(
+            final HttpAsyncClient httpClient, final Calendar calendar, final int attempt) {
+        final Uid uid;
+        final HttpPutMethod putMethod;
+        try {
+            uid = ICalendarUtils.setUID(calendar);
+            if (attempt > 0) {
+                uid.setValue(uid.getValue() + "-" + random.nextInt());
+            }
+            putMethod = createPutMethodForNewResource(uid.getValue() + ".ics", calendar);
+        } catch (Exception e) {
+            return failed(new CalDAV4JException("Trouble creating PUT", e));
+        }
+
+        return execute(httpClient, putMethod)
+                .thenComposeAsync(
+                        response -> {
+                            int status = response.getStatusLine().getStatusCode();
+                            if (status == CalDAVStatus.SC_PRECONDITION_FAILED
+                                    && attempt + 1 < ADD_ATTEMPTS) {
+                                log.debug("Resource " + uid.getValue() + " exists, retrying");
+                                return add(httpClient, calendar, attempt + 1);
+                            }
+                            try {
+                                MethodUtil.StatusToExceptions(putMethod, response);
+                                putInCache(calendar, putMethod, response);
+                            } catch (CalDAV4JException e) {
+                                return failed(e);
+                            }
+                            return CompletableFuture.completedFuture(uid.getValue());
+                        },
+                        executor);
+    }
+
+    /**
+     * Updates the resource at the given path, if its ETag still matches.
+     *
+     * @param httpClient the started client which will make the request
+     * @param calendar new content of the resource
+     * @param path path to resource
+     * @param etag ETag of the resource being replaced
+     * @return Future of the new ETag of the resource, null if the server didn't return it
+     */
+    public CompletableFuture<String> put(
+            HttpAsyncClient httpClient, final Calendar calendar, final String path, String etag) {
+        CalendarRequest cr = new CalendarRequest();
+        cr.addEtag(etag);
+        cr.setIfMatch(true);
+        cr.setCalendar(calendar);
+        final HttpPutMethod putMethod = methodFactory.createPutMethod(path, cr);
+
+        return execute(httpClient, putMethod)
+                .thenApplyAsync(
+                        response -> {
+                            int status = response.getStatusLine().getStatusCode();
+                            try {
+                                switch (status) {
+                                    case CalDAVStatus.SC_NO_CONTENT:
+                                    case CalDAVStatus.SC_CREATED:
+                                        return putInCache(calendar, putMethod, response);
+                                    case CalDAVStatus.SC_PRECONDITION_FAILED:
+                                        throw new ResourceOutOfDateException(
+                                                "Etag was not matched: " + etag);
+                                    default:
+                                        throw new BadStatusException(
+                                                status, putMethod.getMethod(), path);
+                                }
+                            } catch (CalDAV4JException e) {
+                                throw new CompletionException(e);
+                            }
+                        },
+                        executor);
+    }
+
+    /**
+     * Deletes a resource at a given path. Also removes it from cache.
+     *
+     * @param httpClient the started client which will make the request
+     * @param path Path to the resource to delete
+     * @return Future completed once the resource is deleted
+     */
+    public CompletableFuture<Void> delete(HttpAsyncClient httpClient, final String path) {
+        final HttpDeleteMethod deleteMethod = methodFactory.createDeleteMethod(path);
+
+        return execute(httpClient, deleteMethod)
+                .thenAcceptAsync(
+                        response -> {
+                            try {
+                                if (!deleteMethod.succeeded(response)) {
+                                    MethodUtil.StatusToExceptions(deleteMethod, response);
+                                }
+                                cache.removeResource(getHref(path));
+                            } catch (CalDAV4JException e) {
+                                throw new CompletionException(e);
+                            }
+                        },
+                        executor);
+    }
+
+    /**
+     * Executes the request, completing the future once the response has been received.
+     *
+     * @param httpClient the started client which will make the request
+     * @param method Request to execute
+     * @return Future of the response
+     */
+    protected CompletableFuture<HttpResponse> execute(
+            HttpAsyncClient httpClient, final HttpRequestBase method) {
+        final CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        try {
+            httpClient.execute(
+                    getDefaultHttpHost(method.getURI()),
+                    method,
+                    new FutureCallback<HttpResponse>() {
+                        @Override
+                        public void completed(HttpResponse response) {
+                            future.complete(response);
+                        }
+
+                        @Override
+                        public void failed(Exception e) {
+                            future.completeExceptionally(
+                                    new CalDAV4JException(
+                                            "Problem executing method " + method.getURI(), e));
+                        }
+
+                        @Override
+                        public void cancelled() {
+                            future.cancel(false);
+                        }
+                    });
+        } catch (Exception e) {
+            future.completeExceptionally(
+                    new CalDAV4JException("Problem executing method " + method.getURI(), e));
+        }
+        return future;
+    }
+
+    private String putInCache(Calendar calendar, HttpPutMethod putMethod, HttpResponse response)
+            throws CalDAV4JException {
+        invalidateNotFound(calendar, putMethod.getURI().toString());
+        String etag = UrlUtils.getHeaderPrettyValue(response, CalDAVConstants.HEADER_ETAG);
+        EntityUtils.consumeQuietly(response.getEntity());
+        if (isCacheEnabled() && etag != null) {
+            // the caller keeps the calendar, cache a copy
+            cache.putResource(
+                    new CalDAVResource(
+                            ICalendarUtils.copyCalendar(calendar),
+                            etag,
+                            getCacheHref(putMethod.getURI().toString())));
+        }
+        return etag;
+    }
+
+    private static List<Calendar> calendars(List<CalDAVResource> resources) {
+        List<Calendar> list = new ArrayList<>(resources.size());
+        for (CalDAVResource resource : resources) {
+            if (resource.getCalendar() != null) list.add(resource.getCalendar());
+        }
+        return list;
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.caldav4j;
+
+import com.github.caldav4j.exceptions.CalDAV4JException;
+
+/**
+ * Outcome of a single item of a bulk operation on a collection: either the UID, href and ETag of
+ * the resource, or the error raised for it.
+ */
+public class BulkOperationResult {
+
+    private String uid;
+    private String href;
+    private String etag;
+    private CalDAV4JException error;
+
+    public BulkOperationResult() {}
+
+    /**
+     * @param uid UID of the component
+     * @param href href of the resource
+     * @param etag ETag of the resource, null if not returned by the server
+     */
+    public BulkOperationResult(String uid, String href, String etag) {
+        this.uid = uid;
+        this.href = href;
+        this.etag = etag;
+    }
+
+    /**
+     * @param uid UID of the component, if known
+     * @param error Error raised for the item
+     */
+    public BulkOperationResult(String uid, CalDAV4JException error) {
+        this.uid = uid;
+        this.error = error;
+    }
+
+    /** @return true if the operation succeeded for this item. */
+    public boolean isSucceeded() {
+        return error == null;
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    public void setUid(String uid) {
+        this.uid = uid;
+    }
+
+    public String getHref() {
+        return href;
+    }
+
+    public void setHref(String href) {
+        this.href = href;
+    }
+
+    public String getETag() {
+        return etag;
+    }
+
+    public void setETag(String etag) {
+        this.etag = etag;
+    }
+
+    /** @return The error raised for the item, null if it succeeded. */
+    public CalDAV4JException getError() {
+        return error;
+    }
+
+    public void setError(CalDAV4JException error) {
+        this.error = error;
+    }
+}
@@ -14,13 +14,17 @@
 
 package com.github.caldav4j;
 
+import com.github.caldav4j.cache.CacheStatistics;
 import com.github.caldav4j.cache.CalDAVResourceCache;
 import com.github.caldav4j.cache.EhCacheResourceCache;
+import com.github.caldav4j.cache.NegativeLookupCache;
 import com.github.caldav4j.cache.NoOpResourceCache;
+import com.github.caldav4j.cache.ResourceCacheManager;
 import com.github.caldav4j.exceptions.CacheException;
 import com.github.caldav4j.methods.CalDAV4JMethodFactory;
 import com.github.caldav4j.methods.HttpPutMethod;
 import com.github.caldav4j.model.request.CalendarRequest;
+import com.github.caldav4j.model.response.CalendarParseStage;
 import com.github.caldav4j.util.UrlUtils;
 import java.net.URI;
 import net.fortuna.ical4j.model.Calendar;
@@ -39,6 +43,8 @@ public abstract class CalDAVCalendarCollectionBase {
     protected HttpHost httpHost = null;
     protected String prodId = null;
     protected CalDAVResourceCache cache = NoOpResourceCache.getCacheInstance();
+    protected NegativeLookupCache negativeLookupCache = null;
+    protected CalendarParseStage parseStage = new CalendarParseStage();
     private boolean tolerantParsing = false;
 
     // Configuration Methods
@@ -75,6 +81,21 @@ public abstract class CalDAVCalendarCollectionBase {
         this.tolerantParsing = tolerantParsing;
     }
 
+    /** @return Stage used to parse the calendar-data of REPORT responses */
+    public CalendarParseStage getParseStage() {
+        return parseStage;
+    }
+
+    /**
+     * Sets the stage used to parse the calendar-data of REPORT and multiget responses, e.g. {@code
+     * new CalendarParseStage(ForkJoinPool.commonPool())} to parse them in parallel.
+     *
+     * @param parseStage Stage to use, null to parse on the calling thread
+     */
+    public void setParseStage(CalendarParseStage parseStage) {
+        this.parseStage = parseStage != null ? parseStage : new CalendarParseStage();
+    }
+
     /** @return CalendarCollectionRoot */
     public String getCalendarCollectionRoot() {
         return calendarCollectionRoot;
@@ -101,6 +122,43 @@ public abstract class CalDAVCalendarCollectionBase {
         this.cache = cache;
     }
 
+    public NegativeLookupCache getNegativeLookupCache() {
+        return negativeLookupCache;
+    }
+
+    /**
+     * Sets the cache of the UIDs and paths not found on the server, null to always ask the server.
+     *
+     * @param negativeLookupCache Cache of the missing UIDs and paths
+     */
+    public void setNegativeLookupCache(NegativeLookupCache negativeLookupCache) {
+        this.negativeLookupCache = negativeLookupCache;
+    }
+
+    /**
+     * @param key Key of the UID or path, see {@link NegativeLookupCache}
+     * @return true if the UID or path was recently not found on the server
+     */
+    protected boolean isNotFound(String key) {
+        return negativeLookupCache != null && negativeLookupCache.isNotFound(key);
+    }
+
+    /** @param key Key of the UID or path not found on the server */
+    protected void recordNotFound(String key) {
+        if (negativeLookupCache != null) negativeLookupCache.putNotFound(key);
+    }
+
+    /**
+     * Forgets that the path of a created or updated resource, or the UIDs of its components, were
+     * not found.
+     *
+     * @param calendar Calendar of the resource
+     * @param href Path or absolute href of the resource
+     */
+    protected void invalidateNotFound(Calendar calendar, String href) {
+        if (negativeLookupCache != null) negativeLookupCache.invalidate(calendar, href);
+    }
+
     /**
      * Check if a cache is set
      *
@@ -111,6 +169,53 @@ public abstract class CalDAVCalendarCollectionBase {
         return !p;
     }
 
+    /**
+     * Records the revalidation of a cached resource in the statistics of the cache, if it keeps
+     * any.
+     *
+     * @param matched Whether the ETag of the cached resource matched the one of the server
+     */
+    protected void recordRevalidation(boolean matched) {
+        CacheStatistics statistics = cache.getStatistics();
+        if (statistics != null) statistics.recordRevalidation(matched);
+    }
+
+    /**
+     * Replaces a cached resource whose ETag the server confirmed with a {@link
+     * CalDAVResource#revalidated(long) copy} validated now, as the cached one is frozen.
+     *
+     * @param cached Cached resource
+     * @return The copy, now in the cache
+     * @throws CacheException on error
+     */
+    protected CalDAVResource putRevalidated(CalDAVResource cached) throws CacheException {
+        CalDAVResource resource = cached.revalidated(System.currentTimeMillis());
+        cache.putResource(resource);
+        return resource;
+    }
+
+    /**
+     * Records the load of resources from the server in the statistics of the cache, if it keeps
+     * any.
+     *
+     * @param count Number of resources loaded
+     * @param startNanos {@link System#nanoTime()} when the load started
+     */
+    protected void recordLoad(int count, long startNanos) {
+        CacheStatistics statistics = cache.getStatistics();
+        if (statistics != null) statistics.recordLoad(count, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Replace double slashes
+     *
+     * @param relativePath Relative Path, who's absolute Path is to be returned.
+     * @return a path with double slashes removed
+     */
+    protected String getAbsolutePath(String relativePath) {
+        return (getCalendarCollectionRoot() + relativePath).replaceAll("/+", "/");
+    }
+
     public String getHref(String path) {
         HttpHost httpHost = getDefaultHttpHost(URI.create(calendarCollectionRoot));
         int port = httpHost.getPort();
@@ -124,6 +229,18 @@ public abstract class CalDAVCalendarCollectionBase {
                 String.format("%s://%s%s/%s", scheme, httpHost.getHostName(), portString, path));
     }
 
+    /**
+     * The servers usually return path-only hrefs, while resources are looked up in the cache by
+     * the full href of their path: resources are cached under the latter, so that an entry is
+     * always replaced rather than shadowed.
+     *
+     * @param href Href of a resource, with or without the host
+     * @return The href under which the resource is cached
+     */
+    protected String getCacheHref(String href) {
+        return getHref(UrlUtils.stripHost(href));
+    }
+
     /**
      * Create a PUT method setting If-None-Match: * this tag causes PUT fails if a given event exist
      *
@@ -139,24 +256,38 @@ public abstract class CalDAVCalendarCollectionBase {
         return methodFactory.createPutMethod(calendarCollectionRoot + resourceName, cr);
     }
 
-    /** Create cache resources: UID_TO_HREF, HREF_TO_RESOURCE */
-    // XXX create test method
+    /**
+     * Enable a cache region of the shared {@link ResourceCacheManager}, named after the host and
+     * the collection root, unless a cache is already set.
+     */
     public void enableSimpleCache() {
-        EhCacheResourceCache cache = null;
+        String root = calendarCollectionRoot != null ? calendarCollectionRoot : "/";
+        enableSimpleCache(httpHost != null ? httpHost.toURI() + root : root);
+    }
+
+    /**
+     * Enable the named cache region of the shared {@link ResourceCacheManager}, unless a cache is
+     * already set. Collections of the same tenant can share a region by using the same name.
+     *
+     * @param regionName Name of the region
+     */
+    public void enableSimpleCache(String regionName) {
         if (!isCacheEnabled()) {
-            try {
-                cache = EhCacheResourceCache.createSimpleCache();
-            } catch (CacheException e) {
-                // avoid error if cache doesn't exist
-                e.printStackTrace();
-            }
-            this.setCache(cache);
+            this.setCache(ResourceCacheManager.getInstance().acquireRegion(regionName));
         }
     }
 
-    /** Set cache to NoOpResourceCache */
+    /**
+     * Set cache to NoOpResourceCache. The region of the shared {@link ResourceCacheManager} used
+     * by this collection, if any, is released: it is removed once no other collection uses it.
+     */
     public void disableSimpleCache() {
-        EhCacheResourceCache.removeSimpleCache();
+        ResourceCacheManager manager = ResourceCacheManager.getInstance();
+        if (manager.isRegion(cache)) {
+            manager.releaseRegion(cache);
+        } else if (cache instanceof EhCacheResourceCache) {
+            EhCacheResourceCache.removeSimpleCache();
+        }
         this.setCache(NoOpResourceCache.getCacheInstance());
     }
 }
@@ -0,0 +1,409 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.caldav4j;
+
+import com.github.caldav4j.cache.CalDAVResourceCache;
+import com.github.caldav4j.methods.CalDAV4JMethodFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContexts;
+
+/**
+ * A client of a CalDAV server, holding an HTTP client with a pool of connections sized for
+ * concurrent use, and handing out the collections of the server.
+ *
+ * <p>The connections are kept alive between requests, for the time announced by the server but no
+ * longer than the configured keep-alive, and a background thread closes the connections idle or
+ * expired. The same SSL context is used for all connections, so TLS sessions are resumed instead
+ * of negotiated again when new connections are opened.
+ *
+ * <pre>
+ * CalDAVClient client = CalDAVClient.builder()
+ *         .setHttpHost(new HttpHost("calendar.example.com", 443, "https"))
+ *         .setCredentialsProvider(credentialsProvider)
+ *         .setMaxConnectionsPerRoute(50)
+ *         .build();
+ * CalDAVCollection collection = client.getCollection("/calendars/user/events/");
+ * collection.getCalendarForEventUID(client.getHttpClient(), uid);
+ * </pre>
+ *
+ * The client is thread safe, and should be closed when no longer used.
+ */
+public class CalDAVClient implements Closeable {
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 100;
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final long DEFAULT_MAX_IDLE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+    public static final int DEFAULT_SOCKET_TIMEOUT_MILLIS = 60000;
+    public static final int DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+
+    private final CloseableHttpClient httpClient;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final HttpHost httpHost;
+    private final CalDAV4JMethodFactory methodFactory;
+    private final String prodId;
+    private final CalDAVResourceCache cache;
+
+    private CalDAVClient(Builder builder, PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+        this.httpHost = builder.httpHost;
+        this.methodFactory =
+                builder.methodFactory != null ? builder.methodFactory : new CalDAV4JMethodFactory();
+        this.prodId = builder.prodId;
+        this.cache = builder.cache;
+
+        final long keepAliveMillis = builder.keepAliveMillis;
+        ConnectionKeepAliveStrategy keepAliveStrategy =
+                (HttpResponse response, HttpContext context) -> {
+                    long duration =
+                            DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(
+                                    response, context);
+                    return duration > 0 ? Math.min(duration, keepAliveMillis) : keepAliveMillis;
+                };
+
+        RequestConfig requestConfig =
+                RequestConfig.custom()
+                        .setConnectTimeout(builder.connectTimeoutMillis)
+                        .setConnectionRequestTimeout(builder.connectionRequestTimeoutMillis)
+                        .setSocketTimeout(builder.socketTimeoutMillis)
+                        .build();
+
+        // the responses are decoded by the methods, counting the bytes saved
+        HttpClientBuilder httpClientBuilder =
+                HttpClientBuilder.create()
+                        .setConnectionManager(connectionManager)
+                        .setKeepAliveStrategy(keepAliveStrategy)
+                        .setDefaultRequestConfig(requestConfig)
+                        .disableContentCompression()
+                        .evictExpiredConnections()
+                        .evictIdleConnections(builder.maxIdleMillis, TimeUnit.MILLISECONDS);
+        if (builder.credentialsProvider != null) {
+            httpClientBuilder.setDefaultCredentialsProvider(builder.credentialsProvider);
+        }
+        if (builder.userAgent != null) {
+            httpClientBuilder.setUserAgent(builder.userAgent);
+        }
+        this.httpClient = httpClientBuilder.build();
+    }
+
+    /** @return A builder with the default settings */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** @return The HTTP client to pass to the methods of the collections */
+    public CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public PoolingHttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    /** @return Number of connections leased, available and pending in the pool */
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    public HttpHost getHttpHost() {
+        return httpHost;
+    }
+
+    public CalDAV4JMethodFactory getMethodFactory() {
+        return methodFactory;
+    }
+
+    /**
+     * Returns a collection of the server, sharing the host, method factory and cache of this
+     * client. Its methods are called with {@link #getHttpClient()}.
+     *
+     * @param path Path to the calendar collection, or its absolute URI if no host is set
+     * @return A new collection
+     */
+    public CalDAVCollection getCollection(String path) {
+        URI uri = URI.create(path);
+        HttpHost host =
+                httpHost == null && uri.isAbsolute() ? URIUtils.extractHost(uri) : httpHost;
+        CalDAVCollection collection = new CalDAVCollection(path, host, methodFactory, prodId);
+        if (cache != null) collection.setCache(cache);
+        return collection;
+    }
+
+    /** Closes the connections of the pool and stops the eviction of idle connections. */
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /** Builder of the {@link CalDAVClient}, with settings suited to concurrent use. */
+    public static class Builder {
+
+        private HttpHost httpHost = null;
+        private CalDAV4JMethodFactory methodFactory = null;
+        private String prodId = CalDAVConstants.PROC_ID_DEFAULT;
+        private CalDAVResourceCache cache = null;
+        private CredentialsProvider credentialsProvider = null;
+        private String userAgent = null;
+        private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+        private int maxConnectionsTotal = DEFAULT_MAX_CONNECTIONS_TOTAL;
+        private long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+        private long maxIdleMillis = DEFAULT_MAX_IDLE_MILLIS;
+        private long connectionTimeToLiveMillis = -1;
+        private int validateAfterInactivityMillis = DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS;
+        private int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+        private int connectionRequestTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+        private int socketTimeoutMillis = DEFAULT_SOCKET_TIMEOUT_MILLIS;
+        private SSLContext sslContext = null;
+        private int tlsSessionCacheSize = -1;
+        private int tlsSessionTimeoutSeconds = -1;
+
+        private Builder() {}
+
+        /**
+         * @param httpHost Host of the CalDAV server, null to take it from the collection paths
+         * @return This builder
+         */
+        public Builder setHttpHost(HttpHost httpHost) {
+            this.httpHost = httpHost;
+            return this;
+        }
+
+        /**
+         * @param methodFactory Method factory shared by the collections, a new one by default
+         * @return This builder
+         */
+        public Builder setMethodFactory(CalDAV4JMethodFactory methodFactory) {
+            this.methodFactory = methodFactory;
+            return this;
+        }
+
+        /**
+         * @param prodId PRODID of the calendars created by the collections
+         * @return This builder
+         */
+        public Builder setProdId(String prodId) {
+            this.prodId = prodId;
+            return this;
+        }
+
+        /**
+         * @param cache Resource cache shared by the collections, none by default
+         * @return This builder
+         */
+        public Builder setCache(CalDAVResourceCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * @param credentialsProvider Credentials to authenticate with the server
+         * @return This builder
+         */
+        public Builder setCredentialsProvider(CredentialsProvider credentialsProvider) {
+            this.credentialsProvider = credentialsProvider;
+            return this;
+        }
+
+        /**
+         * @param userAgent User-Agent header of the requests
+         * @return This builder
+         */
+        public Builder setUserAgent(String userAgent) {
+            this.userAgent = userAgent;
+            return this;
+        }
+
+        /**
+         * @param maxConnectionsPerRoute Maximum number of connections to the same host
+         * @return This builder
+         */
+        public Builder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            if (maxConnectionsPerRoute < 1) {
+                throw new IllegalArgumentException("Maximum connections must be positive");
+            }
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * @param maxConnectionsTotal Maximum number of connections of the pool
+         * @return This builder
+         */
+        public Builder setMaxConnectionsTotal(int maxConnectionsTotal) {
+            if (maxConnectionsTotal < 1) {
+                throw new IllegalArgumentException("Maximum connections must be positive");
+            }
+            this.maxConnectionsTotal = maxConnectionsTotal;
+            return this;
+        }
+
+        /**
+         * Sets how long a connection is kept alive after a response, if the server doesn't
+         * announce a shorter time in its Keep-Alive header.
+         *
+         * @param keepAlive Keep-alive time
+         * @param unit Unit of keepAlive
+         * @return This builder
+         */
+        public Builder setKeepAlive(long keepAlive, TimeUnit unit) {
+            this.keepAliveMillis = unit.toMillis(keepAlive);
+            return this;
+        }
+
+        /**
+         * @param maxIdle Time after which an idle connection is closed by the evictor
+         * @param unit Unit of maxIdle
+         * @return This builder
+         */
+        public Builder setMaxIdleTime(long maxIdle, TimeUnit unit) {
+            if (maxIdle <= 0) {
+                throw new IllegalArgumentException("Maximum idle time must be positive");
+            }
+            this.maxIdleMillis = unit.toMillis(maxIdle);
+            return this;
+        }
+
+        /**
+         * @param timeToLive Time after which a connection is no longer reused, -1 for no limit
+         * @param unit Unit of timeToLive
+         * @return This builder
+         */
+        public Builder setConnectionTimeToLive(long timeToLive, TimeUnit unit) {
+            this.connectionTimeToLiveMillis = timeToLive > 0 ? unit.toMillis(timeToLive) : -1;
+            return this;
+        }
+
+        /**
+         * @param validateAfterInactivityMillis Idle time after which a pooled connection is
+         *     checked to be still open before it is reused
+         * @return This builder
+         */
+        public Builder setValidateAfterInactivity(int validateAfterInactivityMillis) {
+            this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+            return this;
+        }
+
+        /**
+         * @param connectTimeoutMillis Timeout to establish a connection
+         * @return This builder
+         */
+        public Builder setConnectTimeout(int connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param connectionRequestTimeoutMillis Timeout waiting for a connection from the pool
+         * @return This builder
+         */
+        public Builder setConnectionRequestTimeout(int connectionRequestTimeoutMillis) {
+            this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param socketTimeoutMillis Timeout waiting for data from the server
+         * @return This builder
+         */
+        public Builder setSocketTimeout(int socketTimeoutMillis) {
+            this.socketTimeoutMillis = socketTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param sslContext SSL context of the https connections, the default one if not set
+         * @return This builder
+         */
+        public Builder setSslContext(SSLContext sslContext) {
+            this.sslContext = sslContext;
+            return this;
+        }
+
+        /**
+         * Sizes the cache of the TLS sessions resumed by new connections. Left to the defaults of
+         * the SSL context if not set.
+         *
+         * @param size Maximum number of sessions cached, 0 for no limit
+         * @param timeout Time after which a session is no longer resumed
+         * @param unit Unit of timeout
+         * @return This builder
+         */
+        public Builder setTlsSessionCache(int size, long timeout, TimeUnit unit) {
+            this.tlsSessionCacheSize = size;
+            this.tlsSessionTimeoutSeconds = (int) unit.toSeconds(timeout);
+            return this;
+        }
+
+        /** @return A new client with a new pool of connections */
+        public CalDAVClient build() {
+            SSLContext context = sslContext != null ? sslContext : SSLContexts.createDefault();
+            SSLSessionContext sessionContext = context.getClientSessionContext();
+            if (sessionContext != null && tlsSessionCacheSize >= 0) {
+                sessionContext.setSessionCacheSize(tlsSessionCacheSize);
+                sessionContext.setSessionTimeout(tlsSessionTimeoutSeconds);
+            }
+
+            Registry<ConnectionSocketFactory> registry =
+                    RegistryBuilder.<ConnectionSocketFactory>create()
+                            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                            .register("https", new SSLConnectionSocketFactory(context))
+                            .build();
+
+            PoolingHttpClientConnectionManager connectionManager =
+                    new PoolingHttpClientConnectionManager(
+                            registry,
+                            null,
+                            null,
+                            null,
+                            connectionTimeToLiveMillis,
+                            TimeUnit.MILLISECONDS);
+            connectionManager.setMaxTotal(Math.max(maxConnectionsTotal, maxConnectionsPerRoute));
+            connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+            connectionManager.setValidateAfterInactivity(validateAfterInactivityMillis);
+            connectionManager.setDefaultSocketConfig(
+                    SocketConfig.custom()
+                            .setSoTimeout(socketTimeoutMillis)
+                            .setSoKeepAlive(true)
+                            .setTcpNoDelay(true)
+                            .build());
+
+            return new CalDAVClient(this, connectionManager);
+        }
+    }
+}
@@ -19,6 +19,8 @@
 
 package com.github.caldav4j;
 
+import com.github.caldav4j.cache.NegativeLookupCache;
+import com.github.caldav4j.cache.QueryResultCache;
 import com.github.caldav4j.exceptions.BadStatusException;
 import com.github.caldav4j.exceptions.CalDAV4JException;
 import com.github.caldav4j.exceptions.ResourceNotFoundException;
@@ -26,17 +28,45 @@ import com.github.caldav4j.exceptions.ResourceOutOfDateException;
 import com.github.caldav4j.methods.*;
 import com.github.caldav4j.model.request.*;
 import com.github.caldav4j.model.response.CalendarDataProperty;
+import com.github.caldav4j.model.response.MultiStatusEntry;
+import com.github.caldav4j.model.response.MultiStatusHandler;
+import com.github.caldav4j.model.response.SyncResult;
+import com.github.caldav4j.model.response.WarmUpListener;
+import com.github.caldav4j.model.response.WarmUpResult;
 import com.github.caldav4j.util.*;
 import java.io.IOException;
 import java.net.ConnectException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.parsers.ParserConfigurationException;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Component;
 import net.fortuna.ical4j.model.ComponentList;
 import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.DateTime;
 import net.fortuna.ical4j.model.component.CalendarComponent;
 import net.fortuna.ical4j.model.component.VEvent;
 import net.fortuna.ical4j.model.component.VTimeZone;
@@ -50,13 +80,17 @@ import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpHead;
+import org.apache.http.util.EntityUtils;
+import org.apache.jackrabbit.webdav.DavException;
 import org.apache.jackrabbit.webdav.MultiStatus;
 import org.apache.jackrabbit.webdav.MultiStatusResponse;
 import org.apache.jackrabbit.webdav.property.DavPropertyName;
 import org.apache.jackrabbit.webdav.property.DavPropertyNameSet;
 import org.apache.jackrabbit.webdav.security.AclProperty;
+import org.apache.jackrabbit.webdav.xml.DomUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
 
 /**
  * This class provides a high level API to a calendar collection on a CalDAV server.
@@ -68,8 +102,42 @@ import org.slf4j.LoggerFactory;
  */
 public class CalDAVCollection extends CalDAVCalendarCollectionBase {
     private static final Logger log = LoggerFactory.getLogger(CalDAVCollection.class);
+
+    /** Default maximum number of hrefs requested by a single calendar multiget. */
+    public static final int DEFAULT_MULTIGET_CHUNK_SIZE = 100;
+
+    private static final Random random = new Random();
+
+    // reports sent over and over with different hrefs or time ranges, serialised only once
+    private static final String HREF_SLOT = "caldav4j-href-slot";
+    private static final DateTime START_SLOT = new DateTime(0L);
+    private static final DateTime END_SLOT = new DateTime(1000L);
+
+    static {
+        START_SLOT.setUtc(true);
+        END_SLOT.setUtc(true);
+    }
+
+    private static volatile CompiledReportRequest etagMultigetReport = null;
+    private static volatile CompiledReportRequest freeBusyReport = null;
+
     // configuration settings
 
+    protected int multigetChunkSize = DEFAULT_MULTIGET_CHUNK_SIZE;
+
+    // results of previous queries, reused while the collection tag does not change
+    protected QueryResultCache queryResultCache = null;
+
+    // synchronization state: last sync-token and the ETags of the known members
+    private String syncToken = null;
+    private final Map<String, String> syncETags = new HashMap<>();
+
+    // stale-while-revalidate read mode, and the revalidations running in the background by href
+    private long maxStaleMillis = 0;
+    private Executor revalidationExecutor = ForkJoinPool.commonPool();
+    private final ConcurrentMap<String, CompletableFuture<CalDAVResource>> revalidations =
+            new ConcurrentHashMap<>();
+
     public CalDAVCollection() {}
 
     /**
@@ -197,7 +265,8 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
             throws CalDAV4JException {
 
         CalDAVResource resource = getCalDAVResourceByUID(httpClient, component, uid);
-        Calendar calendar = resource.getCalendar();
+        // the cached calendar is shared, modify a copy
+        Calendar calendar = ICalendarUtils.copyCalendar(resource.getCalendar());
         ComponentList<CalendarComponent> eventList =
                 calendar.getComponents().getComponents(component);
 
@@ -291,6 +360,7 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
                     throw new BadStatusException(statusCode, putMethod.getMethod(), path);
             }
 
+            invalidateNotFound(calendar, putMethod.getURI().toString());
             if (isCacheEnabled()) {
                 Header h = putMethod.getFirstHeader("ETag");
                 String newEtag = null;
@@ -300,7 +370,8 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
                     newEtag = getETagbyMultiget(httpClient, path);
                 }
                 cache.putResource(
-                        new CalDAVResource(calendar, newEtag, putMethod.getURI().toString()));
+                        new CalDAVResource(
+                                calendar, newEtag, getCacheHref(putMethod.getURI().toString())));
             }
 
         } catch (ResourceOutOfDateException | BadStatusException e) {
@@ -365,17 +436,322 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
      */
     public String add(HttpClient httpClient, Calendar c, boolean attemptRetry)
             throws CalDAV4JException {
+        BulkOperationResult result = putNewResource(httpClient, c, attemptRetry);
+        if (isCacheEnabled() && result.isSucceeded()) {
+            cache.putResource(createCachedResource(httpClient, c, result));
+        }
+        return result.getUid();
+    }
+
+    /**
+     * Adds the calendars to the collection, running up to {@code concurrency} PUTs at once. Each
+     * calendar is added as by {@link #add(HttpClient, Calendar, boolean)} with retries, but a
+     * failure only affects its own result. When the cache is enabled, the added resources are put
+     * in the cache at once.
+     *
+     * <p>The httpClient is shared by the worker threads, so it must be thread safe and its
+     * connection manager should allow {@code concurrency} connections to the server.
+     *
+     * @param httpClient the httpClient which will make the requests
+     * @param calendars Calendars to add
+     * @param concurrency Maximum number of concurrent PUTs
+     * @return The result for each calendar, in iteration order. The result of a failed calendar
+     *     has the UID of its component, if it has one, and the href it was PUT to, if known.
+     * @throws CalDAV4JException if interrupted
+     */
+    public List<BulkOperationResult> addAll(
+            final HttpClient httpClient, Collection<Calendar> calendars, int concurrency)
+            throws CalDAV4JException {
+        final boolean usingCache = isCacheEnabled();
+        final List<CalDAVResource> added = Collections.synchronizedList(new ArrayList<>());
+        List<BulkOperationResult> results =
+                runConcurrently(
+                        calendars,
+                        concurrency,
+                        calendar -> {
+                            BulkOperationResult result = putNewResource(httpClient, calendar, true);
+                            if (usingCache && result.isSucceeded()) {
+                                added.add(createCachedResource(httpClient, calendar, result));
+                            }
+                            return result;
+                        },
+                        this::failedAdd);
+
+        if (usingCache) {
+            cache.putResources(added);
+        }
+        return results;
+    }
+
+    /**
+     * Deletes the resources at the given paths, running up to {@code concurrency} DELETEs at once.
+     * When an ETag is given for a path, the DELETE is conditional (If-Match) and fails with a
+     * {@link ResourceOutOfDateException} if the resource changed. The deleted resources are
+     * evicted from the cache at once.
+     *
+     * <p>The httpClient is shared by the worker threads, so it must be thread safe.
+     *
+     * @param httpClient the httpClient which will make the requests
+     * @param pathsToETags Paths of the resources to delete, mapped to their ETag or to null for
+     *     an unconditional DELETE
+     * @param concurrency Maximum number of concurrent DELETEs
+     * @return The result for each path, in iteration order, its href being the path whether the
+     *     DELETE succeeded or not
+     * @throws CalDAV4JException if interrupted
+     */
+    public List<BulkOperationResult> deleteAll(
+            final HttpClient httpClient, Map<String, String> pathsToETags, int concurrency)
+            throws CalDAV4JException {
+        List<BulkOperationResult> results =
+                runConcurrently(
+                        pathsToETags.entrySet(),
+                        concurrency,
+                        e -> deleteResource(httpClient, e.getKey(), e.getValue()),
+                        (e, error) -> {
+                            BulkOperationResult result = new BulkOperationResult(null, error);
+                            result.setHref(e.getKey());
+                            result.setETag(e.getValue());
+                            return result;
+                        });
+
+        if (isCacheEnabled()) {
+            List<String> deleted = new ArrayList<>(results.size());
+            for (BulkOperationResult result : results) {
+                if (result.isSucceeded()) deleted.add(getHref(result.getHref()));
+            }
+            cache.removeResources(deleted);
+        }
+        return results;
+    }
+
+    /**
+     * Deletes the resources at the given paths unconditionally.
+     *
+     * @see #deleteAll(HttpClient, Map, int)
+     * @param httpClient the httpClient which will make the requests
+     * @param paths Paths of the resources to delete
+     * @param concurrency Maximum number of concurrent DELETEs
+     * @return The result for each path, in iteration order
+     * @throws CalDAV4JException if interrupted
+     */
+    public List<BulkOperationResult> deleteAll(
+            HttpClient httpClient, Collection<String> paths, int concurrency)
+            throws CalDAV4JException {
+        Map<String, String> pathsToETags = new LinkedHashMap<>();
+        for (String path : paths) {
+            pathsToETags.put(path, null);
+        }
+        return deleteAll(httpClient, pathsToETags, concurrency);
+    }
+
+    /**
+     * Deletes the resources containing the components with the given UIDs. The UIDs are resolved
+     * with a single calendar-query, whose calendar-data is limited to the UID property, then the
+     * resources are deleted as by {@link #deleteAll(HttpClient, Map, int)}.
+     *
+     * <p>As a calendar object resource contains a single UID, the whole resource is deleted.
+     *
+     * @param httpClient the httpClient which will make the requests
+     * @param component Component type, e.g. VEVENT
+     * @param uids UIDs of the components to delete
+     * @param concurrency Maximum number of concurrent DELETEs
+     * @param ifMatch Whether the DELETEs are conditional on the ETags returned by the query
+     * @return The result for each UID, in iteration order. UIDs not found have a {@link
+     *     ResourceNotFoundException} error, the others the result of their DELETE, e.g. a {@link
+     *     ResourceOutOfDateException} if the resource changed since the query.
+     * @throws CalDAV4JException on error resolving the UIDs
+     */
+    public List<BulkOperationResult> deleteAllByUID(
+            HttpClient httpClient,
+            String component,
+            Collection<String> uids,
+            int concurrency,
+            boolean ifMatch)
+            throws CalDAV4JException {
+        Map<String, CalDAVResource> byUID = getResourcesByUID(httpClient, component);
+
+        Map<String, String> pathsToETags = new LinkedHashMap<>();
+        Map<String, String> pathToUID = new HashMap<>();
+        for (String uid : uids) {
+            CalDAVResource resource = byUID.get(uid);
+            if (resource != null) {
+                String path = UrlUtils.stripHost(resource.getResourceMetadata().getHref());
+                pathsToETags.put(path, ifMatch ? resource.getResourceMetadata().getETag() : null);
+                pathToUID.put(path, uid);
+            }
+        }
+
+        Map<String, BulkOperationResult> deleted = new HashMap<>();
+        for (BulkOperationResult result : deleteAll(httpClient, pathsToETags, concurrency)) {
+            String uid = pathToUID.get(result.getHref());
+            result.setUid(uid);
+            deleted.put(uid, result);
+        }
 
-        Random random = new Random();
+        List<BulkOperationResult> results = new ArrayList<>(uids.size());
+        for (String uid : uids) {
+            BulkOperationResult result = deleted.get(uid);
+            if (result == null) {
+                result =
+                        new BulkOperationResult(
+                                uid,
+                                new ResourceNotFoundException(
+                                        ResourceNotFoundException.IdentifierType.UID, uid));
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Lists the resources of the collection containing the given component, with a calendar-data
+     * limited to the UID of the component.
+     *
+     * @param httpClient the httpClient which will make the request
+     * @param component Component type, e.g. VEVENT
+     * @return The resources, by UID
+     * @throws CalDAV4JException on error
+     */
+    protected Map<String, CalDAVResource> getResourcesByUID(
+            HttpClient httpClient, String component) throws CalDAV4JException {
+        CalendarQuery query = new GenerateQuery(component + " : UID", component).generate();
+
+        Map<String, CalDAVResource> byUID = new HashMap<>();
+        for (CalDAVResource resource :
+                parseStage.parse(getMultiStatusEntries(httpClient, query))) {
+            if (resource.getCalendar() == null) continue;
+            Component c = ICalendarUtils.getFirstComponent(resource, component);
+            String uid = c != null ? ICalendarUtils.getUIDValue(c) : null;
+            if (uid != null) byUID.put(uid, resource);
+        }
+        return byUID;
+    }
+
+    /**
+     * DELETEs a single resource. Does not update the cache.
+     *
+     * @param httpClient the httpClient which will make the request
+     * @param path Path to resource
+     * @param etag ETag for an If-Match condition, null for none
+     * @return The result of the DELETE, its href being the path
+     * @throws CalDAV4JException on error
+     */
+    private BulkOperationResult deleteResource(HttpClient httpClient, String path, String etag)
+            throws CalDAV4JException {
+        HttpDeleteMethod deleteMethod = methodFactory.createDeleteMethod(path, etag);
+        HttpResponse response;
+        try {
+            response = httpClient.execute(getDefaultHttpHost(deleteMethod.getURI()), deleteMethod);
+            EntityUtils.consume(response.getEntity());
+        } catch (Exception e) {
+            throw new CalDAV4JException("Problem executing delete method", e);
+        }
+
+        if (!deleteMethod.succeeded(response)) {
+            MethodUtil.StatusToExceptions(deleteMethod, response);
+        }
+        return new BulkOperationResult(null, path, etag);
+    }
+
+    /** Operation on a single item of a bulk operation. */
+    @FunctionalInterface
+    private interface BulkTask<T> {
+        BulkOperationResult run(T item) throws CalDAV4JException;
+    }
+
+    /** Builds the result of an item whose operation failed, identifying the item. */
+    @FunctionalInterface
+    private interface BulkFailure<T> {
+        BulkOperationResult failed(T item, CalDAV4JException error);
+    }
+
+    /** @return The result of a calendar which could not be added, with its UID and href. */
+    private BulkOperationResult failedAdd(Calendar calendar, CalDAV4JException error) {
+        String uid = null;
+        try {
+            uid = ICalendarUtils.getUIDValue(calendar);
+        } catch (CalDAV4JException | RuntimeException e) {
+            // no component to identify the calendar by
+        }
+        BulkOperationResult result = new BulkOperationResult(uid, error);
+        if (uid != null) {
+            result.setHref(getAbsolutePath(uid + ".ics"));
+        }
+        return result;
+    }
+
+    /**
+     * Runs the task on the items with a fixed pool of {@code concurrency} threads. An error only
+     * affects the result of its own item, built by {@code failure}.
+     *
+     * @return The result for each item, in iteration order
+     */
+    private static <T> List<BulkOperationResult> runConcurrently(
+            Collection<T> items,
+            int concurrency,
+            final BulkTask<T> task,
+            final BulkFailure<T> failure)
+            throws CalDAV4JException {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<BulkOperationResult>> futures = new ArrayList<>(items.size());
+            for (final T item : items) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    try {
+                                        return task.run(item);
+                                    } catch (CalDAV4JException e) {
+                                        return failure.failed(item, e);
+                                    }
+                                }));
+            }
+
+            List<BulkOperationResult> results = new ArrayList<>(futures.size());
+            Iterator<T> it = items.iterator();
+            for (Future<BulkOperationResult> future : futures) {
+                T item = it.next();
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    results.add(
+                            failure.failed(
+                                    item,
+                                    new CalDAV4JException("Bulk operation failed", e.getCause())));
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CalDAV4JException("Interrupted during bulk operation", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * PUTs a new resource named after the UID of the calendar, changing the UID and retrying up
+     * to 3 times while the server returns PRECONDITION_FAILED. Does not update the cache.
+     *
+     * @param httpClient the httpClient which will make the request
+     * @param c Calendar to add
+     * @param attemptRetry Retry with a new UID if the resource already exists
+     * @return The result of the PUT, with an error if the resource still existed after the
+     *     retries
+     * @throws CalDAV4JException on error
+     */
+    private BulkOperationResult putNewResource(
+            HttpClient httpClient, Calendar c, boolean attemptRetry) throws CalDAV4JException {
         //
         // retry 3 times while caldav server returns PRECONDITION_FAILED
         //
-        boolean didIt = false;
-        String path = "";
         Uid uid = null;
-        for (int x = 0; x < 3 && !didIt; x++) {
-            String resourceName = null;
-
+        String href = null;
+        for (int x = 0; x < 3; x++) {
             // Sets the UID if null.
             uid = ICalendarUtils.setUID(c);
 
@@ -385,21 +761,12 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
             }
 
             HttpPutMethod putMethod = createPutMethodForNewResource(uid.getValue() + ".ics", c);
+            href = putMethod.getURI().toString();
             HttpResponse response = null;
             try {
                 response = httpClient.execute(getDefaultHttpHost(putMethod.getURI()), putMethod);
-
-                if (isCacheEnabled() && putMethod.succeeded(response)) {
-                    String etag =
-                            UrlUtils.getHeaderPrettyValue(response, CalDAVConstants.HEADER_ETAG);
-                    if (etag == null) {
-                        etag = getETagbyMultiget(httpClient, putMethod.getURI().toString());
-                    }
-                    CalDAVResource calDAVResource =
-                            new CalDAVResource(c, etag, putMethod.getURI().toString());
-                    cache.putResource(calDAVResource);
-                }
-
+                // release the connection for the next PUT
+                EntityUtils.consume(response.getEntity());
             } catch (Exception e) {
                 throw new CalDAV4JException("Trouble executing PUT", e);
             }
@@ -409,8 +776,11 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
                     // Succeeded
                 case CalDAVStatus.SC_CREATED:
                 case CalDAVStatus.SC_NO_CONTENT:
-                    didIt = true;
-                    break;
+                    invalidateNotFound(c, href);
+                    return new BulkOperationResult(
+                            uid.getValue(),
+                            href,
+                            UrlUtils.getHeaderPrettyValue(response, CalDAVConstants.HEADER_ETAG));
                     // Another calendar with the same UID exists. Thus, retry.
                 case CalDAVStatus.SC_PRECONDITION_FAILED:
                     if (attemptRetry) continue;
@@ -418,7 +788,23 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
                     MethodUtil.StatusToExceptions(putMethod, response);
             }
         } // for
-        return uid.getValue();
+        BulkOperationResult result =
+                new BulkOperationResult(
+                        uid.getValue(), new ResourceOutOfDateException("Resource exists: " + href));
+        result.setHref(href);
+        return result;
+    }
+
+    /** Creates the resource to cache for an added calendar, retrieving its etag if needed. */
+    private CalDAVResource createCachedResource(
+            HttpClient httpClient, Calendar c, BulkOperationResult result)
+            throws CalDAV4JException {
+        if (result.getETag() == null) {
+            result.setETag(getETagbyMultiget(httpClient, result.getHref()));
+        }
+        // the caller keeps the added calendar, cache a copy
+        return new CalDAVResource(
+                ICalendarUtils.copyCalendar(c), result.getETag(), result.getHref());
     }
 
     /**
@@ -435,7 +821,8 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
             throws CalDAV4JException {
         String uid = ICalendarUtils.getUIDValue(vevent);
         CalDAVResource resource = getCalDAVResourceByUID(httpClient, Component.VEVENT, uid);
-        Calendar calendar = resource.getCalendar();
+        // the cached calendar is shared, modify a copy
+        Calendar calendar = ICalendarUtils.copyCalendar(resource.getCalendar());
 
         // let's find the master event first!
         VEvent originalVEvent = ICalendarUtils.getMasterEvent(calendar, uid);
@@ -487,8 +874,13 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
             HttpClient httpClient, String component, String uid)
             throws CalDAV4JException, ResourceNotFoundException {
 
+        String uidKey = NegativeLookupCache.uidKey(component, uid);
+        if (isNotFound(uidKey)) {
+            throw new ResourceNotFoundException(ResourceNotFoundException.IdentifierType.UID, uid);
+        }
+
         // first check the cache!
-        String href = cache.getHrefForEventUID(uid);
+        String href = cache.getHrefForUID(component, uid);
         CalDAVResource resource = null;
 
         if (href != null) {
@@ -528,13 +920,18 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
                 throw new Exception();
             }
         } catch (Exception e) {
+            recordNotFound(uidKey);
             throw new ResourceNotFoundException(ResourceNotFoundException.IdentifierType.UID, uid);
         }
     }
 
     /**
-     * GET the resource at the given path. Will check the cache first, and compare that to the
-     * latest etag obtained using a HEAD request.
+     * GET the resource at the given path. Will check the cache first, and revalidate the cached
+     * copy with a conditional GET (If-None-Match with the cached etag).
+     *
+     * <p>In the stale-while-revalidate read mode, see {@link #setMaxStale(long, TimeUnit)}, a
+     * cached copy validated less than the max-stale age ago is returned at once and revalidated
+     * in the background.
      *
      * <p>if calendar resource in cache is void, retrieve directly from server (avoid get etag only)
      *
@@ -549,9 +946,78 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
         CalDAVResource calDAVResource = cache.getResource(getHref(path));
         if (calDAVResource == null || calDAVResource.getCalendar() == null) {
             return getCalDAVResourceFromServer(httpClient, path);
+        } else if (isWithinMaxStale(calDAVResource)) {
+            revalidateInBackground(httpClient, path, calDAVResource);
+            return calDAVResource;
         } else {
-            String currentEtag = getETag(httpClient, path);
-            return getCalDAVResource(httpClient, path, currentEtag);
+            // a single conditional GET revalidates the cached copy
+            return getCalDAVResourceFromServer(httpClient, path, calDAVResource);
+        }
+    }
+
+    /**
+     * @param resource Cached resource
+     * @return true if the stale-while-revalidate read mode is enabled and the resource was
+     *     validated less than the max-stale age ago
+     */
+    private boolean isWithinMaxStale(CalDAVResource resource) {
+        long lastValidated = resource.getResourceMetadata().getLastValidated();
+        return maxStaleMillis > 0
+                && lastValidated > 0
+                && System.currentTimeMillis() - lastValidated < maxStaleMillis;
+    }
+
+    /**
+     * Revalidates a cached resource with a conditional GET on the revalidation executor. A changed
+     * resource replaces the cached one, a deleted one is removed from the cache. Concurrent
+     * revalidations of the same href are de-duplicated: while one is running, it is returned.
+     *
+     * @param httpClient the httpClient which will make the request, from another thread
+     * @param path path to resource
+     * @param cached cached copy of the resource
+     * @return Future of the revalidated resource
+     */
+    protected CompletableFuture<CalDAVResource> revalidateInBackground(
+            final HttpClient httpClient, final String path, final CalDAVResource cached) {
+        final String href = getHref(path);
+        final CompletableFuture<CalDAVResource> future = new CompletableFuture<>();
+        CompletableFuture<CalDAVResource> running = revalidations.putIfAbsent(href, future);
+        if (running != null) {
+            return running;
+        }
+
+        try {
+            revalidationExecutor.execute(
+                    () -> {
+                        try {
+                            future.complete(getCalDAVResourceFromServer(httpClient, path, cached));
+                        } catch (CalDAV4JException e) {
+                            if (e instanceof ResourceNotFoundException
+                                    || e.getCause() instanceof ResourceNotFoundException) {
+                                removeFromCache(href);
+                            } else {
+                                log.warn("Unable to revalidate " + href, e);
+                            }
+                            future.completeExceptionally(e);
+                        } catch (RuntimeException e) {
+                            log.warn("Unable to revalidate " + href, e);
+                            future.completeExceptionally(e);
+                        } finally {
+                            revalidations.remove(href, future);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            revalidations.remove(href, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void removeFromCache(String href) {
+        try {
+            cache.removeResource(href);
+        } catch (CalDAV4JException e) {
+            log.warn("Unable to remove " + href + " from cache", e);
         }
     }
 
@@ -577,7 +1043,9 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
                 && calDAVResource.getCalendar()
                         != null) { // FIXME calDAVResource's calendar should not be null!
             String cachedEtag = calDAVResource.getResourceMetadata().getETag();
-            if (cachedEtag.equals(currentEtag)) {
+            boolean matched = cachedEtag != null && cachedEtag.equals(currentEtag);
+            recordRevalidation(matched);
+            if (matched) {
                 return calDAVResource;
             }
         }
@@ -599,13 +1067,48 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
      */
     protected CalDAVResource getCalDAVResourceFromServer(HttpClient httpClient, String path)
             throws CalDAV4JException {
+        return getCalDAVResourceFromServer(httpClient, path, null);
+    }
+
+    /**
+     * Gets a CalDAVResource from the server with a conditional GET: if the ETag of the cached
+     * resource still matches, the server answers 304 Not Modified and a {@link
+     * CalDAVResource#revalidated(long) revalidated copy} of the cached resource replaces it and is
+     * returned. Otherwise the resource is retrieved and replaces the cached one.
+     *
+     * @param httpClient the httpClient which will make the request
+     * @param path path to resource
+     * @param cached cached copy of the resource, null to retrieve it unconditionally
+     * @return CalDAVResource
+     * @throws CalDAV4JException on error
+     */
+    protected CalDAVResource getCalDAVResourceFromServer(
+            HttpClient httpClient, String path, CalDAVResource cached) throws CalDAV4JException {
+        String pathKey = NegativeLookupCache.pathKey(path);
+        if (cached == null && isNotFound(pathKey)) {
+            throw new ResourceNotFoundException(
+                    ResourceNotFoundException.IdentifierType.PATH, path);
+        }
         CalDAVResource calDAVResource = null;
         HttpGetMethod getMethod = getMethodFactory().createGetMethod(path);
+        if (cached != null) {
+            getMethod.setIfNoneMatch(cached.getResourceMetadata().getETag());
+        }
+        long start = System.nanoTime();
         try {
             HttpResponse response =
                     httpClient.execute(getDefaultHttpHost(getMethod.getURI()), getMethod);
 
+            if (cached != null
+                    && response.getStatusLine().getStatusCode() == CalDAVStatus.SC_NOT_MODIFIED) {
+                recordRevalidation(true);
+                return putRevalidated(cached);
+            }
+
             if (response.getStatusLine().getStatusCode() != CalDAVStatus.SC_OK) {
+                if (response.getStatusLine().getStatusCode() == CalDAVStatus.SC_NOT_FOUND) {
+                    recordNotFound(pathKey);
+                }
                 MethodUtil.StatusToExceptions(getMethod, response);
                 throw new BadStatusException(getMethod, response);
             }
@@ -627,7 +1130,15 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
             calDAVResource.setCalendar(calendar);
             calDAVResource.getResourceMetadata().setETag(etag);
             calDAVResource.getResourceMetadata().setHref(href);
+            calDAVResource.getResourceMetadata().setLastValidated(System.currentTimeMillis());
+            if (response.getEntity() != null) {
+                calDAVResource
+                        .getResourceMetadata()
+                        .setContentLength(response.getEntity().getContentLength());
+            }
 
+            if (cached != null) recordRevalidation(false);
+            recordLoad(1, start);
             cache.putResource(calDAVResource);
         } catch (BadStatusException e) {
             throw e;
@@ -664,16 +1175,6 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
         if (isCacheEnabled()) cache.removeResource(getHref(path));
     }
 
-    /**
-     * Replace double slashes
-     *
-     * @param relativePath Relative Path, who's absolute Path is to be returned.
-     * @return a path with double slashes removed
-     */
-    protected String getAbsolutePath(String relativePath) {
-        return (getCalendarCollectionRoot() + relativePath).replaceAll("/+", "/");
-    }
-
     /**
      * Retrieve etags using HEAD /path/to/resource.ics
      *
@@ -724,12 +1225,9 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
     protected String getETagbyMultiget(HttpClient httpClient, String path)
             throws CalDAV4JException {
         String etag = null;
-        DavPropertyNameSet props = new DavPropertyNameSet();
-        props.add(DavPropertyName.GETETAG);
-        CalendarMultiget query = new CalendarMultiget(props, null, false, false);
-        query.addHref(path);
-
-        MultiStatus multiStatus = getMultiStatusforQuery(httpClient, query);
+        MultiStatus multiStatus =
+                getMultiStatusforQuery(
+                        httpClient, getETagMultigetReport(), UrlUtils.removeDoubleSlashes(path));
         for (MultiStatusResponse response : multiStatus.getResponses()) {
             if (response.getStatus()[0].getStatusCode() == CalDAVStatus.SC_OK) {
                 etag = CalendarDataProperty.getEtagfromResponse(response);
@@ -739,6 +1237,46 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
         return etag;
     }
 
+    /**
+     * @return The calendar multiget of the ETag of a single href, compiled on first use
+     * @throws CalDAV4JException on error serialising the report
+     */
+    private static CompiledReportRequest getETagMultigetReport() throws CalDAV4JException {
+        CompiledReportRequest report = etagMultigetReport;
+        if (report == null) {
+            DavPropertyNameSet props = new DavPropertyNameSet();
+            props.add(DavPropertyName.GETETAG);
+            CalendarMultiget query = new CalendarMultiget(props, null, false, false);
+            query.addHref(HREF_SLOT);
+            try {
+                etagMultigetReport = report = CompiledReportRequest.compile(query, HREF_SLOT);
+            } catch (IOException e) {
+                throw new CalDAV4JException("Problem compiling the ETag multiget", e);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * @return The free busy query of a time range with a start and an end, compiled on first use
+     * @throws CalDAV4JException on error serialising the report
+     */
+    private static CompiledReportRequest getFreeBusyReport() throws CalDAV4JException {
+        CompiledReportRequest report = freeBusyReport;
+        if (report == null) {
+            FreeBusyQuery query = new FreeBusyQuery(new TimeRange(START_SLOT, END_SLOT));
+            try {
+                freeBusyReport =
+                        report =
+                                CompiledReportRequest.compile(
+                                        query, START_SLOT.toString(), END_SLOT.toString());
+            } catch (IOException e) {
+                throw new CalDAV4JException("Problem compiling the free busy query", e);
+            }
+        }
+        return report;
+    }
+
     /**
      * Useful for retrieving a list of UIDs of all events
      *
@@ -799,59 +1337,68 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
         if (isCacheEnabled()) {
             query.setCalendarDataProp(null);
         }
+        List<MultiStatusEntry> entries = getMultiStatusEntries(httpClient, query);
+
+        List<CalDAVResource> resources =
+                isCacheEnabled()
+                        ? resolveFromCache(httpClient, entries)
+                        : parseStage.parse(entries);
+        for (CalDAVResource resource : resources) {
+            if (resource.getCalendar() != null) list.add(resource.getCalendar());
+        }
+
+        return list;
+    }
+
+    /**
+     * Get Responses for a specific ReportMethod Query
+     *
+     * @param httpClient Client which makes the request.
+     * @param query Query for the Report Method to execute.
+     * @return MultiStatus Response for the Query
+     * @throws CalDAV4JException on error
+     */
+    public MultiStatus getMultiStatusforQuery(HttpClient httpClient, CalDAVReportRequest query)
+            throws CalDAV4JException {
+
         HttpCalDAVReportMethod reportMethod = null;
         try {
             reportMethod =
                     methodFactory.createCalDAVReportMethod(
                             getCalendarCollectionRoot(), query, CalDAVConstants.DEPTH_1);
-            HttpResponse httpResponse =
+            HttpResponse response =
                     httpClient.execute(getDefaultHttpHost(reportMethod.getURI()), reportMethod);
 
-            MultiStatusResponse[] set =
-                    reportMethod.getResponseBodyAsMultiStatus(httpResponse).getResponses();
-            for (MultiStatusResponse response : set) {
-                String etag = CalendarDataProperty.getEtagfromResponse(response);
-
-                if (isCacheEnabled()) {
-                    CalDAVResource resource =
-                            getCalDAVResource(
-                                    httpClient, UrlUtils.stripHost(response.getHref()), etag);
-
-                    list.add(resource.getCalendar());
-
-                    // XXX check if getCalDAVResource does its caching job
-                    cache.putResource(resource);
+            if (reportMethod.succeeded(response))
+                return reportMethod.getResponseBodyAsMultiStatus(response);
 
-                } else {
-                    Calendar cal = CalendarDataProperty.getCalendarfromResponse(response);
-                    if (cal != null) list.add(cal);
-                }
-            }
         } catch (Exception he) {
             throw new CalDAV4JException("Problem executing method", he);
         } finally {
             if (reportMethod != null) reportMethod.reset();
         }
 
-        return list;
+        return null;
     }
 
     /**
-     * Get Responses for a specific ReportMethod Query
+     * Get Responses for a compiled Report, without building nor serialising the report again.
      *
      * @param httpClient Client which makes the request.
-     * @param query Query for the Report Method to execute.
+     * @param query Compiled Report to execute.
+     * @param values Values of the slots of the compiled report
      * @return MultiStatus Response for the Query
      * @throws CalDAV4JException on error
      */
-    public MultiStatus getMultiStatusforQuery(HttpClient httpClient, CalDAVReportRequest query)
+    public MultiStatus getMultiStatusforQuery(
+            HttpClient httpClient, CompiledReportRequest query, Object... values)
             throws CalDAV4JException {
 
         HttpCalDAVReportMethod reportMethod = null;
         try {
             reportMethod =
                     methodFactory.createCalDAVReportMethod(
-                            getCalendarCollectionRoot(), query, CalDAVConstants.DEPTH_1);
+                            getCalendarCollectionRoot(), query, CalDAVConstants.DEPTH_1, values);
             HttpResponse response =
                     httpClient.execute(getDefaultHttpHost(reportMethod.getURI()), reportMethod);
 
@@ -875,6 +1422,13 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
      * server: - retrieve the resource using getCaldavReource(client, string), this method checks
      * cache
      *
+     * <p>The multistatus response is streamed through {@link
+     * HttpCalDAVReportMethod#processResponseBody}, so no DOM is built for the whole body.
+     *
+     * <p>If a {@link #setQueryResultCache(QueryResultCache) query result cache} is set, the
+     * results retained for the same query on this collection are returned while the collection
+     * tag is unchanged.
+     *
      * @param httpClient the httpClient which will make the request
      * @param query Query to get the CalDAV resources for
      * @return List of CalDAVResource's
@@ -889,36 +1443,178 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
         }
         log.trace("Executing query: " + GenerateQuery.printQuery(query));
 
-        HttpCalDAVReportMethod reportMethod = null;
+        // short-circuit the query when the collection did not change since it was last executed
+        String collectionHref = getHref(getCalendarCollectionRoot());
+        String queryKey = null;
+        String tag = null;
+        if (queryResultCache != null) {
+            queryKey = XMLUtils.toXML(query.createNewDocument());
+            tag = getCollectionTag(httpClient);
+            if (tag != null) {
+                List<CalDAVResource> retained = queryResultCache.get(collectionHref, queryKey, tag);
+                if (retained != null) {
+                    log.debug("Collection tag unchanged, using retained results");
+                    return new ArrayList<>(retained);
+                }
+            }
+        }
 
-        List<CalDAVResource> list = new ArrayList<>();
+        List<CalDAVResource> list = resolveResources(httpClient, query, usingCache);
+        if (tag != null) {
+            queryResultCache.put(collectionHref, queryKey, tag, list);
+        }
+        return list;
+    }
+
+    private List<CalDAVResource> resolveResources(
+            HttpClient httpClient, CalendarQuery query, boolean usingCache)
+            throws CalDAV4JException {
+        List<MultiStatusEntry> entries = getMultiStatusEntries(httpClient, query);
+        if (!usingCache) {
+            return parseStage.parse(entries);
+        }
+
+        // with the cache only href and etag are returned, resolve them now that the report
+        // connection has been released.
+        return resolveFromCache(httpClient, entries);
+    }
+
+    /**
+     * Resolves etag-only responses against the cache. Resources missing from the cache, or whose
+     * etag changed, are fetched with a few chunked calendar multiget REPORTs instead of one GET
+     * each, and put in the cache in bulk. Cached resources whose etag matched are replaced by
+     * revalidated copies, those which could not be fetched any more are removed from the cache.
+     *
+     * @param httpClient the httpClient which will make the request
+     * @param entries Responses containing the href and etag of the resources
+     * @return The resources, in the order of the entries. Resources that could not be fetched are
+     *     omitted.
+     * @throws CalDAV4JException on error
+     */
+    protected List<CalDAVResource> resolveFromCache(
+            HttpClient httpClient, List<MultiStatusEntry> entries) throws CalDAV4JException {
+        Map<String, CalDAVResource> resolved = new HashMap<>();
+        List<CalDAVResource> revalidated = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (MultiStatusEntry entry : entries) {
+            if (!entry.isOk()) continue;
+            String path = UrlUtils.stripHost(entry.getHref());
+            CalDAVResource cached = cache.getResource(getHref(path));
+            if (cached != null && cached.getCalendar() != null) {
+                String cachedETag = cached.getResourceMetadata().getETag();
+                boolean matched = cachedETag != null && cachedETag.equals(entry.getETag());
+                recordRevalidation(matched);
+                if (matched) {
+                    CalDAVResource resource = cached.revalidated(now);
+                    revalidated.add(resource);
+                    resolved.put(path, resource);
+                    continue;
+                }
+            }
+            stale.add(entry.getHref());
+        }
+        // the cached resources are frozen: their revalidated copies replace them
+        if (!revalidated.isEmpty()) {
+            cache.putResources(revalidated);
+        }
+
+        if (!stale.isEmpty()) {
+            log.debug(stale.size() + " resources missing or stale in cache, fetching them");
+            long start = System.nanoTime();
+            List<CalDAVResource> fetched = multigetResources(httpClient, stale);
+            recordLoad(fetched.size(), start);
+            for (CalDAVResource resource : fetched) {
+                String href = resource.getResourceMetadata().getHref();
+                resolved.put(UrlUtils.stripHost(href), resource);
+            }
+            cache.putResources(fetched);
+            // resources deleted since the query are no longer returned
+            for (String href : stale) {
+                if (!resolved.containsKey(UrlUtils.stripHost(href))) {
+                    cache.removeResource(getCacheHref(href));
+                }
+            }
+        }
+
+        List<CalDAVResource> list = new ArrayList<>(resolved.size());
+        for (MultiStatusEntry entry : entries) {
+            CalDAVResource resource = resolved.get(UrlUtils.stripHost(entry.getHref()));
+            if (resource != null) {
+                list.add(resource);
+            } else if (entry.isOk()) {
+                log.warn("Unable to get CalDAVResource for " + entry.getHref());
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Retrieves the CTag ({@code CS:getctag}) or, if not supported, the sync-token of the
+     * collection with a Depth 0 PROPFIND. Either changes whenever a member of the collection
+     * changes.
+     *
+     * @param httpClient the httpClient which will make the request
+     * @return The collection tag, null if the server supports neither property.
+     * @throws CalDAV4JException on error
+     */
+    protected String getCollectionTag(HttpClient httpClient) throws CalDAV4JException {
+        DavPropertyNameSet propfind = new DavPropertyNameSet();
+        propfind.add(CalDAVConstants.DNAME_GETCTAG);
+        propfind.add(CalDAVConstants.DNAME_SYNC_TOKEN);
+
+        HttpPropFindMethod method = null;
+        try {
+            method =
+                    methodFactory.createPropFindMethod(
+                            getCalendarCollectionRoot(), propfind, CalDAVConstants.DEPTH_0);
+            HttpResponse response = httpClient.execute(getDefaultHttpHost(method.getURI()), method);
+            return method.getCollectionTag(response);
+        } catch (Exception e) {
+            throw new CalDAV4JException("Error in PROPFIND " + getCalendarCollectionRoot(), e);
+        } finally {
+            if (method != null) method.reset();
+        }
+    }
+
+    /**
+     * Executes a REPORT on the collection and returns the streamed responses, in server order.
+     * Calendar data is kept as raw text, to be parsed by the {@link #getParseStage() parse stage}.
+     *
+     * @param httpClient the httpClient which will make the request
+     * @param query Query for the Report Method to execute.
+     * @return Responses to the query
+     * @throws CalDAV4JException on error
+     */
+    protected List<MultiStatusEntry> getMultiStatusEntries(
+            HttpClient httpClient, CalDAVReportRequest query) throws CalDAV4JException {
+        List<MultiStatusEntry> entries = new ArrayList<>();
+        processReport(httpClient, query, CalDAVConstants.DEPTH_1, entries::add);
+        return entries;
+    }
+
+    /**
+     * Executes a REPORT on the collection, streaming the responses to the handler.
+     *
+     * @param httpClient the httpClient which will make the request
+     * @param query Query for the Report Method to execute.
+     * @param depth Depth of the Report
+     * @param handler Handler receiving the responses, in server order
+     * @throws CalDAV4JException on error
+     */
+    protected void processReport(
+            HttpClient httpClient, CalDAVReportRequest query, int depth, MultiStatusHandler handler)
+            throws CalDAV4JException {
+        HttpCalDAVReportMethod reportMethod = null;
         try {
             reportMethod =
                     methodFactory.createCalDAVReportMethod(
-                            getCalendarCollectionRoot(), query, CalDAVConstants.DEPTH_1);
+                            getCalendarCollectionRoot(), query, depth);
             HttpResponse httpResponse =
                     httpClient.execute(getDefaultHttpHost(reportMethod.getURI()), reportMethod);
 
             log.trace("Parsing response.. ");
-
-            MultiStatusResponse[] responses =
-                    reportMethod.getResponseBodyAsMultiStatus(httpResponse).getResponses();
-            for (MultiStatusResponse response : responses) {
-                String etag = CalendarDataProperty.getEtagfromResponse(response);
-
-                if (usingCache) {
-                    CalDAVResource resource =
-                            getCalDAVResource(
-                                    httpClient, UrlUtils.stripHost(response.getHref()), etag);
-                    list.add(resource);
-                    cache.putResource(resource);
-                } else {
-                    if (response != null) {
-                        list.add(new CalDAVResource(response));
-                    }
-                }
-            }
-
+            reportMethod.processResponseBody(httpResponse, handler);
         } catch (ConnectException connEx) {
             throw new CalDAV4JException(
                     "Can't connecto to " + getDefaultHttpHost(reportMethod.getURI()),
@@ -928,62 +1624,420 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
         } finally {
             if (reportMethod != null) reportMethod.reset();
         }
+    }
 
-        return list;
+    public int getMultigetChunkSize() {
+        return multigetChunkSize;
+    }
+
+    /**
+     * Sets the maximum number of hrefs requested by a single calendar multiget, when resources
+     * missing from the cache or changed members are fetched.
+     *
+     * @param multigetChunkSize Number of hrefs, at least 1
+     */
+    public void setMultigetChunkSize(int multigetChunkSize) {
+        if (multigetChunkSize < 1) {
+            throw new IllegalArgumentException("Multiget chunk size must be positive");
+        }
+        this.multigetChunkSize = multigetChunkSize;
+    }
+
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
+    /**
+     * Sets the cache retaining query results. Before executing a query, the CTag or sync-token of
+     * the collection is retrieved, and when unchanged since the query was last executed the
+     * retained results are returned.
+     *
+     * @param queryResultCache Cache to use, null to always execute the queries.
+     */
+    public void setQueryResultCache(QueryResultCache queryResultCache) {
+        this.queryResultCache = queryResultCache;
+    }
+
+    /** @return The max-stale age in milliseconds, 0 if the read mode is disabled. */
+    public long getMaxStaleMillis() {
+        return maxStaleMillis;
     }
+
+    /**
+     * Enables the stale-while-revalidate read mode: a cached resource whose ETag was validated
+     * less than {@code maxStale} ago is returned without waiting for the server, and revalidated
+     * in the background on the {@link #setRevalidationExecutor(Executor) revalidation executor}.
+     * Older cached resources are revalidated before being returned, as usual.
+     *
+     * <p>The httpClient passed to the reads is then used by the revalidation executor too, so it
+     * must be thread safe.
+     *
+     * @param maxStale Max-stale age, 0 to disable the read mode
+     * @param unit Unit of maxStale
+     */
+    public void setMaxStale(long maxStale, TimeUnit unit) {
+        if (maxStale < 0) {
+            throw new IllegalArgumentException("Max-stale age must not be negative");
+        }
+        this.maxStaleMillis = unit.toMillis(maxStale);
+    }
+
+    /** @return Executor running the background revalidations */
+    public Executor getRevalidationExecutor() {
+        return revalidationExecutor;
+    }
+
+    /**
+     * @param revalidationExecutor Executor running the background revalidations, by default the
+     *     common ForkJoinPool
+     */
+    public void setRevalidationExecutor(Executor revalidationExecutor) {
+        this.revalidationExecutor =
+                revalidationExecutor != null ? revalidationExecutor : ForkJoinPool.commonPool();
+    }
+
     //
-    // MultiGet queries
+    // Cache warm-up
     //
 
     /**
-     * @param httpClient the httpClient which will make the request
-     * @param query Multiget Query to get.
-     * @return Returns a list of Calendar Components represented by the query.
-     * @throws CalDAV4JException on error
+     * Loads the whole collection in the cache, as {@link #warmCache(HttpClient, int,
+     * WarmUpListener)} does, without reporting the progress.
+     *
+     * @param httpClient the httpClient which will make the requests
+     * @param concurrency Maximum number of concurrent multigets
+     * @return The number of resources loaded and the throughput
+     * @throws CalDAV4JException if the collection could not be listed
      */
-    protected List<Calendar> getComponentByMultiget(HttpClient httpClient, CalendarMultiget query)
+    public WarmUpResult warmCache(HttpClient httpClient, int concurrency)
             throws CalDAV4JException {
-        if (isCacheEnabled()) {
-            query.setCalendarDataProp(null);
+        return warmCache(httpClient, concurrency, null);
+    }
+
+    /**
+     * Loads the whole collection in the cache, e.g. before routing traffic to a new node. The
+     * members are listed with an etag-only calendar query, then those not already cached with
+     * their current ETag are fetched with calendar multigets of {@link #getMultigetChunkSize()}
+     * hrefs, up to {@code concurrency} at once. The resources of each multiget are put in the
+     * cache at once. A failed multiget only affects its own resources: it is logged, and its error
+     * reported to the listener and in the result.
+     *
+     * <p>The httpClient is shared by the worker threads, so it must be thread safe and its
+     * connection manager should allow {@code concurrency} connections to the server.
+     *
+     * @param httpClient the httpClient which will make the requests
+     * @param concurrency Maximum number of concurrent multigets
+     * @param listener Listener receiving the progress after every multiget and the failed
+     *     multigets, null for none
+     * @return The number of resources loaded and failed, the errors and the throughput
+     * @throws CalDAV4JException if the collection could not be listed
+     */
+    public WarmUpResult warmCache(
+            final HttpClient httpClient, int concurrency, final WarmUpListener listener)
+            throws CalDAV4JException {
+        if (!isCacheEnabled()) {
+            throw new IllegalStateException("No cache to warm up");
         }
 
-        HttpCalDAVReportMethod reportMethod = null;
-        List<Calendar> list = new ArrayList<>();
+        long start = System.nanoTime();
+        WarmUpResult result = new WarmUpResult();
+        GenerateQuery gq = new GenerateQuery();
+        gq.setNoCalendarData(true);
+        List<String> hrefs = new ArrayList<>();
+        for (MultiStatusEntry entry : getMultiStatusEntries(httpClient, gq.generate())) {
+            if (!entry.isOk() || entry.getETag() == null) continue;
+            result.setListed(result.getListed() + 1);
+            CalDAVResource cached = cache.getResource(getHref(UrlUtils.stripHost(entry.getHref())));
+            if (cached != null && entry.getETag().equals(cached.getResourceMetadata().getETag())) {
+                result.setAlreadyCached(result.getAlreadyCached() + 1);
+            } else {
+                hrefs.add(entry.getHref());
+            }
+        }
+
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < hrefs.size(); i += multigetChunkSize) {
+            chunks.add(hrefs.subList(i, Math.min(hrefs.size(), i + multigetChunkSize)));
+        }
+
+        final int total = hrefs.size();
+        final AtomicInteger loaded = new AtomicInteger();
+        final AtomicLong loadedBytes = new AtomicLong();
+        List<BulkOperationResult> results =
+                runConcurrently(
+                        chunks,
+                        concurrency,
+                        chunk -> {
+                            long chunkStart = System.nanoTime();
+                            List<CalDAVResource> resources = multigetResources(httpClient, chunk);
+                            recordLoad(resources.size(), chunkStart);
+                            cache.putResources(resources);
+                            for (CalDAVResource resource : resources) {
+                                long length = resource.getResourceMetadata().getContentLength();
+                                if (length > 0) loadedBytes.addAndGet(length);
+                            }
+                            int count = loaded.addAndGet(resources.size());
+                            if (listener != null) {
+                                synchronized (listener) {
+                                    listener.progress(count, total);
+                                }
+                            }
+                            return new BulkOperationResult();
+                        },
+                        (chunk, error) -> {
+                            log.warn(
+                                    "Cache warm-up multiget of "
+                                            + chunk.size()
+                                            + " resources failed",
+                                    error);
+                            if (listener != null) {
+                                synchronized (listener) {
+                                    listener.failed(chunk, error);
+                                }
+                            }
+                            return new BulkOperationResult(null, error);
+                        });
+        for (BulkOperationResult chunkResult : results) {
+            if (!chunkResult.isSucceeded()) result.getErrors().add(chunkResult.getError());
+        }
+
+        result.setLoaded(loaded.get());
+        result.setFailed(total - loaded.get());
+        result.setLoadedBytes(loadedBytes.get());
+        result.setElapsedNanos(System.nanoTime() - start);
+        log.debug("Cache warm-up of " + getCalendarCollectionRoot() + ": " + result);
+        return result;
+    }
+
+    //
+    // Collection synchronization
+    //
 
+    /** @return The sync-token of the last synchronization, null if none was performed. */
+    public String getSyncToken() {
+        return syncToken;
+    }
+
+    /**
+     * Sets the sync-token to synchronize from, e.g. one persisted by a previous session. As the
+     * ETags of the members are not known, every member reported by the next synchronization is
+     * considered added.
+     *
+     * @param syncToken Sync-token, null to perform an initial synchronization
+     */
+    public void setSyncToken(String syncToken) {
+        this.syncToken = syncToken;
+        syncETags.clear();
+    }
+
+    /**
+     * Synchronizes the collection from the last known sync-token using a {@code
+     * DAV:sync-collection} report, then fetches the added and changed members with calendar
+     * multiget. When the server rejects the token, an initial synchronization is performed and
+     * the members no longer reported are considered removed. When the server truncates the
+     * results, the synchronization continues from the new token until every change is reported.
+     *
+     * <p>The hrefs of the result, like those of its resources, are normalized as in {@link
+     * #getCacheHref(String)}. When the cache is enabled, fetched resources are put in the cache
+     * and removed members are evicted from it.
+     *
+     * @see <a href="https://tools.ietf.org/html/rfc6578">RFC 6578</a>
+     * @param httpClient the httpClient which will make the request
+     * @return The changes since the last synchronization
+     * @throws CalDAV4JException on error
+     */
+    public SyncResult sync(HttpClient httpClient) throws CalDAV4JException {
+        SyncResult result;
         try {
-            reportMethod =
-                    methodFactory.createCalDAVReportMethod(
-                            getCalendarCollectionRoot(), query, CalDAVConstants.DEPTH_1);
-            HttpResponse httpResponse =
-                    httpClient.execute(getDefaultHttpHost(reportMethod.getURI()), reportMethod);
+            result = syncCollection(httpClient, syncToken);
+        } catch (CalDAV4JException e) {
+            if (syncToken == null || !isInvalidSyncToken(e)) throw e;
+            log.info("Sync-token " + syncToken + " rejected, performing initial synchronization");
+            result = syncCollection(httpClient, null);
+        }
 
-            MultiStatusResponse[] e =
-                    reportMethod.getResponseBodyAsMultiStatus(httpResponse).getResponses();
+        List<String> paths = new ArrayList<>();
+        for (String href : result.getAdded()) {
+            paths.add(UrlUtils.stripHost(href));
+        }
+        for (String href : result.getChanged()) {
+            paths.add(UrlUtils.stripHost(href));
+        }
+        List<CalDAVResource> resources = multigetResources(httpClient, paths);
+        result.addResources(resources);
 
-            for (MultiStatusResponse response : e) {
-                CalDAVResource resource = null;
+        if (isCacheEnabled()) {
+            cache.putResources(resources);
+            for (String href : result.getRemoved()) {
+                cache.removeResource(href);
+            }
+        }
 
-                if (isCacheEnabled()) {
-                    String etag = CalendarDataProperty.getEtagfromResponse(response);
-                    try {
-                        resource =
-                                getCalDAVResource(
-                                        httpClient, UrlUtils.stripHost(response.getHref()), etag);
+        syncToken = result.getSyncToken();
+        return result;
+    }
 
-                        list.add(resource.getCalendar());
-                    } catch (Exception e1) {
-                        log.warn("Unable to get CalDAVResource for etag: " + etag);
-                        e1.printStackTrace();
-                    }
-                } else {
-                    list.add(CalendarDataProperty.getCalendarfromResponse(response));
+    /**
+     * Executes {@code DAV:sync-collection} reports, classifying the reported members against the
+     * ETags known from the previous synchronizations. The hrefs of the members are normalized as
+     * in {@link #getCacheHref(String)}. No calendar data is fetched. While the
+     * server truncates the results (507 Insufficient Storage on the collection), another report
+     * is executed from the new token.
+     *
+     * @param httpClient the httpClient which will make the request
+     * @param token Sync-token to synchronize from, null for an initial synchronization
+     * @return The changes reported by the server
+     * @throws CalDAV4JException on error
+     */
+    protected SyncResult syncCollection(HttpClient httpClient, String token)
+            throws CalDAV4JException {
+        DavPropertyNameSet properties = new DavPropertyNameSet();
+        properties.add(DavPropertyName.GETETAG);
+
+        final SyncResult result = new SyncResult();
+        result.setInitial(token == null);
+        final Map<String, String> seen = new HashMap<>();
+        // members added or changed in an earlier page, fetched once
+        final Set<String> modified = new HashSet<>();
+        String from = token;
+        while (true) {
+            result.setTruncated(false);
+            processReport(
+                    httpClient,
+                    new SyncCollection(from, properties),
+                    CalDAVConstants.DEPTH_0,
+                    new MultiStatusHandler() {
+                        @Override
+                        public void handleResponse(MultiStatusEntry entry) {
+                            String href = UrlUtils.stripHost(entry.getHref());
+                            if (entry.getStatus()
+                                    == CalDAVStatus.SC_INSUFFICIENT_SPACE_ON_RESOURCE) {
+                                result.setTruncated(true);
+                            } else if (entry.getStatus() == CalDAVStatus.SC_NOT_FOUND) {
+                                result.addRemoved(getCacheHref(href));
+                                syncETags.remove(href);
+                                seen.remove(href);
+                            } else if (entry.isOk()) {
+                                String etag = entry.getETag();
+                                String previous = syncETags.put(href, etag);
+                                seen.put(href, etag);
+                                if (modified.contains(href)) {
+                                    return;
+                                } else if (previous == null) {
+                                    result.addAdded(getCacheHref(href));
+                                    modified.add(href);
+                                } else if (!previous.equals(etag)) {
+                                    result.addChanged(getCacheHref(href));
+                                    modified.add(href);
+                                }
+                            }
+                        }
+
+                        @Override
+                        public void handleSyncToken(String syncToken) {
+                            result.setSyncToken(syncToken);
+                        }
+                    });
+
+            if (!result.isTruncated()) break;
+            if (result.getSyncToken() == null || result.getSyncToken().equals(from)) {
+                log.warn("Truncated synchronization without a new sync-token, stopping");
+                break;
+            }
+            from = result.getSyncToken();
+            log.debug("Synchronization truncated, continuing from " + from);
+        }
+
+        if (token == null && !result.isTruncated()) {
+            // an initial synchronization lists every member, the others were removed
+            Iterator<String> it = syncETags.keySet().iterator();
+            while (it.hasNext()) {
+                String href = it.next();
+                if (!seen.containsKey(href)) {
+                    result.addRemoved(getCacheHref(href));
+                    it.remove();
                 }
             }
+        }
+        return result;
+    }
 
-        } catch (Exception he) {
-            throw new CalDAV4JException("Problem executing method", he);
-        } finally {
-            if (reportMethod != null) reportMethod.reset();
+    /**
+     * Fetches the resources with calendar multiget, in chunks of {@link #getMultigetChunkSize()}
+     * hrefs. The hrefs of the resources are normalized as in {@link #getCacheHref(String)}, ready
+     * to be cached.
+     *
+     * @param httpClient the httpClient which will make the request
+     * @param hrefs hrefs of the resources to fetch
+     * @return The fetched resources
+     * @throws CalDAV4JException on error
+     */
+    protected List<CalDAVResource> multigetResources(HttpClient httpClient, List<String> hrefs)
+            throws CalDAV4JException {
+        List<CalDAVResource> resources = new ArrayList<>(hrefs.size());
+        for (int i = 0; i < hrefs.size(); i += multigetChunkSize) {
+            CalendarMultiget query = new CalendarMultiget();
+            query.addProperty(CalDAVConstants.DNAME_GETETAG);
+            query.setCalendarDataProp(new CalendarData());
+            query.setHrefs(
+                    new ArrayList<>(
+                            hrefs.subList(i, Math.min(hrefs.size(), i + multigetChunkSize))));
+
+            List<MultiStatusEntry> entries = new ArrayList<>();
+            for (MultiStatusEntry entry : getMultiStatusEntries(httpClient, query)) {
+                if (entry.isOk()) entries.add(entry);
+            }
+            for (CalDAVResource resource : parseStage.parse(entries)) {
+                ResourceMetadata metadata = resource.getResourceMetadata();
+                metadata.setHref(getCacheHref(metadata.getHref()));
+                resources.add(resource);
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * @param e Exception raised by the sync-collection report
+     * @return true if the server rejected the sync-token, i.e. the error body reports the {@code
+     *     DAV:valid-sync-token} precondition. Other 403 or 409 errors are not retried.
+     */
+    private static boolean isInvalidSyncToken(CalDAV4JException e) {
+        if (!(e.getCause() instanceof DavException)) return false;
+        DavException davException = (DavException) e.getCause();
+        if (!davException.hasErrorCondition()) return false;
+        try {
+            Element error = davException.toXml(DomUtil.createDocument());
+            return DomUtil.hasChildElement(
+                    error, CalDAVConstants.ELEM_VALID_SYNC_TOKEN, CalDAVConstants.NAMESPACE_WEBDAV);
+        } catch (ParserConfigurationException pce) {
+            return false;
+        }
+    }
+    //
+    // MultiGet queries
+    //
+
+    /**
+     * @param httpClient the httpClient which will make the request
+     * @param query Multiget Query to get.
+     * @return Returns a list of Calendar Components represented by the query.
+     * @throws CalDAV4JException on error
+     */
+    protected List<Calendar> getComponentByMultiget(HttpClient httpClient, CalendarMultiget query)
+            throws CalDAV4JException {
+        if (isCacheEnabled()) {
+            query.setCalendarDataProp(null);
+        }
+
+        List<Calendar> list = new ArrayList<>();
+        List<MultiStatusEntry> entries = getMultiStatusEntries(httpClient, query);
+
+        List<CalDAVResource> resources =
+                isCacheEnabled()
+                        ? resolveFromCache(httpClient, entries)
+                        : parseStage.parse(entries);
+        for (CalDAVResource resource : resources) {
+            list.add(resource.getCalendar());
         }
 
         return list;
@@ -1017,6 +2071,8 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
      * href="https://tools.ietf.org/html/rfc4791#section-7.10">RFC 4791 Section 7.10</a> with a
      * Depth of 1.
      *
+     * <p>A time range with a start and an end is sent in a report serialised only once.
+     *
      * @param httpClient the httpClient which will make the request
      * @param timeRange timerange to check
      * @return VFREEBUSY Calendar
@@ -1024,7 +2080,33 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase {
      */
     public Calendar getFreeBusyQueryCalendar(HttpClient httpClient, TimeRange timeRange)
             throws CalDAV4JException {
-        return this.getFreeBusyQueryCalendar(httpClient, new FreeBusyQuery(timeRange));
+        if (timeRange == null || timeRange.getStart() == null || timeRange.getEnd() == null) {
+            return this.getFreeBusyQueryCalendar(httpClient, new FreeBusyQuery(timeRange));
+        }
+
+        CompiledReportRequest report = getFreeBusyReport();
+        HttpCalDAVReportMethod reportMethod = null;
+        try {
+            reportMethod =
+                    methodFactory.createCalDAVReportMethod(
+                            getCalendarCollectionRoot(),
+                            report,
+                            CalDAVConstants.DEPTH_1,
+                            timeRange.getStart().toString(),
+                            timeRange.getEnd().toString());
+            HttpResponse response =
+                    httpClient.execute(getDefaultHttpHost(reportMethod.getURI()), reportMethod);
+
+            if (reportMethod.succeeded(response))
+                return reportMethod.getResponseBodyAsCalendar(response);
+
+        } catch (Exception he) {
+            throw new CalDAV4JException("Problem executing method", he);
+        } finally {
+            if (reportMethod != null) reportMethod.reset();
+        }
+
+        return null;
     }
 
     /**
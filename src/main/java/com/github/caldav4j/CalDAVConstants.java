@@ -32,6 +32,8 @@ public interface CalDAVConstants {
     public static final String NS_DAV = "DAV:";
     public static final String NS_QUAL_DAV = "D";
     public static final String NS_QUAL_CALDAV = "C";
+    public static final String NS_CALENDARSERVER = "http://calendarserver.org/ns/";
+    public static final String NS_QUAL_CALENDARSERVER = "CS";
 
     public static final String PROC_ID_DEFAULT = "-//NONSGML CalDAV4j Client//EN";
 
@@ -49,12 +51,14 @@ public interface CalDAVConstants {
     public static final String DAV_DISPLAYNAME = "displayname";
     public static final String DAV_PRINCIPAL_OWNER = "owner";
     public static final String DAV_PRINCIPAL_AUTHENTICATED = "authenticated";
+    public static final String DAV_SYNC_COLLECTION = "sync-collection";
 
     public static final String CALDAV_PRIVILEGE_READ_FREE_BUSY = "read-free-busy";
     public static final String CALDAV_PRIVILEGE_SCHEDULE = "schedule";
     public static final String CALDAV_CALENDAR_DESCRIPTION = "calendar-description";
     public static final String CALDAV_CALENDAR_QUERY = "calendar-query";
     public static final String CALDAV_CALENDAR_DATA = "calendar-data";
+    public static final String CALENDARSERVER_GETCTAG = "getctag";
 
     public static final String ATTR_START = "start";
     public static final String ATTR_END = "end";
@@ -73,6 +77,8 @@ public interface CalDAVConstants {
     public static final String ELEM_PROPNAME = "propname";
     public static final String ELEM_FILTER = "filter";
     public static final String ELEM_GETETAG = "getetag";
+    public static final String ELEM_SYNC_TOKEN = "sync-token";
+    public static final String ELEM_VALID_SYNC_TOKEN = "valid-sync-token";
 
     public static final String COLLATION_ASCII = "i;ascii-casemap";
     public static final String COLLATION_OCTET = "i;octet";
@@ -88,6 +94,8 @@ public interface CalDAVConstants {
     public static final Namespace NAMESPACE_CALDAV =
             Namespace.getNamespace(NS_QUAL_CALDAV, NS_CALDAV);
     public static final Namespace NAMESPACE_WEBDAV = Namespace.getNamespace(NS_QUAL_DAV, NS_DAV);
+    public static final Namespace NAMESPACE_CALENDARSERVER =
+            Namespace.getNamespace(NS_QUAL_CALENDARSERVER, NS_CALENDARSERVER);
 
     // Jackrabbit Constants
 
@@ -114,6 +122,10 @@ public interface CalDAVConstants {
             DavPropertyName.create(ELEM_ALLPROP, NAMESPACE_WEBDAV);
     public static final DavPropertyName DNAME_DISPLAYNAME =
             DavPropertyName.create(DAV_DISPLAYNAME, NAMESPACE_CALDAV);
+    public static final DavPropertyName DNAME_SYNC_TOKEN =
+            DavPropertyName.create(ELEM_SYNC_TOKEN, NAMESPACE_WEBDAV);
+    public static final DavPropertyName DNAME_GETCTAG =
+            DavPropertyName.create(CALENDARSERVER_GETCTAG, NAMESPACE_CALENDARSERVER);
     // -------------------------------------------------< PropFind Constants >---
     public static final int PROPFIND_BY_PROPERTY = 0;
     public static final int PROPFIND_ALL_PROP = 1;
@@ -17,6 +17,7 @@
 package com.github.caldav4j;
 
 import com.github.caldav4j.model.response.CalendarDataProperty;
+import com.github.caldav4j.model.response.MultiStatusEntry;
 import java.io.Serializable;
 import net.fortuna.ical4j.model.Calendar;
 import org.apache.jackrabbit.webdav.MultiStatusResponse;
@@ -24,11 +25,17 @@ import org.apache.jackrabbit.webdav.MultiStatusResponse;
 /**
  * A serializable class representing the Calendar along with the associated metadata. Used for
  * storing into the cache.
+ *
+ * <p>The caches {@link #freeze() freeze} the resources they store, as these are shared by every
+ * thread reading them: the calendar and the metadata of a frozen resource can't be replaced or
+ * changed, and the calendar must not be modified either. To make changes, modify a copy, see
+ * {@link com.github.caldav4j.util.ICalendarUtils#copyCalendar(Calendar)}.
  */
 public class CalDAVResource implements Serializable {
     private static final long serialVersionUID = -2607152240683030192L;
     private ResourceMetadata resourceMetadata = null;
     private Calendar calendar = null;
+    private transient volatile boolean frozen = false;
 
     /**
      * Construct a Resource based on the Response.
@@ -40,6 +47,23 @@ public class CalDAVResource implements Serializable {
         this.resourceMetadata = new ResourceMetadata();
         this.resourceMetadata.setETag(CalendarDataProperty.getEtagfromResponse(response));
         this.resourceMetadata.setHref(response.getHref());
+        this.resourceMetadata.setLastValidated(System.currentTimeMillis());
+    }
+
+    /**
+     * Construct a Resource based on a streamed response entry.
+     *
+     * @param entry Entry to construct from.
+     */
+    public CalDAVResource(MultiStatusEntry entry) {
+        this.calendar = CalendarDataProperty.getCalendarfromString(entry.getCalendarData());
+        this.resourceMetadata = new ResourceMetadata();
+        this.resourceMetadata.setETag(entry.getETag());
+        this.resourceMetadata.setHref(entry.getHref());
+        this.resourceMetadata.setLastValidated(System.currentTimeMillis());
+        if (entry.getCalendarData() != null) {
+            this.resourceMetadata.setContentLength(entry.getCalendarData().length());
+        }
     }
 
     /**
@@ -62,7 +86,12 @@ public class CalDAVResource implements Serializable {
         resourceMetadata = new ResourceMetadata();
     }
 
+    /**
+     * @param calendar The calendar of the resource
+     * @throws UnsupportedOperationException if the resource is frozen
+     */
     public void setCalendar(Calendar calendar) {
+        checkNotFrozen();
         this.calendar = calendar;
     }
 
@@ -73,4 +102,43 @@ public class CalDAVResource implements Serializable {
     public ResourceMetadata getResourceMetadata() {
         return resourceMetadata;
     }
+
+    /**
+     * Returns a copy of the resource, sharing its calendar, whose ETag was confirmed by the server
+     * at the given time. The metadata of a frozen resource is read-only, so a revalidated resource
+     * is replaced in the cache rather than updated in place.
+     *
+     * @param lastValidated Time in milliseconds when the server confirmed the ETag
+     * @return The copy, not frozen
+     */
+    public CalDAVResource revalidated(long lastValidated) {
+        ResourceMetadata metadata = resourceMetadata;
+        CalDAVResource copy = new CalDAVResource(calendar, metadata.getETag(), metadata.getHref());
+        copy.resourceMetadata.setContentLength(metadata.getContentLength());
+        copy.resourceMetadata.setLastValidated(lastValidated);
+        return copy;
+    }
+
+    /**
+     * Makes the resource and its metadata read-only, once it is shared between threads. ical4j
+     * offers no read-only view of a calendar, so only its replacement is prevented: the calendar
+     * must be treated as read-only by convention.
+     */
+    public void freeze() {
+        resourceMetadata.freeze();
+        frozen = true;
+    }
+
+    /** @return true if the resource is read-only. */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /** @throws UnsupportedOperationException if the resource is frozen */
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException(
+                    "Cached resource " + resourceMetadata.getHref() + " is read-only");
+        }
+    }
 }
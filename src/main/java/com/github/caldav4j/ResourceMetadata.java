@@ -20,20 +20,28 @@ import com.github.caldav4j.util.UrlUtils;
 import java.io.Serializable;
 
 /**
- * Serializable Metadata for each {@link CalDAVResource} containing currently the ETag, and Href of
- * the Resource.
+ * Serializable Metadata for each {@link CalDAVResource} containing currently the ETag, Href,
+ * content length of the Resource and when its ETag was last validated.
+ *
+ * <p>The metadata is frozen with its resource, once cached: it is then read-only, see {@link
+ * CalDAVResource#revalidated(long)} to update the validation time of a cached resource.
  */
 public class ResourceMetadata implements Serializable {
 
     private static final long serialVersionUID = -3385356629201926900L;
     private String eTag = null;
     private String href = null;
+    private long contentLength = -1;
+    private volatile long lastValidated = 0;
+    private transient volatile boolean frozen = false;
 
     public String getETag() {
         return eTag;
     }
 
+    /** @throws UnsupportedOperationException if the metadata is frozen */
     public void setETag(String tag) {
+        checkNotFrozen();
         eTag = tag;
     }
 
@@ -41,7 +49,51 @@ public class ResourceMetadata implements Serializable {
         return href;
     }
 
+    /** @throws UnsupportedOperationException if the metadata is frozen */
     public void setHref(String href) {
+        checkNotFrozen();
         this.href = UrlUtils.removeDoubleSlashes(href);
     }
+
+    /** @return Length in bytes of the calendar data as received, -1 if unknown. */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /** @throws UnsupportedOperationException if the metadata is frozen */
+    public void setContentLength(long contentLength) {
+        checkNotFrozen();
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * @return Time in milliseconds, as {@link System#currentTimeMillis()}, when the server last
+     *     confirmed the ETag, 0 if unknown.
+     */
+    public long getLastValidated() {
+        return lastValidated;
+    }
+
+    /** @throws UnsupportedOperationException if the metadata is frozen */
+    public void setLastValidated(long lastValidated) {
+        checkNotFrozen();
+        this.lastValidated = lastValidated;
+    }
+
+    /** Makes the metadata read-only, see {@link CalDAVResource#freeze()}. */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /** @return true if the metadata is read-only. */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException(
+                    "Metadata of cached resource " + href + " is read-only");
+        }
+    }
 }
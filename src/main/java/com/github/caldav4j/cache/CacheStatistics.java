@@ -0,0 +1,190 @@
+package com.github.caldav4j.cache;
+
+import com.github.caldav4j.exceptions.CacheException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters describing how well a {@link CalDAVResourceCache} works. The cache records the lookups
+ * and evictions, the collections using it record the revalidations and loads from the server.
+ *
+ * <p>Counters are {@link LongAdder}s, so recording is cheap even when many threads use the cache.
+ * They can be read directly, or through JMX once {@link #register(String) registered}.
+ */
+public class CacheStatistics implements CacheStatisticsMXBean {
+
+    /** Domain of the JMX object names of the registered statistics. */
+    public static final String JMX_DOMAIN = "com.github.caldav4j";
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder uidHits = new LongAdder();
+    private final LongAdder uidMisses = new LongAdder();
+    private final LongAdder revalidationsMatched = new LongAdder();
+    private final LongAdder revalidationsChanged = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    private final LongSupplier size;
+    private final LongSupplier bytesHeld;
+    private ObjectName objectName = null;
+
+    /** Creates statistics for a cache whose size is unknown. */
+    public CacheStatistics() {
+        this(() -> -1, () -> -1);
+    }
+
+    /**
+     * @param size Supplies the number of cached resources
+     * @param bytesHeld Supplies the estimated number of bytes held by the cache
+     */
+    public CacheStatistics(LongSupplier size, LongSupplier bytesHeld) {
+        this.size = size;
+        this.bytesHeld = bytesHeld;
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /** @param hit Whether the UID was found in the cache */
+    public void recordUidLookup(boolean hit) {
+        (hit ? uidHits : uidMisses).increment();
+    }
+
+    /** @param matched Whether the ETag of the cached resource matched the one of the server */
+    public void recordRevalidation(boolean matched) {
+        (matched ? revalidationsMatched : revalidationsChanged).increment();
+    }
+
+    /** @param count Number of evicted or expired resources */
+    public void recordEvictions(int count) {
+        evictions.add(count);
+    }
+
+    /**
+     * @param count Number of resources loaded from the server
+     * @param nanos Duration of the load, in nanoseconds
+     */
+    public void recordLoad(int count, long nanos) {
+        loads.add(count);
+        loadNanos.add(nanos);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public long getUidHitCount() {
+        return uidHits.sum();
+    }
+
+    public long getUidMissCount() {
+        return uidMisses.sum();
+    }
+
+    public long getRevalidationMatchedCount() {
+        return revalidationsMatched.sum();
+    }
+
+    public long getRevalidationChangedCount() {
+        return revalidationsChanged.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /** @return Total duration of the loads, in nanoseconds. */
+    public long getTotalLoadNanos() {
+        return loadNanos.sum();
+    }
+
+    public double getAverageLoadMillis() {
+        long count = loads.sum();
+        return count == 0 ? 0 : (double) loadNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public long getSize() {
+        return size.getAsLong();
+    }
+
+    public long getBytesHeld() {
+        return bytesHeld.getAsLong();
+    }
+
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        uidHits.reset();
+        uidMisses.reset();
+        revalidationsMatched.reset();
+        revalidationsChanged.reset();
+        evictions.reset();
+        loads.reset();
+        loadNanos.reset();
+    }
+
+    /**
+     * Registers the statistics in the platform MBean server, as {@code
+     * com.github.caldav4j:type=CacheStatistics,name=<name>}.
+     *
+     * @param name Name of the cache, e.g. the collection or region it is used for
+     * @throws CacheException on error registering the MBean
+     */
+    public synchronized void register(String name) throws CacheException {
+        unregister();
+        try {
+            ObjectName objectName =
+                    new ObjectName(
+                            JMX_DOMAIN + ":type=CacheStatistics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+        } catch (JMException e) {
+            throw new CacheException("Problem registering the cache statistics " + name, e);
+        }
+    }
+
+    /** Unregisters the statistics from the platform MBean server, if registered. */
+    public synchronized void unregister() {
+        if (objectName == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            // already unregistered
+        }
+        objectName = null;
+    }
+
+    /** @return Name the statistics are registered with, null if not registered. */
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+}
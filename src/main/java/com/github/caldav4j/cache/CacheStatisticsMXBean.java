@@ -0,0 +1,42 @@
+package com.github.caldav4j.cache;
+
+/**
+ * Management interface of the {@link CacheStatistics}, exposed through JMX by {@link
+ * CacheStatistics#register(String)}.
+ */
+public interface CacheStatisticsMXBean {
+
+    long getHitCount();
+
+    long getMissCount();
+
+    /** @return Ratio of the lookups by href that hit the cache, 0 if there was none. */
+    double getHitRatio();
+
+    long getUidHitCount();
+
+    long getUidMissCount();
+
+    /** @return Number of cached resources whose ETag still matched the one of the server. */
+    long getRevalidationMatchedCount();
+
+    /** @return Number of cached resources whose ETag changed on the server. */
+    long getRevalidationChangedCount();
+
+    long getEvictionCount();
+
+    /** @return Number of loads of resources from the server, after a miss or a change. */
+    long getLoadCount();
+
+    /** @return Average duration of the loads, in milliseconds. */
+    double getAverageLoadMillis();
+
+    /** @return Number of cached resources, -1 if unknown. */
+    long getSize();
+
+    /** @return Estimated number of bytes held by the cache, -1 if unknown. */
+    long getBytesHeld();
+
+    /** Resets the counters. */
+    void reset();
+}
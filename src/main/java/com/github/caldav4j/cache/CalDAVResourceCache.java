@@ -2,6 +2,8 @@ package com.github.caldav4j.cache;
 
 import com.github.caldav4j.CalDAVResource;
 import com.github.caldav4j.exceptions.CacheException;
+import java.util.Collection;
+import net.fortuna.ical4j.model.Component;
 
 /**
  * Implementations allow for caching of CalDAVResources based on path, and also for paths based on
@@ -31,6 +33,19 @@ public interface CalDAVResourceCache {
      */
     public void putResource(CalDAVResource calDAVResource) throws CacheException;
 
+    /**
+     * Adds the given resources to the cache, as {@link #putResource(CalDAVResource)} does for each
+     * of them. Implementations may override this to add them in a single operation.
+     *
+     * @param calDAVResources the resources to cache
+     * @throws CacheException If error is encountered.
+     */
+    default void putResources(Collection<CalDAVResource> calDAVResources) throws CacheException {
+        for (CalDAVResource calDAVResource : calDAVResources) {
+            putResource(calDAVResource);
+        }
+    }
+
     /**
      * Returns the href for which the resource with the event with the given UID is stored.
      *
@@ -40,6 +55,38 @@ public interface CalDAVResourceCache {
      */
     public String getHrefForEventUID(String uid) throws CacheException;
 
+    /**
+     * Returns the href of the resource containing the component with the given name and UID.
+     *
+     * @param component Name of the component, e.g. VEVENT or VTODO
+     * @param uid UID of the component
+     * @return The href of the resource, null if not found.
+     * @throws CacheException If error is encountered.
+     */
+    default String getHrefForUID(String component, String uid) throws CacheException {
+        return getHrefForUID(component, uid, null);
+    }
+
+    /**
+     * Returns the href of the resource containing the override with the given RECURRENCE-ID of
+     * the component with the given name and UID. Implementations indexing only events by UID
+     * don't need to override this.
+     *
+     * @param component Name of the component, e.g. VEVENT or VTODO
+     * @param uid UID of the component
+     * @param recurrenceId Value of the RECURRENCE-ID of the override, null for any resource
+     *     containing the component
+     * @return The href of the resource, null if not found.
+     * @throws CacheException If error is encountered.
+     */
+    default String getHrefForUID(String component, String uid, String recurrenceId)
+            throws CacheException {
+        if (recurrenceId == null && Component.VEVENT.equals(component)) {
+            return getHrefForEventUID(uid);
+        }
+        return null;
+    }
+
     /**
      * Removes a resource from the cache
      *
@@ -47,4 +94,27 @@ public interface CalDAVResourceCache {
      * @throws CacheException If error is encountered.
      */
     public void removeResource(String href) throws CacheException;
+
+    /**
+     * Removes the resources from the cache, as {@link #removeResource(String)} does for each of
+     * them. Implementations may override this to remove them in a single operation.
+     *
+     * @param hrefs the hrefs of the CalDAVResources to remove
+     * @throws CacheException If error is encountered.
+     */
+    default void removeResources(Collection<String> hrefs) throws CacheException {
+        for (String href : hrefs) {
+            removeResource(href);
+        }
+    }
+
+    /**
+     * Returns the statistics of the cache, which the collections using it also update with the
+     * revalidations and loads they do.
+     *
+     * @return The statistics, null if the cache doesn't keep any.
+     */
+    default CacheStatistics getStatistics() {
+        return null;
+    }
 }
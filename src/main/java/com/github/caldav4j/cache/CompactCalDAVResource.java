@@ -0,0 +1,181 @@
+package com.github.caldav4j.cache;
+
+import com.github.caldav4j.CalDAVResource;
+import com.github.caldav4j.model.response.CalendarDataProperty;
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import net.fortuna.ical4j.model.Calendar;
+
+/**
+ * A resource storing the iCalendar text it was built from, optionally Deflate-compressed, instead
+ * of the parsed {@link Calendar}.
+ *
+ * <p>The calendar is parsed on first access by {@link #getCalendar()}, and the parsed copy is
+ * only softly reachable: the garbage collector may drop it under memory pressure, in which case
+ * it is parsed again on the next access. The metadata is always available without parsing, e.g.
+ * to revalidate the ETag of the resource.
+ *
+ * <p>Concurrent readers may each parse their own copy of the calendar.
+ */
+public class CompactCalDAVResource extends CalDAVResource {
+    private static final long serialVersionUID = 6153276092637436014L;
+
+    private byte[] data;
+    private boolean compressed;
+    private transient volatile SoftReference<Calendar> parsed;
+
+    /**
+     * @param calendarData iCalendar text of the resource, may be null
+     * @param etag ETag of the Calendar Resource
+     * @param href Href of the Calendar Resource
+     * @param compress Whether to compress the text
+     */
+    public CompactCalDAVResource(
+            String calendarData, String etag, String href, boolean compress) {
+        super(null, etag, href);
+        this.compressed = compress;
+        setCalendarData(calendarData);
+    }
+
+    /**
+     * Creates a compact copy of a resource. The calendar of the resource is serialized, and kept
+     * as the parsed copy.
+     *
+     * @param resource Resource to copy
+     * @param compress Whether to compress the iCalendar text
+     * @return The compact resource, or the same resource if it is already compact
+     */
+    public static CompactCalDAVResource of(CalDAVResource resource, boolean compress) {
+        if (resource instanceof CompactCalDAVResource) return (CompactCalDAVResource) resource;
+
+        Calendar calendar = resource.getCalendar();
+        CompactCalDAVResource compact =
+                new CompactCalDAVResource(
+                        calendar == null ? null : calendar.toString(),
+                        resource.getResourceMetadata().getETag(),
+                        resource.getResourceMetadata().getHref(),
+                        compress);
+        long contentLength = resource.getResourceMetadata().getContentLength();
+        if (contentLength >= 0) {
+            compact.getResourceMetadata().setContentLength(contentLength);
+        }
+        compact.getResourceMetadata()
+                .setLastValidated(resource.getResourceMetadata().getLastValidated());
+        compact.parsed = calendar == null ? null : new SoftReference<>(calendar);
+        return compact;
+    }
+
+    /**
+     * Returns a compact copy sharing the stored text and the parsed copy of the calendar.
+     *
+     * @see CalDAVResource#revalidated(long)
+     */
+    @Override
+    public CompactCalDAVResource revalidated(long lastValidated) {
+        CompactCalDAVResource copy =
+                new CompactCalDAVResource(
+                        null,
+                        getResourceMetadata().getETag(),
+                        getResourceMetadata().getHref(),
+                        compressed);
+        copy.data = data;
+        copy.parsed = parsed;
+        copy.getResourceMetadata().setContentLength(getResourceMetadata().getContentLength());
+        copy.getResourceMetadata().setLastValidated(lastValidated);
+        return copy;
+    }
+
+    /** @return The calendar, parsed from the stored text if no parsed copy is available. */
+    @Override
+    public Calendar getCalendar() {
+        SoftReference<Calendar> reference = parsed;
+        Calendar calendar = reference == null ? null : reference.get();
+        if (calendar == null && data != null) {
+            calendar = CalendarDataProperty.getCalendarfromString(getCalendarData());
+            if (calendar != null) {
+                parsed = new SoftReference<>(calendar);
+            }
+        }
+        return calendar;
+    }
+
+    /**
+     * Replaces the stored text with the serialized calendar.
+     *
+     * @param calendar Calendar of the resource
+     */
+    @Override
+    public void setCalendar(Calendar calendar) {
+        checkNotFrozen();
+        setCalendarData(calendar == null ? null : calendar.toString());
+        parsed = calendar == null ? null : new SoftReference<>(calendar);
+    }
+
+    /** @return The stored iCalendar text, null if the resource has no calendar. */
+    public String getCalendarData() {
+        if (data == null) return null;
+        return new String(compressed ? inflate(data) : data, StandardCharsets.UTF_8);
+    }
+
+    /** @return Number of bytes used to store the iCalendar text. */
+    public int getStoredSize() {
+        return data == null ? 0 : data.length;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    private void setCalendarData(String calendarData) {
+        parsed = null;
+        if (calendarData == null) {
+            data = null;
+            getResourceMetadata().setContentLength(-1);
+            return;
+        }
+        byte[] bytes = calendarData.getBytes(StandardCharsets.UTF_8);
+        getResourceMetadata().setContentLength(bytes.length);
+        data = compressed ? deflate(bytes) : bytes;
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated calendar data");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted calendar data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
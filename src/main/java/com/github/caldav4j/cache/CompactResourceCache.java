@@ -0,0 +1,84 @@
+package com.github.caldav4j.cache;
+
+import com.github.caldav4j.CalDAVResource;
+import com.github.caldav4j.exceptions.CacheException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A cache storing the resources as {@link CompactCalDAVResource}s in another cache: the iCalendar
+ * text is kept, optionally compressed, and the calendar is parsed again when needed and its
+ * parsed copy was collected.
+ *
+ * <p>Used with a cache bounded by weight, e.g. a {@link ConcurrentResourceCache} with a maximum
+ * weight, the resources are weighed by their stored size, so the same budget holds many more of
+ * them.
+ */
+public class CompactResourceCache implements CalDAVResourceCache {
+
+    private final CalDAVResourceCache delegate;
+    private final boolean compress;
+
+    /**
+     * @param delegate Cache storing the compact resources
+     * @param compress Whether to compress the iCalendar text
+     */
+    public CompactResourceCache(CalDAVResourceCache delegate, boolean compress) {
+        this.delegate = delegate;
+        this.compress = compress;
+    }
+
+    public CalDAVResourceCache getDelegate() {
+        return delegate;
+    }
+
+    /** @see CalDAVResourceCache#getResource(String) */
+    public CalDAVResource getResource(String href) throws CacheException {
+        return delegate.getResource(href);
+    }
+
+    /** @see CalDAVResourceCache#putResource(CalDAVResource) */
+    public void putResource(CalDAVResource calDAVResource) throws CacheException {
+        delegate.putResource(CompactCalDAVResource.of(calDAVResource, compress));
+    }
+
+    /** @see CalDAVResourceCache#putResources(Collection) */
+    @Override
+    public void putResources(Collection<CalDAVResource> calDAVResources) throws CacheException {
+        List<CalDAVResource> compact = new ArrayList<>(calDAVResources.size());
+        for (CalDAVResource calDAVResource : calDAVResources) {
+            compact.add(CompactCalDAVResource.of(calDAVResource, compress));
+        }
+        delegate.putResources(compact);
+    }
+
+    /** @see CalDAVResourceCache#getStatistics() */
+    @Override
+    public CacheStatistics getStatistics() {
+        return delegate.getStatistics();
+    }
+
+    /** @see CalDAVResourceCache#getHrefForEventUID(String) */
+    public String getHrefForEventUID(String uid) throws CacheException {
+        return delegate.getHrefForEventUID(uid);
+    }
+
+    /** @see CalDAVResourceCache#getHrefForUID(String, String, String) */
+    @Override
+    public String getHrefForUID(String component, String uid, String recurrenceId)
+            throws CacheException {
+        return delegate.getHrefForUID(component, uid, recurrenceId);
+    }
+
+    /** @see CalDAVResourceCache#removeResource(String) */
+    public void removeResource(String href) throws CacheException {
+        delegate.removeResource(href);
+    }
+
+    /** @see CalDAVResourceCache#removeResources(Collection) */
+    @Override
+    public void removeResources(Collection<String> hrefs) throws CacheException {
+        delegate.removeResources(hrefs);
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.caldav4j.cache;
+
+import com.github.caldav4j.CalDAVResource;
+import com.github.caldav4j.util.ICalendarUtils;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.Property;
+
+/**
+ * Keys of the secondary index of the caches: the component name, UID and, for the overrides of a
+ * recurring component, the RECURRENCE-ID of every component of a resource but its timezones.
+ */
+final class ComponentKeys {
+
+    private static final String[] NONE = new String[0];
+    private static final char SEPARATOR = '\u0000';
+
+    private ComponentKeys() {}
+
+    /**
+     * @param component Component name, e.g. VEVENT
+     * @param uid UID of the component
+     * @param recurrenceId RECURRENCE-ID of the override, null for the component itself
+     * @return The index key
+     */
+    static String key(String component, String uid, String recurrenceId) {
+        String key = component + SEPARATOR + uid;
+        return recurrenceId == null ? key : key + SEPARATOR + recurrenceId;
+    }
+
+    /**
+     * Every component is indexed by its name and UID, the overrides also by their RECURRENCE-ID.
+     *
+     * @param calDAVResource Resource to index
+     * @return The index keys of the resource, without duplicates
+     */
+    static String[] keys(CalDAVResource calDAVResource) {
+        Calendar calendar = calDAVResource.getCalendar();
+        if (calendar == null) return NONE;
+
+        Set<String> keys = new LinkedHashSet<>();
+        for (Object o : calendar.getComponents()) {
+            Component component = (Component) o;
+            if (Component.VTIMEZONE.equals(component.getName())) continue;
+
+            String uid = ICalendarUtils.getUIDValue(component);
+            if (uid == null) continue;
+
+            keys.add(key(component.getName(), uid, null));
+            String recurrenceId =
+                    ICalendarUtils.getPropertyValue(component, Property.RECURRENCE_ID);
+            if (recurrenceId != null) {
+                keys.add(key(component.getName(), uid, recurrenceId));
+            }
+        }
+        return keys.toArray(NONE);
+    }
+}
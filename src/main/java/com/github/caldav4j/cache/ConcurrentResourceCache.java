@@ -0,0 +1,389 @@
+package com.github.caldav4j.cache;
+
+import static com.github.caldav4j.util.UrlUtils.stripHost;
+
+import com.github.caldav4j.CalDAVResource;
+import com.github.caldav4j.util.UrlUtils;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import net.fortuna.ical4j.model.Component;
+
+/**
+ * A resource cache built on {@link ConcurrentHashMap}s, for use by many threads at once.
+ *
+ * <ul>
+ *   <li>Reads are lock-free: they only mark the entry as referenced.
+ *   <li>Writes lock one of a fixed set of stripes, chosen by href, so the href and component
+ *       indexes of a resource are always updated together.
+ *   <li>Entries expire after a time to live, and the number of entries is bounded. Their total
+ *       weight, as estimated by a {@link ResourceWeigher} when they are cached, can be bounded
+ *       too, so a few large resources can't take the heap used by many small ones. Eviction
+ *       follows a segmented LRU, approximated with reference bits: new entries are put in a
+ *       probation segment, entries referenced while on probation are promoted to a protected
+ *       segment, and victims are taken from the probation segment. Eviction is done by a single
+ *       writer at a time, the others don't wait for it.
+ * </ul>
+ *
+ * <p>Like {@link EhCacheResourceCache}, every component but the timezones is indexed by its name
+ * and UID, and the overrides of recurring components also by their RECURRENCE-ID.
+ */
+public class ConcurrentResourceCache implements CalDAVResourceCache {
+
+    public static final int DEFAULT_MAX_SIZE = 10000;
+    public static final long DEFAULT_TIME_TO_LIVE_SECONDS = 600;
+
+    private static final int STRIPES = 64;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final int maxSize;
+    private final int maxProtected;
+    private final long maxWeight;
+    private final ResourceWeigher weigher;
+    private final long timeToLiveNanos;
+    private final AtomicLong weight = new AtomicLong();
+    private final CacheStatistics statistics =
+            new CacheStatistics(this::size, () -> getMaxWeight() > 0 ? getWeight() : -1);
+
+    private final ConcurrentHashMap<String, Node> hrefToResource = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> keyToHref = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    // entries added since the last eviction pass, moved to the probation segment by the evictor
+    private final ConcurrentLinkedQueue<Node> added = new ConcurrentLinkedQueue<>();
+    // segments, guarded by evictionLock
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ArrayDeque<Node> probation = new ArrayDeque<>();
+    private final ArrayDeque<Node> protectedSegment = new ArrayDeque<>();
+
+    static final class Node {
+        final String href;
+        final String[] keys;
+        final CalDAVResource resource;
+        final long created;
+        final long weight;
+        volatile boolean referenced;
+        volatile boolean removed;
+
+        Node(String href, String[] keys, CalDAVResource resource, long created, long weight) {
+            this.href = href;
+            this.keys = keys;
+            this.resource = resource;
+            this.created = created;
+            this.weight = weight;
+        }
+    }
+
+    /** Creates a cache with the default size and time to live. */
+    public ConcurrentResourceCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param maxSize Maximum number of cached resources
+     * @param timeToLive Time after which a cached resource expires, 0 for no expiry
+     * @param unit Unit of timeToLive
+     */
+    public ConcurrentResourceCache(int maxSize, long timeToLive, TimeUnit unit) {
+        this(maxSize, 0, ResourceWeigher.DEFAULT, timeToLive, unit);
+    }
+
+    /**
+     * @param maxSize Maximum number of cached resources
+     * @param maxWeight Maximum total weight of the cached resources, in bytes, 0 for no bound
+     * @param weigher Estimates the weight of the resources, used only if maxWeight is set
+     * @param timeToLive Time after which a cached resource expires, 0 for no expiry
+     * @param unit Unit of timeToLive
+     */
+    public ConcurrentResourceCache(
+            int maxSize, long maxWeight, ResourceWeigher weigher, long timeToLive, TimeUnit unit) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("Cache weight must not be negative");
+        }
+        this.maxSize = maxSize;
+        this.maxProtected = Math.max(1, maxSize * PROTECTED_PERCENT / 100);
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /** @see CalDAVResourceCache#getResource(String) */
+    public CalDAVResource getResource(String href) {
+        href = UrlUtils.removeDoubleSlashes(href);
+        Node node = getNode(href);
+        if (node == null) {
+            node = getNode(stripHost(href));
+        }
+        if (node == null) {
+            statistics.recordMiss();
+            return null;
+        }
+        statistics.recordHit();
+        return node.resource;
+    }
+
+    /** @see CalDAVResourceCache#getHrefForEventUID(String) */
+    public String getHrefForEventUID(String uid) {
+        return getHrefForUID(Component.VEVENT, uid, null);
+    }
+
+    /** @see CalDAVResourceCache#getHrefForUID(String, String, String) */
+    @Override
+    public String getHrefForUID(String component, String uid, String recurrenceId) {
+        String key = ComponentKeys.key(component, uid, recurrenceId);
+        String href = keyToHref.get(key);
+        Node node = href == null ? null : getNode(href);
+        if (node == null || !Arrays.asList(node.keys).contains(key)) {
+            // the resource was removed or changed since
+            if (href != null) keyToHref.remove(key, href);
+            statistics.recordUidLookup(false);
+            return null;
+        }
+        statistics.recordUidLookup(true);
+        return href;
+    }
+
+    /** @see CalDAVResourceCache#putResource(CalDAVResource) */
+    public void putResource(CalDAVResource calDAVResource) {
+        put(calDAVResource);
+        evict();
+    }
+
+    /** @see CalDAVResourceCache#putResources(Collection) */
+    @Override
+    public void putResources(Collection<CalDAVResource> calDAVResources) {
+        for (CalDAVResource calDAVResource : calDAVResources) {
+            put(calDAVResource);
+        }
+        evict();
+    }
+
+    /**
+     * Removes the resource cached under the href, and, as {@link #getResource(String)} falls back
+     * to it, the one cached under the href without host.
+     *
+     * @see CalDAVResourceCache#removeResource(String)
+     */
+    public void removeResource(String href) {
+        href = UrlUtils.removeDoubleSlashes(href);
+        remove(href, null);
+        String path = stripHost(href);
+        if (!path.equals(href)) {
+            remove(path, null);
+        }
+    }
+
+    /** @return Number of cached resources, including the expired ones not evicted yet. */
+    public int size() {
+        return hrefToResource.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return Total weight of the cached resources, 0 if the weight is not bounded. */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    /** @return Maximum total weight of the cached resources, 0 if not bounded. */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /** @see CalDAVResourceCache#getStatistics() */
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /** Removes all the cached resources. */
+    public void clear() {
+        for (String href : hrefToResource.keySet()) {
+            remove(href, null);
+        }
+    }
+
+    private Node getNode(String href) {
+        Node node = hrefToResource.get(href);
+        if (node == null) return null;
+        if (isExpired(node, System.nanoTime())) {
+            if (remove(href, node)) statistics.recordEvictions(1);
+            return null;
+        }
+        node.referenced = true;
+        return node;
+    }
+
+    private void put(CalDAVResource calDAVResource) {
+        calDAVResource.freeze();
+        String href = calDAVResource.getResourceMetadata().getHref();
+        long nodeWeight = maxWeight > 0 ? weigher.weigh(calDAVResource) : 0;
+        Node node =
+                new Node(
+                        href,
+                        ComponentKeys.keys(calDAVResource),
+                        calDAVResource,
+                        System.nanoTime(),
+                        nodeWeight);
+
+        ReentrantLock lock = lockFor(href);
+        lock.lock();
+        try {
+            Node old = hrefToResource.put(href, node);
+            weight.addAndGet(node.weight);
+            if (old != null) {
+                old.removed = true;
+                weight.addAndGet(-old.weight);
+                for (String key : old.keys) {
+                    keyToHref.remove(key, href);
+                }
+            }
+            for (String key : node.keys) {
+                keyToHref.put(key, href);
+            }
+        } finally {
+            lock.unlock();
+        }
+        added.add(node);
+    }
+
+    /**
+     * Removes the resource at href.
+     *
+     * @param href href of the resource
+     * @param expected Node to remove, null to remove whatever is cached
+     * @return true if a node was removed
+     */
+    private boolean remove(String href, Node expected) {
+        ReentrantLock lock = lockFor(href);
+        lock.lock();
+        try {
+            Node node = hrefToResource.get(href);
+            if (node == null || (expected != null && node != expected)) return false;
+
+            hrefToResource.remove(href);
+            node.removed = true;
+            weight.addAndGet(-node.weight);
+            for (String key : node.keys) {
+                keyToHref.remove(key, href);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict() {
+        evictTo(maxSize, false);
+    }
+
+    /**
+     * Moves the added entries to the probation segment, then evicts down to the target size and
+     * the maximum weight.
+     *
+     * @param target Number of entries to keep
+     * @param wait Whether to wait for a concurrent eviction to end, instead of leaving the work
+     *     to it
+     */
+    void evictTo(int target, boolean wait) {
+        evictTo(target, maxWeight, wait);
+    }
+
+    /**
+     * Moves the added entries to the probation segment, then evicts down to the target size and
+     * the target weight.
+     *
+     * @param target Number of entries to keep
+     * @param targetWeight Total weight to keep, 0 included. Only applies if the weight of the
+     *     cache is bounded, as the entries are not weighed otherwise.
+     * @param wait Whether to wait for a concurrent eviction to end, instead of leaving the work
+     *     to it
+     */
+    void evictTo(int target, long targetWeight, boolean wait) {
+        if (wait) {
+            evictionLock.lock();
+        } else if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            Node node;
+            while ((node = added.poll()) != null) {
+                if (!node.removed) probation.addLast(node);
+            }
+            // replaced and removed entries stay in the segments until polled
+            if (probation.size() + protectedSegment.size() > 2 * maxSize) {
+                probation.removeIf(n -> n.removed);
+                protectedSegment.removeIf(n -> n.removed);
+            }
+
+            long now = System.nanoTime();
+            // bounds the second chances given when readers keep referencing entries
+            int budget = 2 * (probation.size() + protectedSegment.size());
+            while (hrefToResource.size() > target || isOverweight(targetWeight)) {
+                node = probation.pollFirst();
+                if (node == null) {
+                    if (!demote()) break;
+                    continue;
+                }
+                if (node.removed) continue;
+
+                if (node.referenced && !isExpired(node, now) && budget-- > 0) {
+                    node.referenced = false;
+                    protectedSegment.addLast(node);
+                    if (protectedSegment.size() > maxProtected) demote();
+                    continue;
+                }
+                if (remove(node.href, node)) statistics.recordEvictions(1);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Moves the least recently promoted entry of the protected segment back to probation, giving
+     * a second chance to the ones referenced since their promotion.
+     *
+     * @return false if the protected segment is empty
+     */
+    private boolean demote() {
+        Node node;
+        while ((node = protectedSegment.pollFirst()) != null) {
+            if (node.removed) continue;
+            if (node.referenced && protectedSegment.size() >= maxProtected) {
+                node.referenced = false;
+                protectedSegment.addLast(node);
+                continue;
+            }
+            probation.addLast(node);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isOverweight(long targetWeight) {
+        return maxWeight > 0 && weight.get() > targetWeight;
+    }
+
+    private boolean isExpired(Node node, long now) {
+        return timeToLiveNanos > 0 && now - node.created > timeToLiveNanos;
+    }
+
+    private ReentrantLock lockFor(String href) {
+        int h = href.hashCode();
+        return locks[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+}
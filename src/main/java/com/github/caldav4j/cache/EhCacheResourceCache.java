@@ -3,10 +3,12 @@ package com.github.caldav4j.cache;
 import static com.github.caldav4j.util.UrlUtils.stripHost;
 
 import com.github.caldav4j.CalDAVResource;
-import com.github.caldav4j.util.ICalendarUtils;
 import com.github.caldav4j.util.UrlUtils;
-import net.fortuna.ical4j.model.Calendar;
-import net.fortuna.ical4j.model.component.VEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import net.fortuna.ical4j.model.Component;
 import net.sf.ehcache.*;
 
 /**
@@ -17,6 +19,10 @@ import net.sf.ehcache.*;
 public class EhCacheResourceCache implements CalDAVResourceCache {
     private Cache uidToHrefCache = null;
     private Cache hrefToResourceCache = null;
+    private final CacheStatistics statistics =
+            new CacheStatistics(
+                    () -> hrefToResourceCache == null ? -1 : hrefToResourceCache.getSize(),
+                    () -> -1);
 
     // cache names
     private static final String HREF_TO_RESOURCE_CACHE = "hrefToResourceCache";
@@ -122,22 +128,41 @@ public class EhCacheResourceCache implements CalDAVResourceCache {
     }
 
     /** @see CalDAVResourceCache#getHrefForEventUID(String) */
-    public synchronized String getHrefForEventUID(String uid)
+    public String getHrefForEventUID(String uid)
+            throws com.github.caldav4j.exceptions.CacheException {
+        return getHrefForUID(Component.VEVENT, uid, null);
+    }
+
+    /** @see CalDAVResourceCache#getHrefForUID(String, String, String) */
+    @Override
+    public synchronized String getHrefForUID(String component, String uid, String recurrenceId)
             throws com.github.caldav4j.exceptions.CacheException {
         Element e = null;
         try {
-            e = uidToHrefCache.get(uid);
+            e = uidToHrefCache.get(ComponentKeys.key(component, uid, recurrenceId));
         } catch (CacheException ce) {
             throw new com.github.caldav4j.exceptions.CacheException(
                     "Problem with the uidToHrefCache", ce);
         }
 
+        statistics.recordUidLookup(e != null);
         return e == null ? null : (String) e.getObjectValue();
     }
 
     /** @see CalDAVResourceCache#getResource(String) */
     public synchronized CalDAVResource getResource(String href)
             throws com.github.caldav4j.exceptions.CacheException {
+        CalDAVResource resource = lookup(href);
+        if (resource == null) {
+            statistics.recordMiss();
+        } else {
+            statistics.recordHit();
+        }
+        return resource;
+    }
+
+    private CalDAVResource lookup(String href)
+            throws com.github.caldav4j.exceptions.CacheException {
         Element e = null;
         try {
             href = UrlUtils.removeDoubleSlashes(href);
@@ -154,44 +179,85 @@ public class EhCacheResourceCache implements CalDAVResourceCache {
     }
 
     /**
-     * put a CalDAVResource in the cache, indexing by uid
-     *
-     * <p>XXX works only with VEVENT
+     * put a CalDAVResource in the cache, indexing its components by name, UID and RECURRENCE-ID
      *
      * @see CalDAVResourceCache#putResource(CalDAVResource)
      */
     public synchronized void putResource(CalDAVResource calDAVResource) {
-        String href = calDAVResource.getResourceMetadata().getHref();
-        Element resourceElement = new Element(href, calDAVResource);
-        hrefToResourceCache.put(resourceElement);
-
-        String uid = getEventUID(calDAVResource);
-        if (uid != null) {
-            Element hrefElement = new Element(uid, href);
-            uidToHrefCache.put(hrefElement);
+        putResources(Collections.singletonList(calDAVResource));
+    }
+
+    /**
+     * put all the CalDAVResources in the cache with a single bulk put per cache
+     *
+     * @see CalDAVResourceCache#putResources(Collection)
+     */
+    @Override
+    public synchronized void putResources(Collection<CalDAVResource> calDAVResources) {
+        List<Element> resourceElements = new ArrayList<>(calDAVResources.size());
+        List<Element> hrefElements = new ArrayList<>(calDAVResources.size());
+        List<Object> staleKeys = new ArrayList<>();
+        for (CalDAVResource calDAVResource : calDAVResources) {
+            calDAVResource.freeze();
+            String href = calDAVResource.getResourceMetadata().getHref();
+            collectIndexKeys(href, staleKeys);
+            resourceElements.add(new Element(href, calDAVResource));
+
+            for (String key : ComponentKeys.keys(calDAVResource)) {
+                hrefElements.add(new Element(key, href));
+            }
         }
+        uidToHrefCache.removeAll(staleKeys);
+        hrefToResourceCache.putAll(resourceElements);
+        uidToHrefCache.putAll(hrefElements);
     }
 
     /** @see CalDAVResourceCache#removeResource(String) */
     public synchronized void removeResource(String href)
             throws com.github.caldav4j.exceptions.CacheException {
-        CalDAVResource resource = getResource(href);
-        if (resource != null) {
-            hrefToResourceCache.remove(href);
-            String uid = getEventUID(resource);
-            if (uid != null) {
-                uidToHrefCache.remove(uid);
+        removeResources(Collections.singletonList(href));
+    }
+
+    /**
+     * remove all the CalDAVResources with a single bulk remove per cache
+     *
+     * @see CalDAVResourceCache#removeResources(Collection)
+     */
+    @Override
+    public synchronized void removeResources(Collection<String> hrefs)
+            throws com.github.caldav4j.exceptions.CacheException {
+        List<Object> resourceKeys = new ArrayList<>(hrefs.size());
+        List<Object> indexKeys = new ArrayList<>(hrefs.size());
+        for (String href : hrefs) {
+            CalDAVResource resource = lookup(href);
+            if (resource != null) {
+                String cachedHref = resource.getResourceMetadata().getHref();
+                resourceKeys.add(cachedHref);
+                collectIndexKeys(cachedHref, indexKeys);
             }
         }
+        hrefToResourceCache.removeAll(resourceKeys);
+        uidToHrefCache.removeAll(indexKeys);
+    }
+
+    /** @see CalDAVResourceCache#getStatistics() */
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
     }
 
-    /** Thread safe retrieval of event ID. */
-    private synchronized String getEventUID(CalDAVResource calDAVResource) {
-        Calendar calendar = calDAVResource.getCalendar();
-        VEvent vevent = ICalendarUtils.getFirstEvent(calendar);
-        if (vevent != null) {
-            return ICalendarUtils.getUIDValue(vevent);
+    /**
+     * Collects the index keys of the resource cached at href which still refer to it, and not to
+     * a resource cached since with the same component.
+     */
+    private void collectIndexKeys(String href, List<Object> keys) {
+        Element e = hrefToResourceCache.getQuiet(href);
+        if (e == null) return;
+        for (String key : ComponentKeys.keys((CalDAVResource) e.getObjectValue())) {
+            Element hrefElement = uidToHrefCache.getQuiet(key);
+            if (hrefElement != null && href.equals(hrefElement.getObjectValue())) {
+                keys.add(key);
+            }
         }
-        return null;
     }
 }
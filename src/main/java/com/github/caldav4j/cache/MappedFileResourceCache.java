@@ -0,0 +1,647 @@
+package com.github.caldav4j.cache;
+
+import static com.github.caldav4j.util.UrlUtils.stripHost;
+
+import com.github.caldav4j.CalDAVResource;
+import com.github.caldav4j.exceptions.CacheException;
+import com.github.caldav4j.util.UrlUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A resource cache stored in a memory-mapped file, so it survives restarts.
+ *
+ * <ul>
+ *   <li>The file is an append-only log of records, each holding the href, ETag, component index
+ *       keys and iCalendar text of a resource, or a tombstone for a removed one. Every record is
+ *       checksummed: on opening, the log is replayed into an in-memory index up to the first
+ *       incomplete or corrupted record.
+ *   <li>Resources are returned as {@link CompactCalDAVResource}s, so the calendar is parsed only
+ *       when needed. Reading the ETag to revalidate a resource doesn't parse it. The resources
+ *       read are softly retained, so repeated reads don't parse the calendar again.
+ *   <li>When the records of replaced and removed resources exceed both the live ones and the
+ *       compaction threshold, the live records are copied to a new file in the background, and
+ *       the new file replaces the old one.
+ * </ul>
+ *
+ * <p>The cache doesn't expire resources: after a restart, the collections revalidate them by
+ * ETag, as they do for any cached resource, so a warm restart costs only ETag checks.
+ *
+ * <p>The file is limited to 2 GB, and must not be shared by several caches or processes. Call
+ * {@link #close()} to flush it to disk.
+ */
+public class MappedFileResourceCache implements CalDAVResourceCache, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(MappedFileResourceCache.class);
+
+    public static final int DEFAULT_INITIAL_CAPACITY = 1 << 20;
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1 << 20;
+
+    private static final int MAGIC = 0x43344a43;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    // record length and checksum
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private final File file;
+    private final int initialCapacity;
+    private final long compactionThreshold;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService compactor;
+    private final CacheStatistics statistics = new CacheStatistics(this::size, this::getUsedBytes);
+
+    // guarded by lock
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private long liveBytes;
+    private long deadBytes;
+    private boolean closed;
+    private Map<String, Entry> hrefToEntry = new HashMap<>();
+    private Map<String, String> keyToHref = new HashMap<>();
+
+    private static final class Entry {
+        final int offset;
+        final int size;
+        final String[] keys;
+        // the resource last read, with its parsed calendar, until the heap runs short
+        volatile SoftReference<CalDAVResource> resource;
+
+        Entry(int offset, int size, String[] keys) {
+            this.offset = offset;
+            this.size = size;
+            this.keys = keys;
+        }
+
+        CalDAVResource getResource() {
+            SoftReference<CalDAVResource> reference = resource;
+            return reference == null ? null : reference.get();
+        }
+    }
+
+    private static final class Record {
+        byte type;
+        String href;
+        String etag;
+        String[] keys = new String[0];
+        byte[] data;
+
+        byte[] encode() throws IOException {
+            ByteArrayOutputStream bytes =
+                    new ByteArrayOutputStream(64 + (data == null ? 0 : data.length));
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            out.writeUTF(href);
+            out.writeUTF(etag == null ? "" : etag);
+            out.writeShort(keys.length);
+            for (String key : keys) {
+                out.writeUTF(key);
+            }
+            out.writeInt(data == null ? -1 : data.length);
+            if (data != null) out.write(data);
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        static Record decode(byte[] payload) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            Record record = new Record();
+            record.type = in.readByte();
+            record.href = in.readUTF();
+            record.etag = emptyToNull(in.readUTF());
+            record.keys = new String[in.readUnsignedShort()];
+            for (int i = 0; i < record.keys.length; i++) {
+                record.keys[i] = in.readUTF();
+            }
+            int length = in.readInt();
+            if (length >= 0) {
+                record.data = new byte[length];
+                in.readFully(record.data);
+            }
+            return record;
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    /**
+     * Opens the cache stored in file, creating it if missing.
+     *
+     * @param file File storing the cache
+     * @throws CacheException on error opening the file
+     */
+    public MappedFileResourceCache(File file) throws CacheException {
+        this(file, DEFAULT_INITIAL_CAPACITY, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Opens the cache stored in file, creating it if missing.
+     *
+     * @param file File storing the cache
+     * @param initialCapacity Initial size of the mapping, grown as needed
+     * @param compactionThreshold Minimum number of bytes of replaced and removed records before
+     *     compacting the file
+     * @throws CacheException on error opening the file
+     */
+    public MappedFileResourceCache(File file, int initialCapacity, long compactionThreshold)
+            throws CacheException {
+        if (initialCapacity < HEADER_SIZE + RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Initial capacity too small");
+        }
+        this.file = file;
+        this.initialCapacity = initialCapacity;
+        this.compactionThreshold = compactionThreshold;
+        try {
+            open();
+        } catch (IOException e) {
+            throw new CacheException("Problem opening the cache file " + file, e);
+        }
+        this.compactor =
+                Executors.newSingleThreadExecutor(
+                        r -> {
+                            Thread thread = new Thread(r, "caldav4j-cache-compactor");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+    }
+
+    /**
+     * Returns the resource read from the file. The resource is then softly retained, with its
+     * calendar once parsed, so that the next reads return it as long as the heap allows.
+     *
+     * @see CalDAVResourceCache#getResource(String)
+     */
+    public CalDAVResource getResource(String href) throws CacheException {
+        href = UrlUtils.removeDoubleSlashes(href);
+        Entry entry;
+        Record record;
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            entry = getEntry(href);
+            if (entry == null) {
+                statistics.recordMiss();
+                return null;
+            }
+            CalDAVResource retained = entry.getResource();
+            if (retained != null) {
+                statistics.recordHit();
+                return retained;
+            }
+            record = readRecord(entry.offset, entry.size);
+        } catch (IOException e) {
+            throw new CacheException("Problem reading the cache file " + file, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        statistics.recordHit();
+        String calendarData =
+                record.data == null ? null : new String(record.data, StandardCharsets.UTF_8);
+        CalDAVResource resource =
+                new CompactCalDAVResource(calendarData, record.etag, record.href, false);
+        resource.freeze();
+        entry.resource = new SoftReference<>(resource);
+        return resource;
+    }
+
+    /** @return The entry of the href, or, failing that, of the href without host. */
+    private Entry getEntry(String href) {
+        Entry entry = hrefToEntry.get(href);
+        return entry != null ? entry : hrefToEntry.get(stripHost(href));
+    }
+
+    /** @see CalDAVResourceCache#getHrefForEventUID(String) */
+    public String getHrefForEventUID(String uid) throws CacheException {
+        return getHrefForUID(Component.VEVENT, uid, null);
+    }
+
+    /** @see CalDAVResourceCache#getHrefForUID(String, String, String) */
+    @Override
+    public String getHrefForUID(String component, String uid, String recurrenceId)
+            throws CacheException {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            String href = keyToHref.get(ComponentKeys.key(component, uid, recurrenceId));
+            statistics.recordUidLookup(href != null);
+            return href;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @see CalDAVResourceCache#putResource(CalDAVResource) */
+    public void putResource(CalDAVResource calDAVResource) throws CacheException {
+        Record record = toRecord(calDAVResource);
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            append(record);
+        } catch (IOException e) {
+            throw new CacheException("Problem writing the cache file " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleCompaction();
+    }
+
+    /** @see CalDAVResourceCache#putResources(Collection) */
+    @Override
+    public void putResources(Collection<CalDAVResource> calDAVResources) throws CacheException {
+        Record[] records = new Record[calDAVResources.size()];
+        int i = 0;
+        for (CalDAVResource calDAVResource : calDAVResources) {
+            records[i++] = toRecord(calDAVResource);
+        }
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            for (Record record : records) {
+                append(record);
+            }
+        } catch (IOException e) {
+            throw new CacheException("Problem writing the cache file " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleCompaction();
+    }
+
+    /** @see CalDAVResourceCache#removeResource(String) */
+    public void removeResource(String href) throws CacheException {
+        removeResources(Collections.singletonList(href));
+    }
+
+    /**
+     * Removes the resources cached under the hrefs, and, as {@link #getResource(String)} falls
+     * back to them, those cached under the hrefs without host.
+     *
+     * @see CalDAVResourceCache#removeResources(Collection)
+     */
+    @Override
+    public void removeResources(Collection<String> hrefs) throws CacheException {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            for (String href : hrefs) {
+                href = UrlUtils.removeDoubleSlashes(href);
+                remove(href);
+                String path = stripHost(href);
+                if (!path.equals(href)) {
+                    remove(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new CacheException("Problem writing the cache file " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleCompaction();
+    }
+
+    private void remove(String href) throws IOException {
+        if (!hrefToEntry.containsKey(href)) return;
+        Record record = new Record();
+        record.type = REMOVE;
+        record.href = href;
+        append(record);
+    }
+
+    /** @return Number of cached resources. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return hrefToEntry.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return Number of bytes used in the file, including the replaced and removed records. */
+    public long getUsedBytes() {
+        lock.readLock().lock();
+        try {
+            return position;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return Number of bytes used by the records of replaced and removed resources. */
+    public long getDeadBytes() {
+        lock.readLock().lock();
+        try {
+            return deadBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @see CalDAVResourceCache#getStatistics() */
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Copies the live records to a new file, which then replaces the current one. Done in the
+     * background when the file holds too many dead records, blocking the readers and writers of
+     * the cache meanwhile.
+     *
+     * @throws CacheException on error writing the new file
+     */
+    public void compact() throws CacheException {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            File compacted = new File(file.getPath() + ".compact");
+            Map<String, Entry> newHrefToEntry = new HashMap<>();
+            int newPosition = HEADER_SIZE;
+            try (FileChannel out =
+                    FileChannel.open(
+                            compacted.toPath(),
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                writeFully(out, header);
+                for (Map.Entry<String, Entry> e : hrefToEntry.entrySet()) {
+                    Entry entry = e.getValue();
+                    ByteBuffer record = buffer.duplicate();
+                    record.position(entry.offset);
+                    record.limit(entry.offset + entry.size);
+                    writeFully(out, record);
+                    Entry moved = new Entry(newPosition, entry.size, entry.keys);
+                    moved.resource = entry.resource;
+                    newHrefToEntry.put(e.getKey(), moved);
+                    newPosition += entry.size;
+                }
+                out.force(true);
+            }
+
+            buffer.force();
+            channel.close();
+            try {
+                Files.move(
+                        compacted.toPath(),
+                        file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // keep using the current file
+                reopen(position);
+                throw e;
+            }
+            hrefToEntry = newHrefToEntry;
+            position = newPosition;
+            liveBytes = newPosition - HEADER_SIZE;
+            deadBytes = 0;
+            reopen(newPosition);
+        } catch (IOException e) {
+            throw new CacheException("Problem compacting the cache file " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the file to disk and closes it. The cache can't be used afterwards.
+     *
+     * @throws IOException on error closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        lock.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        channel =
+                FileChannel.open(
+                        file.toPath(),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size > MAX_CAPACITY) {
+            throw new IOException("Cache file too large");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(initialCapacity, size));
+        if (size == 0) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            position = HEADER_SIZE;
+            return;
+        }
+        if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a cache file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            log.warn("Discarding the cache file {} of version {}", file, buffer.getInt(4));
+            buffer.putInt(4, VERSION);
+            position = HEADER_SIZE;
+            clearNextRecord();
+            return;
+        }
+        load();
+    }
+
+    private void reopen(int used) throws IOException {
+        channel =
+                FileChannel.open(
+                        file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long capacity = Math.min(MAX_CAPACITY, Math.max(initialCapacity, 2L * used));
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /** Replays the records into the index, up to the first incomplete or corrupted one. */
+    private void load() throws IOException {
+        int offset = HEADER_SIZE;
+        while (offset <= buffer.capacity() - RECORD_HEADER_SIZE) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > buffer.capacity() - offset - RECORD_HEADER_SIZE) break;
+
+            byte[] payload = new byte[length];
+            ByteBuffer source = buffer.duplicate();
+            source.position(offset + RECORD_HEADER_SIZE);
+            source.get(payload);
+            if (checksum(payload) != buffer.getInt(offset + 4)) {
+                log.warn("Ignoring corrupted records of {} from offset {}", file, offset);
+                break;
+            }
+            int size = RECORD_HEADER_SIZE + length;
+            index(Record.decode(payload), offset, size);
+            offset += size;
+        }
+        position = offset;
+        clearNextRecord();
+    }
+
+    private void append(Record record) throws IOException {
+        byte[] payload = record.encode();
+        int size = RECORD_HEADER_SIZE + payload.length;
+        ensureCapacity(size + RECORD_HEADER_SIZE);
+
+        ByteBuffer target = buffer.duplicate();
+        target.position(position + RECORD_HEADER_SIZE);
+        target.put(payload);
+        buffer.putInt(position + 4, checksum(payload));
+        buffer.putInt(position, payload.length);
+
+        index(record, position, size);
+        position += size;
+        clearNextRecord();
+    }
+
+    private void index(Record record, int offset, int size) {
+        Entry old = hrefToEntry.remove(record.href);
+        if (old != null) {
+            liveBytes -= old.size;
+            deadBytes += old.size;
+            for (String key : old.keys) {
+                if (record.href.equals(keyToHref.get(key))) {
+                    keyToHref.remove(key);
+                }
+            }
+        }
+        if (record.type == PUT) {
+            hrefToEntry.put(record.href, new Entry(offset, size, record.keys));
+            liveBytes += size;
+            for (String key : record.keys) {
+                keyToHref.put(key, record.href);
+            }
+        } else {
+            deadBytes += size;
+        }
+    }
+
+    /** Marks the end of the log, in case a longer record was left there by a crash. */
+    private void clearNextRecord() {
+        if (position <= buffer.capacity() - RECORD_HEADER_SIZE) {
+            buffer.putInt(position, 0);
+        }
+    }
+
+    private Record readRecord(int offset, int size) throws IOException {
+        byte[] payload = new byte[size - RECORD_HEADER_SIZE];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset + RECORD_HEADER_SIZE);
+        source.get(payload);
+        return Record.decode(payload);
+    }
+
+    private void ensureCapacity(int needed) throws IOException {
+        if ((long) position + needed <= buffer.capacity()) return;
+
+        long capacity = Math.max(2L * buffer.capacity(), (long) position + needed);
+        if ((long) position + needed > MAX_CAPACITY) {
+            throw new IOException("Cache file full");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(capacity, MAX_CAPACITY));
+    }
+
+    private void ensureOpen() throws CacheException {
+        if (closed) {
+            throw new CacheException("Cache file " + file + " is closed");
+        }
+    }
+
+    private void scheduleCompaction() {
+        lock.readLock().lock();
+        try {
+            if (closed || deadBytes < compactionThreshold || deadBytes <= liveBytes) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!compactionScheduled.compareAndSet(false, true)) return;
+
+        compactor.execute(
+                () -> {
+                    try {
+                        compact();
+                    } catch (CacheException e) {
+                        log.warn("Problem compacting the cache file {}", file, e);
+                    } finally {
+                        compactionScheduled.set(false);
+                    }
+                });
+    }
+
+    private static Record toRecord(CalDAVResource calDAVResource) {
+        Record record = new Record();
+        record.type = PUT;
+        record.href = calDAVResource.getResourceMetadata().getHref();
+        record.etag = calDAVResource.getResourceMetadata().getETag();
+
+        String calendarData;
+        if (calDAVResource instanceof CompactCalDAVResource) {
+            calendarData = ((CompactCalDAVResource) calDAVResource).getCalendarData();
+        } else {
+            Calendar calendar = calDAVResource.getCalendar();
+            calendarData = calendar == null ? null : calendar.toString();
+        }
+        if (calendarData != null) {
+            record.data = calendarData.getBytes(StandardCharsets.UTF_8);
+        }
+        record.keys = ComponentKeys.keys(calDAVResource);
+        return record;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            out.write(source);
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.caldav4j.cache;
+
+import com.github.caldav4j.util.ICalendarUtils;
+import com.github.caldav4j.util.UrlUtils;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+
+/**
+ * Remembers for a short time the UIDs and paths which were not found on the server, so repeated
+ * lookups of missing resources don't hit the server every time.
+ *
+ * <p>Entries expire after a time to live, and the least recently used entries are evicted once
+ * the maximum number of entries is reached. The collections invalidate the entries of the
+ * resources they create.
+ */
+public class NegativeLookupCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_TIME_TO_LIVE_SECONDS = 30;
+
+    private final Map<String, Long> entries;
+    private final long timeToLiveNanos;
+    private final AtomicLong hits = new AtomicLong();
+
+    public NegativeLookupCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param maxEntries Maximum number of missing UIDs and paths remembered
+     * @param timeToLive Time after which a missing UID or path is looked up again
+     * @param unit Unit of timeToLive
+     */
+    public NegativeLookupCache(final int maxEntries, long timeToLive, TimeUnit unit) {
+        if (maxEntries < 1 || timeToLive <= 0) {
+            throw new IllegalArgumentException("Size and time to live must be positive");
+        }
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+        this.entries =
+                new LinkedHashMap<String, Long>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                        return size() > maxEntries;
+                    }
+                };
+    }
+
+    /**
+     * @param component Component name, e.g. VEVENT
+     * @param uid UID of the component
+     * @return The key of the UID
+     */
+    public static String uidKey(String component, String uid) {
+        return "uid:" + component + ":" + uid;
+    }
+
+    /**
+     * @param href Path or absolute href of a resource
+     * @return The key of the path, the same for the path and the absolute href
+     */
+    public static String pathKey(String href) {
+        return "path:" + UrlUtils.stripHost(UrlUtils.removeDoubleSlashes(href));
+    }
+
+    /**
+     * @param key Key of the UID or path
+     * @return true if the UID or path was not found recently.
+     */
+    public synchronized boolean isNotFound(String key) {
+        Long expiry = entries.get(key);
+        if (expiry == null) return false;
+        if (System.nanoTime() - expiry > 0) {
+            entries.remove(key);
+            return false;
+        }
+        hits.incrementAndGet();
+        return true;
+    }
+
+    /** @param key Key of the UID or path not found on the server */
+    public synchronized void putNotFound(String key) {
+        entries.put(key, System.nanoTime() + timeToLiveNanos);
+    }
+
+    /** @param key Key of the UID or path to look up again */
+    public synchronized void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Invalidates the entries of a resource which was created or updated: its path and the UIDs
+     * of its components.
+     *
+     * @param calendar Calendar of the resource
+     * @param href Path or absolute href of the resource
+     */
+    public synchronized void invalidate(Calendar calendar, String href) {
+        if (entries.isEmpty()) return;
+
+        entries.remove(pathKey(href));
+        if (calendar == null) return;
+        for (Object o : calendar.getComponents()) {
+            Component component = (Component) o;
+            String uid = ICalendarUtils.getUIDValue(component);
+            if (uid != null) {
+                entries.remove(uidKey(component.getName(), uid));
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /** @return Number of remembered UIDs and paths, including the expired ones not removed yet. */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** @return Number of lookups answered as not found without asking the server. */
+    public long getHitCount() {
+        return hits.get();
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.caldav4j.cache;
 
 import com.github.caldav4j.CalDAVResource;
+import java.util.Collection;
 
 /**
  * Cache which does nothing. But is very fast.
@@ -49,6 +50,14 @@ public class NoOpResourceCache implements CalDAVResourceCache {
     /** @see CalDAVResourceCache#putResource(CalDAVResource) */
     public void putResource(CalDAVResource calDAVResource) {}
 
+    /** @see CalDAVResourceCache#putResources(Collection) */
+    @Override
+    public void putResources(Collection<CalDAVResource> calDAVResources) {}
+
     /** @see CalDAVResourceCache#removeResource(String) */
     public void removeResource(String href) {}
+
+    /** @see CalDAVResourceCache#removeResources(Collection) */
+    @Override
+    public void removeResources(Collection<String> hrefs) {}
 }
@@ -0,0 +1,108 @@
+package com.github.caldav4j.cache;
+
+import com.github.caldav4j.CalDAVResource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retains the results of collection queries together with the collection tag (CTag or
+ * sync-token) they were computed for. As long as the tag of the collection does not change, the
+ * retained results can be returned without executing the query again.
+ *
+ * <p>Results are keyed by the href of the collection and the serialized query, so that a cache can
+ * be shared by several collections, whose tags may coincide. The least recently used entries are
+ * evicted once the maximum number of entries is reached.
+ */
+public class QueryResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private final Map<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static class Entry {
+        private final String tag;
+        private final List<CalDAVResource> resources;
+
+        private Entry(String tag, List<CalDAVResource> resources) {
+            this.tag = tag;
+            this.resources = resources;
+        }
+    }
+
+    public QueryResultCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /** @param maxEntries Maximum number of query results retained */
+    public QueryResultCache(final int maxEntries) {
+        this.entries =
+                new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                        return size() > maxEntries;
+                    }
+                };
+    }
+
+    /**
+     * Returns the results retained for the query, if they were computed for the given tag.
+     *
+     * @param collection Href of the collection queried
+     * @param query Serialized query
+     * @param tag Current tag of the collection
+     * @return The retained results, null if none or if the collection changed since.
+     */
+    public synchronized List<CalDAVResource> get(String collection, String query, String tag) {
+        Entry entry = entries.get(key(collection, query));
+        if (entry == null || !entry.tag.equals(tag)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.resources;
+    }
+
+    /**
+     * @param collection Href of the collection queried
+     * @param query Serialized query
+     * @param tag Tag of the collection the results were computed for
+     * @param resources Results of the query
+     */
+    public synchronized void put(
+            String collection, String query, String tag, List<CalDAVResource> resources) {
+        List<CalDAVResource> retained = Collections.unmodifiableList(new ArrayList<>(resources));
+        entries.put(key(collection, query), new Entry(tag, retained));
+    }
+
+    private static String key(String collection, String query) {
+        // an href holds no whitespace, while the serialized query starts with the XML declaration
+        return collection + ' ' + query;
+    }
+
+    /** Removes all the retained results, e.g. after the collection was modified. */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** @return Number of queries answered from the retained results. */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** @return Number of queries which had to be executed against the server. */
+    public long getMissCount() {
+        return misses.get();
+    }
+}
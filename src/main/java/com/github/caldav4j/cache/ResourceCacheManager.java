@@ -0,0 +1,407 @@
+package com.github.caldav4j.cache;
+
+import com.github.caldav4j.CalDAVResource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Manages named cache regions, one per collection or tenant, sharing a global budget of entries
+ * and, optionally, of bytes.
+ *
+ * <ul>
+ *   <li>Every region is a {@link ConcurrentResourceCache} bounded by its own quota, so one
+ *       collection can't grow past it.
+ *   <li>The total number of entries of all the regions is bounded by the global budget. When it is
+ *       exceeded, the budget is shared max-min fairly: regions smaller than their share of the
+ *       budget are left alone, and the others are trimmed to an equal share of the rest. Each
+ *       region evicts its own least valuable entries, following its segmented LRU.
+ *   <li>When a global byte budget is set, the resources are weighed by the {@link
+ *       ResourceWeigher} and the total weight of the regions is shared in the same way. Regions
+ *       are then also bounded by a byte quota, by default the global budget.
+ *   <li>The global budgets are enforced periodically by the writers, so they can be exceeded by a
+ *       few writes in between.
+ * </ul>
+ *
+ * <p>Collections sharing a region {@link #acquireRegion(String) acquire} it, and {@link
+ * #releaseRegion(CalDAVResourceCache) release} it once done: the region is removed and cleared
+ * when the last one releases it. {@link #removeRegion(String)} removes a region at once.
+ */
+public class ResourceCacheManager {
+
+    public static final int DEFAULT_GLOBAL_MAX_SIZE = 100000;
+
+    private static ResourceCacheManager instance = null;
+
+    private final int globalMaxSize;
+    private final long globalMaxWeight;
+    private final int defaultRegionMaxSize;
+    private final long defaultRegionMaxWeight;
+    private final ResourceWeigher weigher;
+    private final long timeToLive;
+    private final TimeUnit unit;
+    private final int balanceInterval;
+
+    private final ConcurrentHashMap<String, Region> regions = new ConcurrentHashMap<>();
+    private final AtomicInteger writesSinceBalance = new AtomicInteger();
+    private final ReentrantLock balanceLock = new ReentrantLock();
+
+    /** A region, which reports its writes to the manager. */
+    class Region extends ConcurrentResourceCache {
+        private final String name;
+        // collections sharing the region, guarded by the map entry of the region
+        private int references;
+
+        Region(String name, int maxSize, long maxWeight) {
+            super(maxSize, maxWeight, weigher, timeToLive, unit);
+            this.name = name;
+        }
+
+        /** @return Name of the region in its manager. */
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void putResource(CalDAVResource calDAVResource) {
+            super.putResource(calDAVResource);
+            written(1);
+        }
+
+        @Override
+        public void putResources(Collection<CalDAVResource> calDAVResources) {
+            super.putResources(calDAVResources);
+            written(calDAVResources.size());
+        }
+    }
+
+    /**
+     * Returns the shared manager, created with the default sizes and time to live on first use.
+     *
+     * @return The shared manager
+     */
+    public static synchronized ResourceCacheManager getInstance() {
+        if (instance == null) {
+            instance = new ResourceCacheManager();
+        }
+        return instance;
+    }
+
+    /** Creates a manager with the default global budget, region quota and time to live. */
+    public ResourceCacheManager() {
+        this(
+                DEFAULT_GLOBAL_MAX_SIZE,
+                ConcurrentResourceCache.DEFAULT_MAX_SIZE,
+                ConcurrentResourceCache.DEFAULT_TIME_TO_LIVE_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param globalMaxSize Maximum number of resources cached by all the regions
+     * @param defaultRegionMaxSize Quota of the regions created without an explicit one
+     * @param timeToLive Time after which a cached resource expires, 0 for no expiry
+     * @param unit Unit of timeToLive
+     */
+    public ResourceCacheManager(
+            int globalMaxSize, int defaultRegionMaxSize, long timeToLive, TimeUnit unit) {
+        this(globalMaxSize, 0, defaultRegionMaxSize, 0, ResourceWeigher.DEFAULT, timeToLive, unit);
+    }
+
+    /**
+     * @param globalMaxSize Maximum number of resources cached by all the regions
+     * @param globalMaxWeight Maximum weight of the resources cached by all the regions, in bytes,
+     *     0 for no bound
+     * @param defaultRegionMaxSize Quota of the regions created without an explicit one
+     * @param defaultRegionMaxWeight Byte quota of the regions created without an explicit one, 0
+     *     for the global byte budget
+     * @param weigher Estimates the weight of the resources, used only if a byte budget is set
+     * @param timeToLive Time after which a cached resource expires, 0 for no expiry
+     * @param unit Unit of timeToLive
+     */
+    public ResourceCacheManager(
+            int globalMaxSize,
+            long globalMaxWeight,
+            int defaultRegionMaxSize,
+            long defaultRegionMaxWeight,
+            ResourceWeigher weigher,
+            long timeToLive,
+            TimeUnit unit) {
+        if (globalMaxSize < 1 || defaultRegionMaxSize < 1) {
+            throw new IllegalArgumentException("Cache sizes must be positive");
+        }
+        if (globalMaxWeight < 0 || defaultRegionMaxWeight < 0) {
+            throw new IllegalArgumentException("Cache weights must not be negative");
+        }
+        this.globalMaxSize = globalMaxSize;
+        this.globalMaxWeight = globalMaxWeight;
+        this.defaultRegionMaxSize = defaultRegionMaxSize;
+        this.defaultRegionMaxWeight =
+                defaultRegionMaxWeight > 0 ? defaultRegionMaxWeight : globalMaxWeight;
+        this.weigher = weigher != null ? weigher : ResourceWeigher.DEFAULT;
+        this.timeToLive = timeToLive;
+        this.unit = unit;
+        this.balanceInterval = Math.max(1, Math.min(1024, globalMaxSize / 64));
+    }
+
+    /**
+     * Returns the region with the given name, created with the default quota if missing.
+     *
+     * @param name Name of the region, e.g. the path of the collection or a tenant identifier
+     * @return The region
+     */
+    public ConcurrentResourceCache getRegion(String name) {
+        return getRegion(name, defaultRegionMaxSize);
+    }
+
+    /**
+     * Returns the region with the given name, created with the given quota if missing. The quota
+     * of an existing region is not changed.
+     *
+     * @param name Name of the region, e.g. the path of the collection or a tenant identifier
+     * @param maxSize Maximum number of resources cached by the region
+     * @return The region
+     */
+    public ConcurrentResourceCache getRegion(String name, int maxSize) {
+        return getRegion(name, maxSize, defaultRegionMaxWeight);
+    }
+
+    /**
+     * Returns the region with the given name, created with the given quotas if missing. The quotas
+     * of an existing region are not changed.
+     *
+     * @param name Name of the region, e.g. the path of the collection or a tenant identifier
+     * @param maxSize Maximum number of resources cached by the region
+     * @param maxWeight Maximum weight of the resources cached by the region, in bytes, 0 for no
+     *     bound other than the global byte budget
+     * @return The region
+     */
+    public ConcurrentResourceCache getRegion(String name, int maxSize, long maxWeight) {
+        checkName(name);
+        return regions.computeIfAbsent(name, n -> newRegion(n, maxSize, maxWeight));
+    }
+
+    /**
+     * Returns the region with the given name, created with the default quotas if missing, and
+     * counts one more user of it. Every acquisition is matched by a {@link
+     * #releaseRegion(CalDAVResourceCache)}.
+     *
+     * @param name Name of the region, e.g. the path of the collection or a tenant identifier
+     * @return The region
+     */
+    public ConcurrentResourceCache acquireRegion(String name) {
+        checkName(name);
+        return regions.compute(
+                name,
+                (n, region) -> {
+                    if (region == null) {
+                        region = newRegion(n, defaultRegionMaxSize, defaultRegionMaxWeight);
+                    }
+                    region.references++;
+                    return region;
+                });
+    }
+
+    /**
+     * Counts one less user of the given region, removing and clearing it if it was the last one.
+     * A region obtained with {@link #getRegion(String)} has no other user than the caller.
+     *
+     * @param cache Region to release
+     * @return true if the region was removed.
+     */
+    public boolean releaseRegion(CalDAVResourceCache cache) {
+        if (!isRegion(cache)) return false;
+        final Region region = (Region) cache;
+        final AtomicBoolean removed = new AtomicBoolean();
+        regions.computeIfPresent(
+                region.getName(),
+                (n, current) -> {
+                    if (current != region || --current.references > 0) return current;
+                    removed.set(true);
+                    return null;
+                });
+        if (removed.get()) region.clear();
+        return removed.get();
+    }
+
+    /**
+     * @param name Name of the region
+     * @return true if the manager has a region with this name.
+     */
+    public boolean hasRegion(String name) {
+        return regions.containsKey(name);
+    }
+
+    /**
+     * Removes the region with the given name and clears it.
+     *
+     * @param name Name of the region
+     * @return true if the region existed.
+     */
+    public boolean removeRegion(String name) {
+        Region region = regions.remove(name);
+        if (region == null) return false;
+        region.clear();
+        return true;
+    }
+
+    /**
+     * Checks whether cache is a region of this manager.
+     *
+     * @param cache Cache to check
+     * @return true if the cache is a region of this manager, and was not removed.
+     */
+    public boolean isRegion(CalDAVResourceCache cache) {
+        return cache instanceof Region && regions.get(((Region) cache).getName()) == cache;
+    }
+
+    /**
+     * Removes the given cache if it is a region of this manager.
+     *
+     * @param cache Cache to remove
+     * @return true if the cache was a region of this manager.
+     */
+    public boolean removeRegion(CalDAVResourceCache cache) {
+        return isRegion(cache) && removeRegion(((Region) cache).getName());
+    }
+
+    /** @return Names of the regions, sorted. */
+    public Set<String> getRegionNames() {
+        return Collections.unmodifiableSet(new TreeSet<>(regions.keySet()));
+    }
+
+    /** @return Number of resources cached by all the regions. */
+    public int getTotalSize() {
+        int total = 0;
+        for (Region region : regions.values()) {
+            total += region.size();
+        }
+        return total;
+    }
+
+    /** @return Weight of the resources cached by all the regions, 0 if no byte budget is set. */
+    public long getTotalWeight() {
+        long total = 0;
+        for (Region region : regions.values()) {
+            total += region.getWeight();
+        }
+        return total;
+    }
+
+    public int getGlobalMaxSize() {
+        return globalMaxSize;
+    }
+
+    /** @return Maximum weight of the resources cached by all the regions, 0 if not bounded. */
+    public long getGlobalMaxWeight() {
+        return globalMaxWeight;
+    }
+
+    public int getDefaultRegionMaxSize() {
+        return defaultRegionMaxSize;
+    }
+
+    public long getDefaultRegionMaxWeight() {
+        return defaultRegionMaxWeight;
+    }
+
+    /**
+     * Trims the regions down to their fair share of the global budgets, if they are exceeded.
+     * Done periodically by the writers, and by a single thread at a time: if another thread is
+     * already trimming, this returns at once.
+     */
+    public void balance() {
+        if (!balanceLock.tryLock()) return;
+        try {
+            writesSinceBalance.set(0);
+
+            List<Region> list = new ArrayList<>(regions.values());
+            long[] sizes = new long[list.size()];
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = list.get(i).size();
+            }
+            long[] shares = fairShares(sizes, globalMaxSize);
+            for (int i = 0; shares != null && i < shares.length; i++) {
+                if (shares[i] >= 0) list.get(i).evictTo((int) shares[i], true);
+            }
+
+            if (globalMaxWeight > 0) {
+                long[] weights = new long[list.size()];
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] = list.get(i).getWeight();
+                }
+                shares = fairShares(weights, globalMaxWeight);
+                for (int i = 0; shares != null && i < shares.length; i++) {
+                    Region region = list.get(i);
+                    if (shares[i] >= 0) region.evictTo(region.getMaxSize(), shares[i], true);
+                }
+            }
+        } finally {
+            balanceLock.unlock();
+        }
+    }
+
+    /**
+     * Shares the budget max-min fairly: the smallest regions keep what they have, the budget they
+     * leave is split between the larger ones.
+     *
+     * @param usages Usage of every region
+     * @param budget Total budget
+     * @return The share of every region, -1 for the regions left alone. Null if the budget is not
+     *     exceeded.
+     */
+    static long[] fairShares(long[] usages, long budget) {
+        long total = 0;
+        for (long usage : usages) {
+            total += usage;
+        }
+        if (total <= budget) return null;
+
+        Integer[] order = new Integer[usages.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> usages[i]));
+
+        long[] shares = new long[usages.length];
+        long remaining = budget;
+        for (int k = 0; k < order.length; k++) {
+            int i = order[k];
+            long share = remaining / (order.length - k);
+            if (usages[i] <= share) {
+                shares[i] = -1;
+                remaining -= usages[i];
+            } else {
+                shares[i] = share;
+                remaining -= share;
+            }
+        }
+        return shares;
+    }
+
+    private Region newRegion(String name, int maxSize, long maxWeight) {
+        long regionMaxWeight = maxWeight > 0 ? maxWeight : globalMaxWeight;
+        return new Region(name, maxSize, regionMaxWeight);
+    }
+
+    private static void checkName(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Region name must not be null");
+        }
+    }
+
+    private void written(int count) {
+        if (writesSinceBalance.addAndGet(count) >= balanceInterval) {
+            balance();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.caldav4j.cache;
+
+import com.github.caldav4j.CalDAVResource;
+import net.fortuna.ical4j.model.Calendar;
+
+/**
+ * Estimates the weight of a resource, in bytes, for caches bounded by a byte budget. The weight is
+ * computed once, when the resource is cached.
+ */
+@FunctionalInterface
+public interface ResourceWeigher {
+
+    /** Fixed weight added for the href, ETag and cache entry of every resource. */
+    long ENTRY_OVERHEAD = 256;
+
+    /**
+     * Uses the stored size of a {@link CompactCalDAVResource}. For other resources, uses the
+     * content length recorded in the {@link com.github.caldav4j.ResourceMetadata} of the resource,
+     * and falls back to the length of the serialized calendar when it is unknown.
+     */
+    ResourceWeigher DEFAULT =
+            resource -> {
+                if (resource instanceof CompactCalDAVResource) {
+                    return ENTRY_OVERHEAD + ((CompactCalDAVResource) resource).getStoredSize();
+                }
+                long length = resource.getResourceMetadata().getContentLength();
+                if (length < 0) {
+                    Calendar calendar = resource.getCalendar();
+                    length = calendar == null ? 0 : calendar.toString().length();
+                }
+                return ENTRY_OVERHEAD + length;
+            };
+
+    /**
+     * @param resource Resource to weigh
+     * @return Weight of the resource, in bytes
+     */
+    long weigh(CalDAVResource resource);
+}
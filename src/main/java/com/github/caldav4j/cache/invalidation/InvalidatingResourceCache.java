@@ -0,0 +1,232 @@
+package com.github.caldav4j.cache.invalidation;
+
+import com.github.caldav4j.CalDAVResource;
+import com.github.caldav4j.cache.CacheStatistics;
+import com.github.caldav4j.cache.CalDAVResourceCache;
+import com.github.caldav4j.exceptions.CacheException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache broadcasting the changes made to another cache to the other nodes sharing the
+ * collection, and applying theirs. Every put sends the new ETag of the resource, and every removal
+ * its href: the other nodes remove their copy if its ETag differs, instead of finding out when
+ * they revalidate it.
+ *
+ * <p>The changes are batched: they are sent every flush interval, or as soon as the maximum batch
+ * size is reached. Within a batch, only the last change of an href is sent.
+ */
+public class InvalidatingResourceCache implements CalDAVResourceCache, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidatingResourceCache.class);
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 100;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
+    private final CalDAVResourceCache delegate;
+    private final InvalidationTransport transport;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final int maxBatchSize;
+    private final ScheduledExecutorService flusher;
+
+    // pending changes, the last ETag of each href
+    private Map<String, String> pending = new LinkedHashMap<>();
+
+    /**
+     * @param delegate Cache storing the resources
+     * @param transport Transport to the other nodes
+     * @throws IOException if the transport could not be started
+     */
+    public InvalidatingResourceCache(CalDAVResourceCache delegate, InvalidationTransport transport)
+            throws IOException {
+        this(
+                delegate,
+                transport,
+                DEFAULT_FLUSH_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS,
+                DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param delegate Cache storing the resources
+     * @param transport Transport to the other nodes
+     * @param flushInterval Maximum time a change waits before being sent
+     * @param unit Unit of flushInterval
+     * @param maxBatchSize Number of changes sent at once without waiting
+     * @throws IOException if the transport could not be started
+     */
+    public InvalidatingResourceCache(
+            CalDAVResourceCache delegate,
+            InvalidationTransport transport,
+            long flushInterval,
+            TimeUnit unit,
+            int maxBatchSize)
+            throws IOException {
+        if (flushInterval <= 0 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Flush interval and batch size must be positive");
+        }
+        this.delegate = delegate;
+        this.transport = transport;
+        this.maxBatchSize = maxBatchSize;
+        this.flusher =
+                Executors.newSingleThreadScheduledExecutor(
+                        r -> {
+                            Thread thread = new Thread(r, "caldav4j-cache-invalidation-flusher");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        flusher.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, unit);
+        transport.start(this::receive);
+    }
+
+    public CalDAVResourceCache getDelegate() {
+        return delegate;
+    }
+
+    /** @return Identifier of this node in the messages */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /** @see CalDAVResourceCache#getResource(String) */
+    public CalDAVResource getResource(String href) throws CacheException {
+        return delegate.getResource(href);
+    }
+
+    /** @see CalDAVResourceCache#putResource(CalDAVResource) */
+    public void putResource(CalDAVResource calDAVResource) throws CacheException {
+        delegate.putResource(calDAVResource);
+        publish(
+                calDAVResource.getResourceMetadata().getHref(),
+                calDAVResource.getResourceMetadata().getETag());
+    }
+
+    /** @see CalDAVResourceCache#putResources(Collection) */
+    @Override
+    public void putResources(Collection<CalDAVResource> calDAVResources) throws CacheException {
+        delegate.putResources(calDAVResources);
+        for (CalDAVResource calDAVResource : calDAVResources) {
+            publish(
+                    calDAVResource.getResourceMetadata().getHref(),
+                    calDAVResource.getResourceMetadata().getETag());
+        }
+    }
+
+    /** @see CalDAVResourceCache#getHrefForEventUID(String) */
+    public String getHrefForEventUID(String uid) throws CacheException {
+        return delegate.getHrefForEventUID(uid);
+    }
+
+    /** @see CalDAVResourceCache#getHrefForUID(String, String, String) */
+    @Override
+    public String getHrefForUID(String component, String uid, String recurrenceId)
+            throws CacheException {
+        return delegate.getHrefForUID(component, uid, recurrenceId);
+    }
+
+    /** @see CalDAVResourceCache#removeResource(String) */
+    public void removeResource(String href) throws CacheException {
+        delegate.removeResource(href);
+        publish(href, null);
+    }
+
+    /** @see CalDAVResourceCache#removeResources(Collection) */
+    @Override
+    public void removeResources(Collection<String> hrefs) throws CacheException {
+        delegate.removeResources(hrefs);
+        for (String href : hrefs) {
+            publish(href, null);
+        }
+    }
+
+    /** @see CalDAVResourceCache#getStatistics() */
+    @Override
+    public CacheStatistics getStatistics() {
+        return delegate.getStatistics();
+    }
+
+    private void publish(String href, String etag) {
+        boolean full;
+        synchronized (this) {
+            // re-insert, so the href is sent in the order of its last change
+            pending.remove(href);
+            pending.put(href, etag);
+            full = pending.size() >= maxBatchSize;
+        }
+        if (full) {
+            try {
+                flusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // closing
+                flush();
+            }
+        }
+    }
+
+    /** Sends the pending changes to the other nodes at once. */
+    public void flush() {
+        Map<String, String> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        try {
+            transport.send(new InvalidationMessage(nodeId, batch));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to send " + batch.size() + " cache invalidations", e);
+        }
+    }
+
+    /**
+     * Applies the changes of another node: its removed resources, and those whose ETag differs
+     * from the one of the message, are removed.
+     *
+     * @param message Message received from the transport
+     */
+    protected void receive(InvalidationMessage message) {
+        if (nodeId.equals(message.getOrigin())) return;
+
+        List<String> stale = new ArrayList<>();
+        try {
+            for (Map.Entry<String, String> entry : message.getEntries().entrySet()) {
+                String etag = entry.getValue();
+                if (etag != null) {
+                    CalDAVResource cached = delegate.getResource(entry.getKey());
+                    if (cached == null || etag.equals(cached.getResourceMetadata().getETag())) {
+                        continue;
+                    }
+                }
+                stale.add(entry.getKey());
+            }
+            if (!stale.isEmpty()) delegate.removeResources(stale);
+        } catch (CacheException e) {
+            log.warn("Unable to apply cache invalidations from " + message.getOrigin(), e);
+        }
+    }
+
+    /** Sends the pending changes, then stops the flusher and closes the transport. */
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        transport.close();
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.caldav4j.cache.invalidation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A batch of cache invalidations sent by a node: for each href, the new ETag of the resource, or
+ * null if it was removed. The UIDs of a resource are invalidated with its href.
+ */
+public class InvalidationMessage {
+
+    private static final int MAGIC = 0xCA1DA71;
+    private static final int VERSION = 1;
+
+    private final String origin;
+    private final Map<String, String> entries;
+
+    /**
+     * @param origin Identifier of the node sending the message
+     * @param entries New ETag of each href, null if the resource was removed
+     */
+    public InvalidationMessage(String origin, Map<String, String> entries) {
+        this.origin = origin;
+        this.entries = Collections.unmodifiableMap(new LinkedHashMap<>(entries));
+    }
+
+    /** @return Identifier of the node which sent the message */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /** @return New ETag of each href, null if the resource was removed */
+    public Map<String, String> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Splits the message in two halves, e.g. when it doesn't fit a datagram.
+     *
+     * @return The halves, or this message alone if it has a single entry
+     */
+    public List<InvalidationMessage> split() {
+        if (entries.size() < 2) return Collections.singletonList(this);
+
+        Map<String, String> first = new LinkedHashMap<>();
+        Map<String, String> second = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            (first.size() < entries.size() / 2 ? first : second)
+                    .put(entry.getKey(), entry.getValue());
+        }
+        List<InvalidationMessage> halves = new ArrayList<>(2);
+        halves.add(new InvalidationMessage(origin, first));
+        halves.add(new InvalidationMessage(origin, second));
+        return halves;
+    }
+
+    /**
+     * @return The message in its binary form
+     * @throws IOException on error
+     */
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeUTF(origin);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeBoolean(entry.getValue() != null);
+            if (entry.getValue() != null) out.writeUTF(entry.getValue());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param data Message in its binary form
+     * @param offset Offset of the message in data
+     * @param length Length of the message
+     * @return The message
+     * @throws IOException if the data is not a valid message
+     */
+    public static InvalidationMessage decode(byte[] data, int offset, int length)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+        if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+            throw new IOException("Not an invalidation message");
+        }
+        String origin = in.readUTF();
+        int count = in.readInt();
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String href = in.readUTF();
+            entries.put(href, in.readBoolean() ? in.readUTF() : null);
+        }
+        return new InvalidationMessage(origin, entries);
+    }
+
+    @Override
+    public String toString() {
+        return "InvalidationMessage from " + origin + ": " + entries;
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.caldav4j.cache.invalidation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries the {@link InvalidationMessage}s between the nodes sharing a collection. A transport
+ * may deliver the messages of a node back to itself, they are ignored by their sender.
+ *
+ * @see InvalidatingResourceCache
+ */
+public interface InvalidationTransport extends Closeable {
+
+    /**
+     * Starts receiving the messages of the other nodes.
+     *
+     * @param receiver Receiver of the messages, invoked from the threads of the transport
+     * @throws IOException on error
+     */
+    void start(Consumer<InvalidationMessage> receiver) throws IOException;
+
+    /**
+     * Sends the message to the other nodes.
+     *
+     * @param message Message to send
+     * @throws IOException on error
+     */
+    void send(InvalidationMessage message) throws IOException;
+}
@@ -0,0 +1,49 @@
+package com.github.caldav4j.cache.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport delivering the messages in process, synchronously, to the other transports of the
+ * same bus. Useful for tests and for several caches of the same collection in a single JVM.
+ */
+public class LoopbackTransport implements InvalidationTransport {
+
+    private final List<LoopbackTransport> bus;
+    private volatile Consumer<InvalidationMessage> receiver;
+
+    /** Creates a transport on a new bus. */
+    public LoopbackTransport() {
+        this(new CopyOnWriteArrayList<>());
+    }
+
+    private LoopbackTransport(List<LoopbackTransport> bus) {
+        this.bus = bus;
+    }
+
+    /** @return A new transport on the same bus, receiving the messages of this one. */
+    public LoopbackTransport join() {
+        return new LoopbackTransport(bus);
+    }
+
+    @Override
+    public void start(Consumer<InvalidationMessage> receiver) {
+        this.receiver = receiver;
+        bus.add(this);
+    }
+
+    @Override
+    public void send(InvalidationMessage message) {
+        for (LoopbackTransport transport : bus) {
+            Consumer<InvalidationMessage> peer = transport.receiver;
+            if (transport != this && peer != null) peer.accept(message);
+        }
+    }
+
+    @Override
+    public void close() {
+        bus.remove(this);
+        receiver = null;
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.caldav4j.cache.invalidation;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Transport sending the messages as UDP multicast datagrams to a group joined by every node. A
+ * message not fitting a datagram is split. Delivery is not guaranteed: the stale entries of a lost
+ * message are only noticed when the nodes revalidate them.
+ */
+public class MulticastTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(MulticastTransport.class);
+
+    /** Maximum size of the payload of a UDP datagram. */
+    static final int MAX_DATAGRAM_SIZE = 65507;
+
+    private final InetSocketAddress group;
+    private final NetworkInterface networkInterface;
+    private final int timeToLive;
+    private MulticastSocket socket;
+    private Thread receiverThread;
+
+    /**
+     * @param group Multicast address and port of the group, e.g. 239.255.27.1:4446
+     * @param networkInterface Interface to join the group on, null for the default one
+     * @param timeToLive Number of hops the datagrams may cross, 1 for the local network
+     */
+    public MulticastTransport(
+            InetSocketAddress group, NetworkInterface networkInterface, int timeToLive) {
+        if (!group.getAddress().isMulticastAddress()) {
+            throw new IllegalArgumentException(group + " is not a multicast address");
+        }
+        this.group = group;
+        this.networkInterface = networkInterface;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @param address Multicast address of the group
+     * @param port Port of the group
+     */
+    public MulticastTransport(InetAddress address, int port) {
+        this(new InetSocketAddress(address, port), null, 1);
+    }
+
+    @Override
+    public synchronized void start(final Consumer<InvalidationMessage> receiver)
+            throws IOException {
+        if (socket != null) throw new IllegalStateException("Transport already started");
+
+        socket = new MulticastSocket(group.getPort());
+        socket.setTimeToLive(timeToLive);
+        if (networkInterface != null) socket.setNetworkInterface(networkInterface);
+        socket.joinGroup(group, networkInterface);
+
+        final MulticastSocket receiving = socket;
+        receiverThread =
+                new Thread(() -> receive(receiving, receiver), "caldav4j-cache-invalidation");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    private void receive(MulticastSocket receiving, Consumer<InvalidationMessage> receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+        while (!receiving.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                receiving.receive(packet);
+                receiver.accept(
+                        InvalidationMessage.decode(
+                                packet.getData(), packet.getOffset(), packet.getLength()));
+            } catch (SocketException e) {
+                if (!receiving.isClosed()) log.warn("Problem receiving from " + group, e);
+                return;
+            } catch (IOException e) {
+                log.debug("Ignoring datagram from " + packet.getSocketAddress(), e);
+            } catch (RuntimeException e) {
+                log.warn("Problem handling invalidation message", e);
+            }
+        }
+    }
+
+    @Override
+    public void send(InvalidationMessage message) throws IOException {
+        MulticastSocket sending;
+        synchronized (this) {
+            if (socket == null) throw new IllegalStateException("Transport not started");
+            sending = socket;
+        }
+
+        byte[] data = message.encode();
+        if (data.length > MAX_DATAGRAM_SIZE) {
+            if (message.getEntries().size() < 2) {
+                throw new IOException("Invalidation message too large: " + data.length);
+            }
+            for (InvalidationMessage half : message.split()) {
+                send(half);
+            }
+            return;
+        }
+        sending.send(new DatagramPacket(data, data.length, group));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (socket == null) return;
+        try {
+            socket.leaveGroup(group, networkInterface);
+        } finally {
+            socket.close();
+            socket = null;
+            receiverThread = null;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.net.URI;
 import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.data.CalendarOutputter;
+import org.apache.http.HttpHeaders;
 import org.apache.jackrabbit.webdav.property.DavPropertyNameSet;
 import org.apache.jackrabbit.webdav.security.AclProperty;
 
@@ -38,6 +39,10 @@ public class CalDAV4JMethodFactory {
     private ThreadLocal<CalendarBuilder> calendarBuilderThreadLocal = new ThreadLocal<>();
     private CalendarOutputter calendarOutputter = null;
 
+    private boolean acceptCompressedResponses = true;
+    private long requestCompressionThreshold = -1;
+    private final CompressionStatistics compressionStatistics = new CompressionStatistics();
+
     /** Empty Constructor */
     public CalDAV4JMethodFactory() {}
 
@@ -204,7 +209,7 @@ public class CalDAV4JMethodFactory {
      */
     public HttpPropFindMethod createPropFindMethod(URI uri, DavPropertyNameSet names, int depth)
             throws IOException {
-        return new HttpPropFindMethod(uri, names, depth);
+        return configure(new HttpPropFindMethod(uri, names, depth));
     }
 
     /**
@@ -219,7 +224,7 @@ public class CalDAV4JMethodFactory {
      */
     public HttpPropFindMethod createPropFindMethod(
             URI uri, int propfindtype, DavPropertyNameSet names, int depth) throws IOException {
-        return new HttpPropFindMethod(uri, propfindtype, names, depth);
+        return configure(new HttpPropFindMethod(uri, propfindtype, names, depth));
     }
 
     /**
@@ -233,7 +238,7 @@ public class CalDAV4JMethodFactory {
      */
     public HttpPropFindMethod createPropFindMethod(String uri, DavPropertyNameSet names, int depth)
             throws IOException {
-        return new HttpPropFindMethod(uri, names, depth);
+        return configure(new HttpPropFindMethod(uri, names, depth));
     }
 
     /**
@@ -248,7 +253,7 @@ public class CalDAV4JMethodFactory {
      */
     public HttpPropFindMethod createPropFindMethod(
             String uri, int propfindtype, DavPropertyNameSet names, int depth) throws IOException {
-        return new HttpPropFindMethod(uri, propfindtype, names, depth);
+        return configure(new HttpPropFindMethod(uri, propfindtype, names, depth));
     }
 
     /**
@@ -263,7 +268,7 @@ public class CalDAV4JMethodFactory {
             throws IOException {
         HttpCalDAVReportMethod m = new HttpCalDAVReportMethod(uri, request);
         m.setCalendarBuilder(getCalendarBuilderInstance());
-        return m;
+        return configure(m);
     }
 
     /**
@@ -280,7 +285,7 @@ public class CalDAV4JMethodFactory {
             URI uri, CalDAVReportRequest request, int depth) throws IOException {
         HttpCalDAVReportMethod m = new HttpCalDAVReportMethod(uri, request, depth);
         m.setCalendarBuilder(getCalendarBuilderInstance());
-        return m;
+        return configure(m);
     }
 
     /**
@@ -312,6 +317,23 @@ public class CalDAV4JMethodFactory {
         return createCalDAVReportMethod(URI.create(uri), request, depth);
     }
 
+    /**
+     * Creates a {@link HttpCalDAVReportMethod} instance with the body of a compiled report.
+     *
+     * @param uri URI to the Calendar resource.
+     * @param compiledRequest The compiled Report to make a request for.
+     * @param depth Depth of the request
+     * @param values Values of the slots of the compiled report
+     * @return the instance
+     */
+    public HttpCalDAVReportMethod createCalDAVReportMethod(
+            String uri, CompiledReportRequest compiledRequest, int depth, Object... values) {
+        HttpCalDAVReportMethod m =
+                new HttpCalDAVReportMethod(URI.create(uri), compiledRequest, depth, values);
+        m.setCalendarBuilder(getCalendarBuilderInstance());
+        return configure(m);
+    }
+
     /**
      * Creates a {@link HttpGetMethod} instance.
      *
@@ -319,7 +341,7 @@ public class CalDAV4JMethodFactory {
      * @return the instance
      */
     public HttpGetMethod createGetMethod(URI uri) {
-        return new HttpGetMethod(uri, getCalendarBuilderInstance());
+        return configure(new HttpGetMethod(uri, getCalendarBuilderInstance()));
     }
 
     /**
@@ -329,7 +351,7 @@ public class CalDAV4JMethodFactory {
      * @return the instance
      */
     public HttpGetMethod createGetMethod(String uri) {
-        return new HttpGetMethod(uri, getCalendarBuilderInstance());
+        return configure(new HttpGetMethod(uri, getCalendarBuilderInstance()));
     }
 
     /**
@@ -412,6 +434,69 @@ public class CalDAV4JMethodFactory {
         this.validatingOutputter = validatingOutputter;
     }
 
+    /** @return True if the methods reading a body advertise gzip and deflate compression. */
+    public boolean isAcceptCompressedResponses() {
+        return acceptCompressedResponses;
+    }
+
+    /**
+     * Sets whether the REPORT, GET and PROPFIND methods advertise gzip and deflate compression
+     * with an Accept-Encoding header. The compressed responses are decoded as they are read.
+     *
+     * @param acceptCompressedResponses Value to set, true by default.
+     */
+    public void setAcceptCompressedResponses(boolean acceptCompressedResponses) {
+        this.acceptCompressedResponses = acceptCompressedResponses;
+    }
+
+    /** @return Minimum size of the REPORT bodies to compress, -1 if disabled. */
+    public long getRequestCompressionThreshold() {
+        return requestCompressionThreshold;
+    }
+
+    /**
+     * Enables the gzip compression of the REPORT bodies of at least the given size, e.g. calendar
+     * multigets of many hrefs. The server must accept compressed requests.
+     *
+     * @param requestCompressionThreshold Size in bytes, -1 to disable the compression
+     */
+    public void setRequestCompressionThreshold(long requestCompressionThreshold) {
+        this.requestCompressionThreshold = requestCompressionThreshold;
+    }
+
+    /** @return Byte counters of the compressed requests and responses of the methods. */
+    public CompressionStatistics getCompressionStatistics() {
+        return compressionStatistics;
+    }
+
+    private HttpCalDAVReportMethod configure(HttpCalDAVReportMethod method) {
+        method.setCompressionStatistics(compressionStatistics);
+        if (acceptCompressedResponses) {
+            method.setHeader(HttpHeaders.ACCEPT_ENCODING, ContentEncoding.ACCEPTED);
+        }
+        long length = method.getEntity() != null ? method.getEntity().getContentLength() : -1;
+        if (requestCompressionThreshold >= 0 && length >= requestCompressionThreshold) {
+            method.setEntity(ContentEncoding.compress(method.getEntity(), compressionStatistics));
+        }
+        return method;
+    }
+
+    private HttpPropFindMethod configure(HttpPropFindMethod method) {
+        method.setCompressionStatistics(compressionStatistics);
+        if (acceptCompressedResponses) {
+            method.setHeader(HttpHeaders.ACCEPT_ENCODING, ContentEncoding.ACCEPTED);
+        }
+        return method;
+    }
+
+    private HttpGetMethod configure(HttpGetMethod method) {
+        method.setCompressionStatistics(compressionStatistics);
+        if (acceptCompressedResponses) {
+            method.setHeader(HttpHeaders.ACCEPT_ENCODING, ContentEncoding.ACCEPTED);
+        }
+        return method;
+    }
+
     /**
      * Return the CalendarOuputter instance.
      *
@@ -0,0 +1,161 @@
+package com.github.caldav4j.methods;
+
+import com.github.caldav4j.CalDAVConstants;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import net.fortuna.ical4j.data.CalendarOutputter;
+import net.fortuna.ical4j.model.Calendar;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+/**
+ * Entity writing a calendar through a {@link CalendarOutputter} in the request charset, instead
+ * of building the body as a String first.
+ *
+ * <p>By default the calendar is output once into a byte array, so that the request carries a
+ * Content-Length, which some servers require: the body is sent from that array, which is never
+ * copied. Once {@link #setChunked(boolean) chunked}, the calendar is written straight to the
+ * request stream, and output again whenever the body has to be sent again, which spares the
+ * buffer for large calendars. Either way the entity is repeatable. The calendar must not be
+ * modified until the request has been executed.
+ */
+public class CalendarEntity extends AbstractHttpEntity {
+
+    private final Calendar calendar;
+    private final CalendarOutputter calendarOutputter;
+    private final Charset charset;
+    private Buffer content;
+
+    /**
+     * @param calendar Calendar to send
+     * @param calendarOutputter Outputter generating the calendar
+     * @param charset Charset to encode the calendar in
+     */
+    public CalendarEntity(Calendar calendar, CalendarOutputter calendarOutputter, Charset charset) {
+        this.calendar = calendar;
+        this.calendarOutputter = calendarOutputter;
+        this.charset = charset;
+        setContentType(
+                ContentType.create(CalDAVConstants.CONTENT_TYPE_CALENDAR, charset).toString());
+    }
+
+    public Calendar getCalendar() {
+        return calendar;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    /** @return Length of the body, -1 if it is sent chunked. */
+    @Override
+    public long getContentLength() {
+        if (isChunked()) return -1;
+        try {
+            return getBuffer().size();
+        } catch (IOException e) {
+            // thrown again when the body is written
+            return -1;
+        }
+    }
+
+    /** @return The body, output into a buffer. */
+    @Override
+    public InputStream getContent() throws IOException {
+        if (isChunked()) {
+            Buffer buffer = new Buffer();
+            output(buffer);
+            return buffer.toInputStream();
+        }
+        return getBuffer().toInputStream();
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        if (isChunked()) {
+            output(outStream);
+        } else {
+            getBuffer().writeTo(outStream);
+            outStream.flush();
+        }
+    }
+
+    /**
+     * Outputs the calendar into the buffer now, unless the entity is chunked, so that a calendar
+     * failing validation is reported before the request is executed. Otherwise done on first use.
+     *
+     * @throws IOException if the calendar could not be output, e.g. it failed validation
+     */
+    public void buffer() throws IOException {
+        if (!isChunked()) getBuffer();
+    }
+
+    /** @return The body, output on first use. */
+    private Buffer getBuffer() throws IOException {
+        if (content == null) {
+            Buffer buffer = new Buffer();
+            output(buffer);
+            content = buffer;
+        }
+        return content;
+    }
+
+    private void output(OutputStream outStream) throws IOException {
+        // the outputter closes its writer, the request stream is only flushed
+        Writer writer =
+                new BufferedWriter(
+                        new OutputStreamWriter(
+                                new FilterOutputStream(outStream) {
+                                    @Override
+                                    public void write(byte[] b, int off, int len)
+                                            throws IOException {
+                                        out.write(b, off, len);
+                                    }
+
+                                    @Override
+                                    public void close() throws IOException {
+                                        flush();
+                                    }
+                                },
+                                charset));
+        try {
+            calendarOutputter.output(calendar, writer);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            // the calendar failed validation
+            throw new IOException("Problem generating calendar", e);
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /** Byte array stream reading its array in place, rather than a copy of it. */
+    private static class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(4096);
+        }
+
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.github.caldav4j.methods;
+
+import com.github.caldav4j.model.request.CalDAVReportRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.jackrabbit.webdav.client.methods.XmlEntity;
+
+/**
+ * A {@link CalDAVReportRequest} serialised once, whose body is reused by every request made with
+ * it: no DOM is built nor serialised again, e.g. for a query polled every few seconds.
+ *
+ * <p>The values changing from one request to the other are slots, marked in the report by unique
+ * marker texts, e.g. the start of a {@link com.github.caldav4j.model.request.TimeRange} or a
+ * {@code DAV:href}. A slot marking the whole text of an element can be bound to a collection of
+ * values, the element being repeated for each of them, e.g. for the hrefs of a multiget.
+ *
+ * <p>Instances are immutable and can be shared between threads.
+ */
+public class CompiledReportRequest {
+
+    private final byte[][] segments;
+    private final Slot[] slots;
+    private final String contentType;
+
+    private CompiledReportRequest(byte[][] segments, Slot[] slots, String contentType) {
+        this.segments = segments;
+        this.slots = slots;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Serialises the report.
+     *
+     * @param reportRequest Report to serialise, holding the markers of the slots
+     * @param markers Texts marking the slots, each found exactly once in the serialised report.
+     *     They must not contain characters escaped in XML.
+     * @return The compiled report, with the slots in the order of the markers
+     * @throws IOException on error serialising the report
+     * @throws IllegalArgumentException if a marker is not found exactly once
+     */
+    public static CompiledReportRequest compile(
+            CalDAVReportRequest reportRequest, String... markers) throws IOException {
+        HttpEntity entity = XmlEntity.create(reportRequest);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        byte[] body = out.toByteArray();
+        Header contentType = entity.getContentType();
+
+        // the slots are located in the body, then sorted by position to cut the segments
+        Slot[] slots = new Slot[markers.length];
+        Slot[] byPosition = new Slot[markers.length];
+        for (int i = 0; i < markers.length; i++) {
+            byte[] marker = markers[i].getBytes(StandardCharsets.UTF_8);
+            int start = indexOf(body, marker, 0);
+            if (start < 0 || marker.length == 0 || indexOf(body, marker, start + 1) >= 0) {
+                throw new IllegalArgumentException(
+                        "Marker must be found once in the report: " + markers[i]);
+            }
+            slots[i] = byPosition[i] = Slot.locate(body, start, start + marker.length);
+        }
+        Arrays.sort(byPosition, (a, b) -> Integer.compare(a.from, b.from));
+
+        byte[][] segments = new byte[markers.length + 1][];
+        int from = 0;
+        for (int i = 0; i < byPosition.length; i++) {
+            if (byPosition[i].from < from) {
+                throw new IllegalArgumentException("Markers must not overlap");
+            }
+            segments[i] = Arrays.copyOfRange(body, from, byPosition[i].from);
+            byPosition[i].segment = i;
+            from = byPosition[i].to;
+        }
+        segments[markers.length] = Arrays.copyOfRange(body, from, body.length);
+
+        return new CompiledReportRequest(
+                segments, slots, contentType != null ? contentType.getValue() : null);
+    }
+
+    /** @return Number of slots */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * Creates a request body with the slots bound to the values.
+     *
+     * @param values Values of the slots, in the order of their markers: a String, or a Collection
+     *     of Strings for a slot marking the text of an element. They are escaped as needed.
+     * @return The request body
+     * @throws IllegalArgumentException if the values don't match the slots
+     */
+    public HttpEntity createEntity(Object... values) {
+        if (values.length != slots.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + slots.length + " values, got " + values.length);
+        }
+
+        byte[][] bound = new byte[slots.length][];
+        int length = 0;
+        for (int i = 0; i < slots.length; i++) {
+            bound[slots[i].segment] = slots[i].bind(values[i]);
+        }
+        for (int i = 0; i < segments.length; i++) {
+            length += segments[i].length + (i < bound.length ? bound[i].length : 0);
+        }
+
+        byte[] body = new byte[length];
+        int position = 0;
+        for (int i = 0; i < segments.length; i++) {
+            System.arraycopy(segments[i], 0, body, position, segments[i].length);
+            position += segments[i].length;
+            if (i < bound.length) {
+                System.arraycopy(bound[i], 0, body, position, bound[i].length);
+                position += bound[i].length;
+            }
+        }
+
+        ByteArrayEntity entity = new ByteArrayEntity(body);
+        entity.setContentType(contentType);
+        return entity;
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern, int from) {
+        outer:
+        for (int i = from; i <= bytes.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            String entity;
+            switch (value.charAt(i)) {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                case '"':
+                    entity = "&quot;";
+                    break;
+                default:
+                    if (escaped != null) escaped.append(value.charAt(i));
+                    continue;
+            }
+            if (escaped == null) escaped = new StringBuilder(value.substring(0, i));
+            escaped.append(entity);
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    /**
+     * A slot of the body, from the marker, or from the start tag to the end tag of the element
+     * whose text is the marker.
+     */
+    private static class Slot {
+
+        private final int from;
+        private final int to;
+        private final byte[] startTag;
+        private final byte[] endTag;
+        private int segment;
+
+        private Slot(int from, int to, byte[] startTag, byte[] endTag) {
+            this.from = from;
+            this.to = to;
+            this.startTag = startTag;
+            this.endTag = endTag;
+        }
+
+        static Slot locate(byte[] body, int start, int end) {
+            if (start > 0
+                    && body[start - 1] == '>'
+                    && end + 1 < body.length
+                    && body[end] == '<'
+                    && body[end + 1] == '/') {
+                int tagStart = start - 1;
+                while (tagStart >= 0 && body[tagStart] != '<') tagStart--;
+                int tagEnd = end;
+                while (tagEnd < body.length && body[tagEnd] != '>') tagEnd++;
+                if (tagStart >= 0 && tagEnd < body.length) {
+                    return new Slot(
+                            tagStart,
+                            tagEnd + 1,
+                            Arrays.copyOfRange(body, tagStart, start),
+                            Arrays.copyOfRange(body, end, tagEnd + 1));
+                }
+            }
+            return new Slot(start, end, null, null);
+        }
+
+        byte[] bind(Object value) {
+            List<String> values = new ArrayList<>();
+            if (value instanceof Collection) {
+                if (startTag == null) {
+                    throw new IllegalArgumentException(
+                            "Only a slot marking the text of an element takes a collection");
+                }
+                for (Object o : (Collection<?>) value) values.add(String.valueOf(o));
+            } else if (value != null) {
+                values.add(value.toString());
+            } else {
+                throw new IllegalArgumentException("Slot value cannot be null");
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (String v : values) {
+                byte[] bytes = escape(v).getBytes(StandardCharsets.UTF_8);
+                if (startTag != null) out.write(startTag, 0, startTag.length);
+                out.write(bytes, 0, bytes.length);
+                if (endTag != null) out.write(endTag, 0, endTag.length);
+            }
+            return out.toByteArray();
+        }
+    }
+}
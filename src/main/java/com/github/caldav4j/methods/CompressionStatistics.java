@@ -0,0 +1,97 @@
+package com.github.caldav4j.methods;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Byte counters of the compressed requests and responses of the methods created by a {@link
+ * CalDAV4JMethodFactory}, showing the bandwidth saved by compression.
+ *
+ * <p>Responses decoded by the HTTP client itself, e.g. one built by {@code HttpClientBuilder} with
+ * content compression enabled, reach the methods already decoded and are not counted.
+ */
+public class CompressionStatistics {
+
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder responseBytesReceived = new LongAdder();
+    private final LongAdder responseBytesDecoded = new LongAdder();
+    private final LongAdder compressedRequests = new LongAdder();
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder requestBytesSent = new LongAdder();
+
+    void recordCompressedResponse() {
+        compressedResponses.increment();
+    }
+
+    void recordResponseBytes(long received, long decoded) {
+        responseBytesReceived.add(received);
+        responseBytesDecoded.add(decoded);
+    }
+
+    void recordCompressedRequest() {
+        compressedRequests.increment();
+    }
+
+    void recordRequestBytes(long uncompressed, long sent) {
+        requestBytes.add(uncompressed);
+        requestBytesSent.add(sent);
+    }
+
+    /** @return Number of compressed responses received. */
+    public long getCompressedResponseCount() {
+        return compressedResponses.sum();
+    }
+
+    /** @return Bytes of the compressed response bodies read, as received. */
+    public long getResponseBytesReceived() {
+        return responseBytesReceived.sum();
+    }
+
+    /** @return Bytes of the compressed response bodies read, once decoded. */
+    public long getResponseBytesDecoded() {
+        return responseBytesDecoded.sum();
+    }
+
+    /** @return Bytes saved by the compression of the responses. */
+    public long getResponseBytesSaved() {
+        return getResponseBytesDecoded() - getResponseBytesReceived();
+    }
+
+    /** @return Number of compressed requests sent. */
+    public long getCompressedRequestCount() {
+        return compressedRequests.sum();
+    }
+
+    /** @return Bytes of the compressed request bodies, before compression. */
+    public long getRequestBytes() {
+        return requestBytes.sum();
+    }
+
+    /** @return Bytes of the compressed request bodies, as sent. */
+    public long getRequestBytesSent() {
+        return requestBytesSent.sum();
+    }
+
+    /** @return Bytes saved by the compression of the requests. */
+    public long getRequestBytesSaved() {
+        return getRequestBytes() - getRequestBytesSent();
+    }
+
+    public void reset() {
+        compressedResponses.reset();
+        responseBytesReceived.reset();
+        responseBytesDecoded.reset();
+        compressedRequests.reset();
+        requestBytes.reset();
+        requestBytesSent.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d compressed responses, %d bytes saved; %d compressed requests, %d bytes saved",
+                getCompressedResponseCount(),
+                getResponseBytesSaved(),
+                getCompressedRequestCount(),
+                getRequestBytesSaved());
+    }
+}
@@ -0,0 +1,223 @@
+package com.github.caldav4j.methods;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.entity.DecompressingEntity;
+import org.apache.http.client.entity.DeflateInputStream;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.protocol.HTTP;
+
+/** Compression of the request bodies, and decoding of the compressed response bodies. */
+final class ContentEncoding {
+
+    /** Value of the Accept-Encoding header of the methods. */
+    static final String ACCEPTED = "gzip, deflate";
+
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String DEFLATE = "deflate";
+
+    private ContentEncoding() {}
+
+    /**
+     * @param entity Response entity, possibly null
+     * @param statistics Statistics counting the bytes, null for none
+     * @return An entity streaming the decoded body if the entity is compressed, otherwise the
+     *     entity itself
+     */
+    static HttpEntity decode(HttpEntity entity, CompressionStatistics statistics) {
+        // already decoded, by this class or by the client
+        if (entity == null
+                || entity instanceof DecodingEntity
+                || entity instanceof DecompressingEntity) {
+            return entity;
+        }
+
+        Header header = entity.getContentEncoding();
+        if (header == null) return entity;
+
+        String encoding = header.getValue().trim().toLowerCase(Locale.ROOT);
+        if (encoding.equals(GZIP) || encoding.equals(X_GZIP) || encoding.equals(DEFLATE)) {
+            if (statistics != null) statistics.recordCompressedResponse();
+            return new DecodingEntity(entity, !encoding.equals(DEFLATE), statistics);
+        }
+        return entity;
+    }
+
+    /**
+     * @param entity Request entity
+     * @param statistics Statistics counting the bytes, null for none
+     * @return An entity gzip compressing the body as it is written
+     */
+    static HttpEntity compress(HttpEntity entity, CompressionStatistics statistics) {
+        if (statistics != null) statistics.recordCompressedRequest();
+        return new CompressingEntity(entity, statistics);
+    }
+
+    /** Response entity decoding the compressed body while it is read. */
+    private static class DecodingEntity extends HttpEntityWrapper {
+
+        private final boolean gzip;
+        private final CompressionStatistics statistics;
+
+        DecodingEntity(HttpEntity entity, boolean gzip, CompressionStatistics statistics) {
+            super(entity);
+            this.gzip = gzip;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            final CountingInputStream received = new CountingInputStream(super.getContent());
+            InputStream decoded =
+                    gzip ? new GZIPInputStream(received) : new DeflateInputStream(received);
+            return new CountingInputStream(decoded) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        if (statistics != null) {
+                            statistics.recordResponseBytes(received.count, count);
+                        }
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            try (InputStream in = getContent()) {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    outStream.write(buffer, 0, n);
+                }
+            }
+        }
+
+        @Override
+        public Header getContentEncoding() {
+            return null;
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+    }
+
+    /** Request entity compressing the body while it is written. */
+    private static class CompressingEntity extends HttpEntityWrapper {
+
+        private final CompressionStatistics statistics;
+
+        CompressingEntity(HttpEntity entity, CompressionStatistics statistics) {
+            super(entity);
+            this.statistics = statistics;
+        }
+
+        @Override
+        public Header getContentEncoding() {
+            return new BasicHeader(HTTP.CONTENT_ENCODING, GZIP);
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public boolean isChunked() {
+            return true;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            writeTo(buffer);
+            return new ByteArrayInputStream(buffer.toByteArray());
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            // the request stream is finished, not closed
+            CountingOutputStream sent =
+                    new CountingOutputStream(outStream) {
+                        @Override
+                        public void close() throws IOException {
+                            flush();
+                        }
+                    };
+            CountingOutputStream uncompressed =
+                    new CountingOutputStream(new GZIPOutputStream(sent));
+            wrappedEntity.writeTo(uncompressed);
+            uncompressed.close();
+            if (statistics != null) {
+                statistics.recordRequestBytes(uncompressed.count, sent.count);
+            }
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.github.caldav4j.methods;
 
 import com.github.caldav4j.CalDAVConstants;
+import com.github.caldav4j.exceptions.CalDAV4JException;
 import com.github.caldav4j.model.request.CalDAVReportRequest;
+import com.github.caldav4j.model.response.MultiStatusHandler;
+import com.github.caldav4j.model.response.MultiStatusReader;
 import com.github.caldav4j.util.CalDAVStatus;
 import java.io.IOException;
 import java.io.InputStream;
@@ -11,6 +14,7 @@ import java.util.Collection;
 import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.data.ParserException;
 import net.fortuna.ical4j.model.Calendar;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.jackrabbit.webdav.DavException;
 import org.apache.jackrabbit.webdav.DavMethods;
@@ -23,6 +27,7 @@ import org.apache.jackrabbit.webdav.property.DavPropertyName;
 import org.apache.jackrabbit.webdav.property.DavPropertySet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
 
 /**
  * HttpCalDAVReport Method, which extends BaseDavRequest. Implements Section 7 of RFC4791
@@ -33,6 +38,7 @@ public class HttpCalDAVReportMethod extends BaseDavRequest {
 
     private static final Logger log = LoggerFactory.getLogger(HttpCalDAVReportMethod.class);
     private CalendarBuilder calendarBuilder = null;
+    private CompressionStatistics compressionStatistics = null;
 
     /**
      * @param uri URI to the calendar resource.
@@ -81,6 +87,22 @@ public class HttpCalDAVReportMethod extends BaseDavRequest {
         this(uri, reportRequest, CalDAVConstants.DEPTH_1);
     }
 
+    /**
+     * Uses the body of a compiled report, without building nor serialising its DOM again.
+     *
+     * @param uri URI to the calendar resource.
+     * @param compiledRequest Compiled report for the request body
+     * @param depth Depth of the Report Request
+     * @param values Values of the slots of the compiled report
+     * @see CompiledReportRequest#createEntity(Object...)
+     */
+    public HttpCalDAVReportMethod(
+            URI uri, CompiledReportRequest compiledRequest, int depth, Object... values) {
+        super(uri);
+        setEntity(compiledRequest.createEntity(values));
+        setDepth(depth);
+    }
+
     @Override
     public String getMethod() {
         return DavMethods.METHOD_REPORT;
@@ -128,6 +150,16 @@ public class HttpCalDAVReportMethod extends BaseDavRequest {
         this.calendarBuilder = calendarBuilder;
     }
 
+    /** @return Statistics counting the bytes of the compressed responses, null if none */
+    public CompressionStatistics getCompressionStatistics() {
+        return compressionStatistics;
+    }
+
+    /** @param compressionStatistics Statistics counting the bytes of the compressed responses */
+    public void setCompressionStatistics(CompressionStatistics compressionStatistics) {
+        this.compressionStatistics = compressionStatistics;
+    }
+
     /**
      * Check the provided {@link HttpResponse} for a {@link Calendar}, response, and attempts to
      * build the object. <br>
@@ -142,7 +174,8 @@ public class HttpCalDAVReportMethod extends BaseDavRequest {
     public Calendar getResponseBodyAsCalendar(HttpResponse response) throws IOException {
         Calendar calendarResponse = null;
         if (this.succeeded(response)) {
-            try (InputStream in = response.getEntity().getContent()) {
+            HttpEntity entity = ContentEncoding.decode(response.getEntity(), compressionStatistics);
+            try (InputStream in = entity.getContent()) {
                 calendarResponse = calendarBuilder.build(in);
             } catch (ParserException e) {
                 throw new IOException("Error parsing calendar from response", e);
@@ -151,6 +184,36 @@ public class HttpCalDAVReportMethod extends BaseDavRequest {
         return calendarResponse;
     }
 
+    /**
+     * Streams the multistatus body of the response, handing every {@code DAV:response} to the
+     * handler as soon as it is parsed. Contrary to {@link
+     * #getResponseBodyAsMultiStatus(HttpResponse)} no DOM is built for the whole body, so memory
+     * usage does not depend on the number of responses returned by the server.
+     *
+     * @param response Response object to glean the responses from.
+     * @param handler Handler receiving the responses, in server order.
+     * @throws IOException on error reading or parsing the response body
+     * @throws DavException if the request did not succeed
+     * @throws CalDAV4JException if thrown by the handler
+     */
+    public void processResponseBody(HttpResponse response, MultiStatusHandler handler)
+            throws IOException, DavException, CalDAV4JException {
+        checkSuccess(response);
+        if (response.getEntity() == null) return;
+
+        HttpEntity entity = ContentEncoding.decode(response.getEntity(), compressionStatistics);
+        try (InputStream in = entity.getContent()) {
+            MultiStatusReader.read(in, handler);
+        }
+    }
+
+    /** Decodes the body first, if the server compressed it. */
+    @Override
+    protected Document getResponseBodyAsDocument(HttpEntity entity) throws IOException {
+        return super.getResponseBodyAsDocument(
+                ContentEncoding.decode(entity, compressionStatistics));
+    }
+
     /**
      * Return the Property associated with a path.
      *
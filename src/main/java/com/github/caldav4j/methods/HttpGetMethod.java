@@ -11,6 +11,7 @@ import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.data.ParserException;
 import net.fortuna.ical4j.model.Calendar;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.slf4j.Logger;
@@ -26,6 +27,7 @@ public class HttpGetMethod extends HttpGet {
     private static final Logger log = LoggerFactory.getLogger(HttpGetMethod.class);
 
     private CalendarBuilder calendarBuilder = null;
+    private CompressionStatistics compressionStatistics = null;
 
     /**
      * @param uri Location of the CalendarResource
@@ -62,8 +64,10 @@ public class HttpGetMethod extends HttpGet {
 
             if ((UrlUtils.isBlank(contentType)
                     || contentType.startsWith(CalDAVConstants.CONTENT_TYPE_CALENDAR))) {
-                if (response.getEntity() != null && response.getEntity().getContent() != null) {
-                    stream = new BufferedInputStream(response.getEntity().getContent());
+                HttpEntity entity =
+                        ContentEncoding.decode(response.getEntity(), compressionStatistics);
+                if (entity != null && entity.getContent() != null) {
+                    stream = new BufferedInputStream(entity.getContent());
                     ret = calendarBuilder.build(stream);
                     return ret;
                 }
@@ -82,6 +86,18 @@ public class HttpGetMethod extends HttpGet {
         }
     }
 
+    /**
+     * Makes the request conditional: the server answers 304 Not Modified instead of returning the
+     * resource, if its ETag still matches.
+     *
+     * @param etag ETag of the locally known copy of the resource
+     */
+    public void setIfNoneMatch(String etag) {
+        if (etag != null && !etag.equals("")) {
+            setHeader(CalDAVConstants.HEADER_IF_NONE_MATCH, etag);
+        }
+    }
+
     /** @return Returns the associated CalendarBuilder Instance */
     public CalendarBuilder getCalendarBuilder() {
         return calendarBuilder;
@@ -95,4 +111,14 @@ public class HttpGetMethod extends HttpGet {
     public void setCalendarBuilder(CalendarBuilder calendarBuilder) {
         this.calendarBuilder = calendarBuilder;
     }
+
+    /** @return Statistics counting the bytes of the compressed responses, null if none */
+    public CompressionStatistics getCompressionStatistics() {
+        return compressionStatistics;
+    }
+
+    /** @param compressionStatistics Statistics counting the bytes of the compressed responses */
+    public void setCompressionStatistics(CompressionStatistics compressionStatistics) {
+        this.compressionStatistics = compressionStatistics;
+    }
 }
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import javax.xml.parsers.ParserConfigurationException;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.jackrabbit.webdav.DavException;
 import org.apache.jackrabbit.webdav.MultiStatusResponse;
@@ -21,6 +22,7 @@ import org.apache.jackrabbit.webdav.security.AclProperty;
 import org.apache.jackrabbit.webdav.xml.DomUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
 
 /**
  * Represents an HTTP PROPFIND request. Some of the options can be found in {@link CalDAVConstants}
@@ -31,6 +33,8 @@ public class HttpPropFindMethod extends HttpPropfind {
 
     private static final Logger log = LoggerFactory.getLogger(HttpPropFindMethod.class);
 
+    private CompressionStatistics compressionStatistics = null;
+
     /**
      * @param uri Path of the principal
      * @param propfindType Type of Propfind Call. Specified, in CalDavConstants. Specifically,
@@ -110,6 +114,23 @@ public class HttpPropFindMethod extends HttpPropfind {
         super(uri, propfindType, depth);
     }
 
+    /** @return Statistics counting the bytes of the compressed responses, null if none */
+    public CompressionStatistics getCompressionStatistics() {
+        return compressionStatistics;
+    }
+
+    /** @param compressionStatistics Statistics counting the bytes of the compressed responses */
+    public void setCompressionStatistics(CompressionStatistics compressionStatistics) {
+        this.compressionStatistics = compressionStatistics;
+    }
+
+    /** Decodes the body first, if the server compressed it. */
+    @Override
+    protected Document getResponseBodyAsDocument(HttpEntity entity) throws IOException {
+        return super.getResponseBodyAsDocument(
+                ContentEncoding.decode(entity, compressionStatistics));
+    }
+
     /**
      * Return the AclProperty relative to a given url
      *
@@ -213,6 +234,39 @@ public class HttpPropFindMethod extends HttpPropfind {
         return null;
     }
 
+    /**
+     * Convenience method to return the tag identifying the state of a collection, from a Depth 0
+     * PROPFIND of {@link CalDAVConstants#DNAME_GETCTAG} and/or {@link
+     * CalDAVConstants#DNAME_SYNC_TOKEN}. The CTag is preferred over the sync-token.
+     *
+     * @param httpResponse Response Object for the request.
+     * @return The collection tag, null if the server returned neither property.
+     */
+    public String getCollectionTag(HttpResponse httpResponse) {
+        try {
+            MultiStatusResponse[] responses =
+                    getResponseBodyAsMultiStatus(httpResponse).getResponses();
+            if (responses != null && succeeded(httpResponse)) {
+                for (MultiStatusResponse r : responses) {
+                    DavPropertySet props = r.getProperties(CalDAVStatus.SC_OK);
+                    DavProperty<?> p = props.get(CalDAVConstants.DNAME_GETCTAG);
+                    if (p == null || p.getValue() == null) {
+                        p = props.get(CalDAVConstants.DNAME_SYNC_TOKEN);
+                    }
+                    if (p != null && p.getValue() != null) {
+                        return p.getValue().toString();
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn(
+                    "Unable to get MultiStatusResponse. Status: "
+                            + httpResponse.getStatusLine().getStatusCode());
+        }
+
+        return null;
+    }
+
     /**
      * Returns all the set of properties and their value, for all the hrefs
      *
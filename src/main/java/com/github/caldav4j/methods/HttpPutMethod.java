@@ -2,17 +2,12 @@ package com.github.caldav4j.methods;
 
 import com.github.caldav4j.CalDAVConstants;
 import com.github.caldav4j.model.request.CalendarRequest;
-import java.io.StringWriter;
+import java.io.IOException;
 import java.net.URI;
-import java.nio.charset.UnsupportedCharsetException;
 import net.fortuna.ical4j.data.CalendarOutputter;
 import net.fortuna.ical4j.model.Calendar;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Extended HttpPut class to allow easy addition of the Calendar.
@@ -21,8 +16,6 @@ import org.slf4j.LoggerFactory;
  */
 public class HttpPutMethod extends HttpPut {
 
-    private static final Logger log = LoggerFactory.getLogger(HttpPutMethod.class);
-
     /**
      * @param uri URI to the given resource
      * @param calendarRequest Object marshalling all the request options
@@ -48,32 +41,29 @@ public class HttpPutMethod extends HttpPut {
     }
 
     /**
-     * Generates the calendar request body, and sets the entity.
+     * Sets the entity, which outputs the calendar into a buffer sent with its Content-Length. If
+     * the request is {@link CalendarRequest#isChunked() chunked}, the calendar is instead streamed
+     * when the request is executed, which then fails with an IOException if the calendar does not
+     * validate.
      *
      * @param calendarRequest Object representing the marshalled properties of the request
-     * @param calendarOutputter Outputter object to generate the calendar string output
+     * @param calendarOutputter Outputter object to generate the calendar output
+     * @throws RuntimeException if the calendar could not be output, e.g. it failed validation
+     * @see CalendarEntity
      */
     protected void generateRequestBody(
             CalendarRequest calendarRequest, CalendarOutputter calendarOutputter) {
         Calendar calendar = calendarRequest.getCalendar();
         if (calendar != null) {
-            StringWriter writer = new StringWriter();
+            CalendarEntity entity =
+                    new CalendarEntity(calendar, calendarOutputter, calendarRequest.getCharset());
+            entity.setChunked(calendarRequest.isChunked());
             try {
-                calendarOutputter.output(calendar, writer);
-
-                ContentType ct =
-                        ContentType.create(
-                                CalDAVConstants.CONTENT_TYPE_CALENDAR,
-                                calendarRequest.getCharset());
-
-                setEntity(new StringEntity(writer.toString(), ct));
-            } catch (UnsupportedCharsetException e) {
-                log.error("Unsupported encoding in event" + writer.toString());
-                throw new RuntimeException("Problem generating calendar. ", e);
-            } catch (Exception e) {
-                log.error("Problem generating calendar: ", e);
+                entity.buffer();
+            } catch (IOException e) {
                 throw new RuntimeException("Problem generating calendar. ", e);
             }
+            setEntity(entity);
         }
     }
 
@@ -45,6 +45,7 @@ public class CalendarRequest {
     private boolean ifMatch = false;
     private boolean ifNoneMatch = false;
     private boolean allEtags = false;
+    private boolean chunked = false;
 
     public CalendarRequest() {}
 
@@ -172,4 +173,18 @@ public class CalendarRequest {
     public void setCharset(Charset charset) {
         this.charset = charset;
     }
+
+    public boolean isChunked() {
+        return chunked;
+    }
+
+    /**
+     * @param chunked If true the calendar is streamed with chunked transfer encoding, instead of
+     *     being buffered to send its Content-Length. Only for large calendars, as some servers
+     *     reject chunked requests.
+     * @see com.github.caldav4j.methods.CalendarEntity
+     */
+    public void setChunked(boolean chunked) {
+        this.chunked = chunked;
+    }
 }
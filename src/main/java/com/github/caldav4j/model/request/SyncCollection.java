@@ -0,0 +1,184 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.caldav4j.model.request;
+
+import com.github.caldav4j.CalDAVConstants;
+import com.github.caldav4j.exceptions.DOMValidationException;
+import com.github.caldav4j.xml.OutputsDOMBase;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import org.apache.jackrabbit.webdav.property.DavPropertyNameSet;
+import org.apache.jackrabbit.webdav.xml.Namespace;
+import org.apache.jackrabbit.webdav.xml.XmlSerializable;
+
+/**
+ * WebDAV report used to retrieve the members of a collection that have changed since the state
+ * identified by a sync-token. An empty sync-token requests the initial synchronization, returning
+ * all the members of the collection.
+ *
+ * <pre>
+ * &lt;!ELEMENT sync-collection (sync-token, sync-level, limit?, prop)&gt;
+ * &lt;!ELEMENT sync-token CDATA&gt;
+ * &lt;!ELEMENT sync-level CDATA&gt;
+ * &lt;!ELEMENT limit (nresults) &gt;
+ * &lt;!ELEMENT nresults (#PCDATA)&gt;
+ * </pre>
+ *
+ * @see <a href=https://tools.ietf.org/html/rfc6578#section-6.1>RFC 6578 Section 6.1</a>
+ */
+public class SyncCollection extends OutputsDOMBase implements CalDAVReportRequest {
+
+    public static final String ELEMENT_NAME = CalDAVConstants.DAV_SYNC_COLLECTION;
+    public static final String ELEM_SYNC_TOKEN = CalDAVConstants.ELEM_SYNC_TOKEN;
+    public static final String ELEM_SYNC_LEVEL = "sync-level";
+    public static final String ELEM_LIMIT = "limit";
+    public static final String ELEM_NRESULTS = "nresults";
+
+    public static final String SYNC_LEVEL_1 = "1";
+    public static final String SYNC_LEVEL_INFINITE = CalDAVConstants.INFINITY_STRING;
+
+    private String syncToken = null;
+    private String syncLevel = SYNC_LEVEL_1;
+    private Integer limit = null;
+    private Prop<?> properties = new Prop<>();
+    private CalendarData calendarDataProp = null;
+
+    public SyncCollection() {}
+
+    /**
+     * @param syncToken Sync-token returned by the previous synchronization, null for the initial
+     *     one
+     * @param properties Properties to return for the changed members
+     */
+    public SyncCollection(String syncToken, DavPropertyNameSet properties) {
+        this.syncToken = syncToken;
+        this.properties.addChildren(properties);
+    }
+
+    protected String getElementName() {
+        return ELEMENT_NAME;
+    }
+
+    protected Namespace getNamespace() {
+        return CalDAVConstants.NAMESPACE_WEBDAV;
+    }
+
+    /** {@inheritDoc} */
+    protected Collection<XmlSerializable> getChildren() {
+        ArrayList<XmlSerializable> children = new ArrayList<>();
+
+        children.add(
+                new PropProperty<>(
+                        ELEM_SYNC_TOKEN,
+                        (syncToken == null || syncToken.isEmpty()) ? null : syncToken,
+                        CalDAVConstants.NAMESPACE_WEBDAV));
+        children.add(
+                new PropProperty<>(ELEM_SYNC_LEVEL, syncLevel, CalDAVConstants.NAMESPACE_WEBDAV));
+
+        if (limit != null) {
+            PropProperty<?> limitElement =
+                    new PropProperty<>(ELEM_LIMIT, CalDAVConstants.NAMESPACE_WEBDAV);
+            limitElement.addChild(
+                    new PropProperty<>(
+                            ELEM_NRESULTS, limit.toString(), CalDAVConstants.NAMESPACE_WEBDAV));
+            children.add(limitElement);
+        }
+
+        Prop<?> temp = new Prop<>();
+        temp.addChildren(properties.getChildren());
+        if (calendarDataProp != null) {
+            temp.addChild(calendarDataProp);
+        }
+        children.add(temp);
+
+        return children;
+    }
+
+    protected String getTextContent() {
+        return null;
+    }
+
+    protected Map<String, String> getAttributes() {
+        return null;
+    }
+
+    public String getSyncToken() {
+        return syncToken;
+    }
+
+    public void setSyncToken(String syncToken) {
+        this.syncToken = syncToken;
+    }
+
+    public String getSyncLevel() {
+        return syncLevel;
+    }
+
+    /** @param syncLevel Either {@link #SYNC_LEVEL_1} or {@link #SYNC_LEVEL_INFINITE} */
+    public void setSyncLevel(String syncLevel) {
+        this.syncLevel = syncLevel;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /** @param limit Maximum number of results the server should return, null for no limit */
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public Prop<?> getProperties() {
+        return properties;
+    }
+
+    public void setProperties(DavPropertyNameSet properties) {
+        this.properties.addChildren(properties.getContent());
+    }
+
+    public void addProperty(XmlSerializable propProperty) {
+        properties.add(propProperty);
+    }
+
+    public CalendarData getCalendarDataProp() {
+        return calendarDataProp;
+    }
+
+    public void setCalendarDataProp(CalendarData calendarDataProp) {
+        this.calendarDataProp = calendarDataProp;
+    }
+
+    /**
+     * Validates that the object validates against the following dtd:
+     *
+     * <pre>
+     * &lt;!ELEMENT sync-collection (sync-token, sync-level, limit?, prop)&gt;
+     * </pre>
+     *
+     * @see OutputsDOMBase#validate()
+     */
+    public void validate() throws DOMValidationException {
+        if (calendarDataProp != null) {
+            calendarDataProp.validate();
+        }
+        if (!SYNC_LEVEL_1.equals(syncLevel) && !SYNC_LEVEL_INFINITE.equals(syncLevel)) {
+            throwValidationException("Sync-level must be 1 or infinite.");
+        }
+        if (limit != null && limit < 1) {
+            throwValidationException("Limit must be a positive number.");
+        }
+    }
+}
@@ -20,14 +20,17 @@ package com.github.caldav4j.model.response;
 
 import com.github.caldav4j.CalDAVConstants;
 import com.github.caldav4j.util.CalDAVStatus;
+import java.io.IOException;
 import java.io.StringReader;
 import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.data.ParserException;
+import net.fortuna.ical4j.data.UnfoldingReader;
 import net.fortuna.ical4j.model.Calendar;
-import net.fortuna.ical4j.util.CompatibilityHints;
 import org.apache.jackrabbit.webdav.MultiStatusResponse;
 import org.apache.jackrabbit.webdav.property.DavProperty;
 import org.apache.jackrabbit.webdav.property.DavPropertyName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Contains various static methods to process Calendar Data from the responses.
@@ -36,6 +39,8 @@ import org.apache.jackrabbit.webdav.property.DavPropertyName;
  */
 public class CalendarDataProperty {
 
+    private static final Logger log = LoggerFactory.getLogger(CalendarDataProperty.class);
+
     public static final String ELEMENT_CALENDAR_DATA = "calendar-data";
 
     /**
@@ -63,9 +68,39 @@ public class CalendarDataProperty {
     public static Calendar getCalendarfromProperty(DavProperty property) {
         if (property == null || property.getValue() == null) return null;
 
-        Calendar calendar = null;
-        String text = property.getValue().toString();
+        return getCalendarfromString(property.getValue().toString());
+    }
+
+    /**
+     * @param text Raw iCalendar text, as found in the calendar-data property.
+     * @return Returns the Calendar parsed from the text, null if it can't be parsed.
+     */
+    public static Calendar getCalendarfromString(String text) {
+        if (text == null) return null;
+
+        try {
+            return parseCalendar(text);
+        } catch (Exception e) {
+            log.warn("Unable to parse calendar-data", e);
+        }
+        return null;
+    }
 
+    /**
+     * Parses the raw iCalendar text of a calendar-data property. If the text can't be parsed, it
+     * is parsed again by the builder of the thread with relaxed unfolding. Unlike {@link
+     * #getCalendarfromString(String)} errors are reported to the caller.
+     *
+     * <p>The JVM-wide {@link net.fortuna.ical4j.util.CompatibilityHints} are left untouched, as
+     * other threads may be parsing at the same time: relaxed parsing must be enabled there by the
+     * application if needed.
+     *
+     * @param text Raw iCalendar text, as found in the calendar-data property.
+     * @return Returns the Calendar parsed from the text.
+     * @throws ParserException if the text can't be parsed even with relaxed parsing
+     * @throws IOException on error reading the text
+     */
+    public static Calendar parseCalendar(String text) throws ParserException, IOException {
         // text might contain lines breaked only with \n. RFC states that long lines must be
         // delimited by CRLF.
         // @see{http://www.apps.ietf.org/rfc/rfc2445.html#sec-4.1 }
@@ -74,27 +109,14 @@ public class CalendarDataProperty {
 
         ThreadLocal<CalendarBuilder> threadLocalCalendarBuilder = getCalendarBuilderThreadLocal();
         CalendarBuilder calendarBuilder = threadLocalCalendarBuilder.get();
-
-        StringReader stringReader = new StringReader(text);
         try {
-            calendar = calendarBuilder.build(stringReader);
+            return calendarBuilder.build(new StringReader(text));
         } catch (ParserException e) {
-            try {
-                CompatibilityHints.setHintEnabled(CompatibilityHints.KEY_RELAXED_PARSING, true);
-                CompatibilityHints.setHintEnabled(CompatibilityHints.KEY_RELAXED_UNFOLDING, true);
-                CompatibilityHints.setHintEnabled(
-                        CompatibilityHints.KEY_OUTLOOK_COMPATIBILITY, true);
-
-                calendar = calendarBuilder.build(stringReader);
-            } catch (Exception e2) {
-                e2.printStackTrace();
-            }
-
-        } catch (Exception e) {
-            e.printStackTrace();
+            log.debug("Parsing calendar-data again with relaxed unfolding", e);
+            return calendarBuilder.build(new UnfoldingReader(new StringReader(text), true));
+        } finally {
+            threadLocalCalendarBuilder.remove();
         }
-        threadLocalCalendarBuilder.remove();
-        return calendar;
     }
 
     /**
@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.caldav4j.model.response;
+
+import com.github.caldav4j.CalDAVResource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import net.fortuna.ical4j.model.Calendar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds the {@link CalDAVResource}s out of the calendar-data of streamed responses. Parsing
+ * iCalendar data is CPU bound, so an {@link Executor} (e.g. a {@link
+ * java.util.concurrent.ForkJoinPool} or a bounded thread pool) can be provided to parse the
+ * responses in parallel. Results are always returned in server order.
+ *
+ * <p>Responses whose calendar-data can't be parsed are not part of the result: they are reported
+ * to the {@link FailureHandler}, which by default logs them.
+ */
+public class CalendarParseStage {
+
+    private static final Logger log = LoggerFactory.getLogger(CalendarParseStage.class);
+
+    /**
+     * Receives the responses whose calendar-data could not be parsed. When an executor is used,
+     * it is invoked from the executor threads.
+     */
+    @FunctionalInterface
+    public interface FailureHandler {
+
+        /**
+         * @param entry Response containing the calendar-data
+         * @param cause Error raised while parsing
+         */
+        void parseFailed(MultiStatusEntry entry, Exception cause);
+    }
+
+    private static final FailureHandler LOGGING_HANDLER =
+            (entry, cause) ->
+                    log.warn("Unable to parse calendar-data of " + entry.getHref(), cause);
+
+    private final Executor executor;
+    private FailureHandler failureHandler = LOGGING_HANDLER;
+
+    /** Creates a stage parsing on the calling thread. */
+    public CalendarParseStage() {
+        this(null);
+    }
+
+    /** @param executor Executor running the parsing, null to parse on the calling thread. */
+    public CalendarParseStage(Executor executor) {
+        this.executor = executor;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public FailureHandler getFailureHandler() {
+        return failureHandler;
+    }
+
+    /** @param failureHandler Handler to report parse failures to, null to restore logging. */
+    public void setFailureHandler(FailureHandler failureHandler) {
+        this.failureHandler = failureHandler != null ? failureHandler : LOGGING_HANDLER;
+    }
+
+    /**
+     * Parses the calendar-data of the entries. Entries without calendar-data give a resource
+     * without calendar.
+     *
+     * @param entries Streamed responses, in server order
+     * @return Resources in the same order as the entries, without the ones that failed to parse.
+     */
+    public List<CalDAVResource> parse(List<MultiStatusEntry> entries) {
+        List<CalDAVResource> resources = new ArrayList<>(entries.size());
+        if (executor == null || entries.size() < 2) {
+            for (MultiStatusEntry entry : entries) {
+                CalDAVResource resource = parseOrReport(entry);
+                if (resource != null) resources.add(resource);
+            }
+            return resources;
+        }
+
+        List<CompletableFuture<CalDAVResource>> futures = new ArrayList<>(entries.size());
+        for (MultiStatusEntry entry : entries) {
+            futures.add(CompletableFuture.supplyAsync(() -> parseOrReport(entry), executor));
+        }
+        for (CompletableFuture<CalDAVResource> future : futures) {
+            CalDAVResource resource = future.join();
+            if (resource != null) resources.add(resource);
+        }
+        return resources;
+    }
+
+    /**
+     * Parses a single entry, reporting any failure.
+     *
+     * @param entry Streamed response
+     * @return The resource, null if the calendar-data could not be parsed.
+     */
+    public CalDAVResource parseOrReport(MultiStatusEntry entry) {
+        try {
+            return parse(entry);
+        } catch (Exception e) {
+            failureHandler.parseFailed(entry, e);
+            return null;
+        }
+    }
+
+    /**
+     * @param entry Streamed response
+     * @return The resource built from the entry
+     * @throws Exception on error parsing the calendar-data
+     */
+    protected CalDAVResource parse(MultiStatusEntry entry) throws Exception {
+        String data = entry.getCalendarData();
+        Calendar calendar = data == null ? null : CalendarDataProperty.parseCalendar(data);
+        CalDAVResource resource = new CalDAVResource(calendar, entry.getETag(), entry.getHref());
+        resource.getResourceMetadata().setLastValidated(System.currentTimeMillis());
+        if (data != null) {
+            resource.getResourceMetadata().setContentLength(data.length());
+        }
+        return resource;
+    }
+}
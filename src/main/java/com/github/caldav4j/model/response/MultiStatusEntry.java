@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.caldav4j.model.response;
+
+import com.github.caldav4j.CalDAVConstants;
+import com.github.caldav4j.util.CalDAVStatus;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.jackrabbit.webdav.property.DavPropertyName;
+
+/**
+ * A lightweight representation of a single {@code DAV:response} element of a multistatus body, as
+ * produced by the {@link MultiStatusReader}. Only the textual value of the properties reported with
+ * a 200 status are retained, so no DOM is kept around for the entry.
+ *
+ * @see <a href="http://webdav.org/specs/rfc4918.html#ELEMENT_response">RFC 4918, Section
+ *     14.24</a>
+ */
+public class MultiStatusEntry {
+
+    private String href = null;
+    private int status = -1;
+    private final Map<DavPropertyName, String> properties = new LinkedHashMap<>();
+
+    public MultiStatusEntry() {}
+
+    /**
+     * @param href Href of the resource
+     * @param status Status of the response
+     */
+    public MultiStatusEntry(String href, int status) {
+        this.href = href;
+        this.status = status;
+    }
+
+    public String getHref() {
+        return href;
+    }
+
+    public void setHref(String href) {
+        this.href = href;
+    }
+
+    /**
+     * Returns the status of the response. When the server did not send a response level {@code
+     * DAV:status}, this is the status of the found properties, i.e. {@link CalDAVStatus#SC_OK}.
+     *
+     * @return HTTP status code of the response, -1 if unknown
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /** @return True if the status of the response is {@link CalDAVStatus#SC_OK} */
+    public boolean isOk() {
+        return status == CalDAVStatus.SC_OK;
+    }
+
+    /**
+     * @param name Name of the property
+     * @return Text value of the property found with 200 status, null if not present
+     */
+    public String getProperty(DavPropertyName name) {
+        return properties.get(name);
+    }
+
+    /**
+     * @param name Name of the property
+     * @param value Text value of the property
+     */
+    public void setProperty(DavPropertyName name, String value) {
+        properties.put(name, value);
+    }
+
+    /** @return Unmodifiable view of all the properties found with 200 status */
+    public Map<DavPropertyName, String> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    /** @return ETag of the resource, null if not present */
+    public String getETag() {
+        return properties.get(DavPropertyName.GETETAG);
+    }
+
+    /** @return Raw iCalendar text of the calendar-data property, null if not present */
+    public String getCalendarData() {
+        return properties.get(CalDAVConstants.DNAME_CALENDAR_DATA);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.caldav4j.model.response;
+
+import com.github.caldav4j.exceptions.CalDAV4JException;
+
+/**
+ * Callback used by the {@link MultiStatusReader} to hand out every {@code DAV:response} as soon as
+ * it has been parsed.
+ */
+@FunctionalInterface
+public interface MultiStatusHandler {
+
+    /**
+     * Invoked once for every {@code DAV:response} in the multistatus body, in server order.
+     *
+     * @param entry The parsed response
+     * @throws CalDAV4JException to abort reading the remaining responses.
+     */
+    void handleResponse(MultiStatusEntry entry) throws CalDAV4JException;
+
+    /**
+     * Invoked when the multistatus body carries a {@code DAV:sync-token}, as defined in RFC 6578.
+     *
+     * @param syncToken The sync-token value
+     */
+    default void handleSyncToken(String syncToken) {}
+}
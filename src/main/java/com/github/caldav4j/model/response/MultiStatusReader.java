@@ -0,0 +1,209 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.caldav4j.model.response;
+
+import com.github.caldav4j.CalDAVConstants;
+import com.github.caldav4j.exceptions.CalDAV4JException;
+import com.github.caldav4j.util.CalDAVStatus;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.jackrabbit.webdav.property.DavPropertyName;
+import org.apache.jackrabbit.webdav.xml.Namespace;
+
+/**
+ * Streaming, StAX based reader for {@code DAV:multistatus} bodies. Unlike {@link
+ * org.apache.jackrabbit.webdav.MultiStatus}, no DOM is built for the whole body: every {@code
+ * DAV:response} is handed to a {@link MultiStatusHandler} as soon as its closing tag has been read,
+ * so the memory used only depends on the size of a single response.
+ *
+ * @see <a href="http://webdav.org/specs/rfc4918.html#ELEMENT_multistatus">RFC 4918, Section
+ *     14.16</a>
+ */
+public class MultiStatusReader {
+
+    private static final String ELEM_RESPONSE = "response";
+    private static final String ELEM_HREF = CalDAVConstants.ELEM_HREF;
+    private static final String ELEM_PROPSTAT = "propstat";
+    private static final String ELEM_PROP = CalDAVConstants.DAV_PROP;
+    private static final String ELEM_STATUS = "status";
+    private static final String ELEM_SYNC_TOKEN = CalDAVConstants.ELEM_SYNC_TOKEN;
+
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        // multistatus bodies come from the network: no DTDs, no external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * Reads the multistatus body from the stream, invoking the handler for every response.
+     *
+     * @param in Stream containing the multistatus body. Not closed by this method.
+     * @param handler Handler receiving the responses
+     * @throws IOException on error reading or parsing the stream
+     * @throws CalDAV4JException if thrown by the handler
+     */
+    public static void read(InputStream in, MultiStatusHandler handler)
+            throws IOException, CalDAV4JException {
+        XMLStreamReader reader = null;
+        try {
+            reader = inputFactory.createXMLStreamReader(in);
+            read(reader, handler);
+        } catch (XMLStreamException e) {
+            throw new IOException("Error parsing multistatus response", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // nothing left to do
+                }
+            }
+        }
+    }
+
+    private static void read(XMLStreamReader reader, MultiStatusHandler handler)
+            throws XMLStreamException, CalDAV4JException {
+        boolean inResponse = false;
+        boolean inPropstat = false;
+        // depth inside DAV:prop, 1 is the prop element itself, 2 a property
+        int propDepth = 0;
+
+        List<String> hrefs = new ArrayList<>();
+        int responseStatus = -1;
+        int propstatStatus = -1;
+        int firstPropstatStatus = -1;
+        Map<DavPropertyName, String> propstatProperties = new LinkedHashMap<>();
+        Map<DavPropertyName, String> okProperties = new LinkedHashMap<>();
+        DavPropertyName currentProperty = null;
+        StringBuilder text = new StringBuilder();
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (propDepth > 0) {
+                        if (propDepth == 1) {
+                            String uri = reader.getNamespaceURI();
+                            currentProperty =
+                                    DavPropertyName.create(
+                                            reader.getLocalName(),
+                                            Namespace.getNamespace(uri == null ? "" : uri));
+                            text.setLength(0);
+                        }
+                        propDepth++;
+                        break;
+                    }
+                    if (!CalDAVConstants.NS_DAV.equals(reader.getNamespaceURI())) break;
+
+                    String name = reader.getLocalName();
+                    if (ELEM_RESPONSE.equals(name)) {
+                        inResponse = true;
+                        hrefs.clear();
+                        okProperties.clear();
+                        responseStatus = -1;
+                        firstPropstatStatus = -1;
+                    } else if (inResponse && !inPropstat && ELEM_HREF.equals(name)) {
+                        hrefs.add(reader.getElementText().trim());
+                    } else if (inResponse && ELEM_PROPSTAT.equals(name)) {
+                        inPropstat = true;
+                        propstatStatus = -1;
+                        propstatProperties.clear();
+                    } else if (inPropstat && ELEM_PROP.equals(name)) {
+                        propDepth = 1;
+                    } else if (inResponse && ELEM_STATUS.equals(name)) {
+                        int status = parseStatus(reader.getElementText());
+                        if (inPropstat) propstatStatus = status;
+                        else responseStatus = status;
+                    } else if (!inResponse && ELEM_SYNC_TOKEN.equals(name)) {
+                        handler.handleSyncToken(reader.getElementText().trim());
+                    }
+                    break;
+
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                    if (propDepth > 1) text.append(reader.getText());
+                    break;
+
+                case XMLStreamConstants.END_ELEMENT:
+                    if (propDepth > 0) {
+                        if (propDepth == 2) {
+                            propstatProperties.put(
+                                    currentProperty, text.length() == 0 ? null : text.toString());
+                        }
+                        propDepth--;
+                        break;
+                    }
+                    if (!CalDAVConstants.NS_DAV.equals(reader.getNamespaceURI())) break;
+
+                    if (inPropstat && ELEM_PROPSTAT.equals(reader.getLocalName())) {
+                        inPropstat = false;
+                        if (firstPropstatStatus == -1) firstPropstatStatus = propstatStatus;
+                        if (propstatStatus == CalDAVStatus.SC_OK) {
+                            okProperties.putAll(propstatProperties);
+                        }
+                    } else if (inResponse && ELEM_RESPONSE.equals(reader.getLocalName())) {
+                        inResponse = false;
+                        int status = responseStatus;
+                        if (status == -1) {
+                            status =
+                                    okProperties.isEmpty()
+                                            ? firstPropstatStatus
+                                            : CalDAVStatus.SC_OK;
+                        }
+                        for (String href : hrefs) {
+                            MultiStatusEntry entry = new MultiStatusEntry(href, status);
+                            for (Map.Entry<DavPropertyName, String> p : okProperties.entrySet()) {
+                                entry.setProperty(p.getKey(), p.getValue());
+                            }
+                            handler.handleResponse(entry);
+                        }
+                    }
+                    break;
+
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Parses a status line of the form {@code HTTP/1.1 200 OK}.
+     *
+     * @param statusLine Status line
+     * @return status code, -1 if it can't be parsed
+     */
+    static int parseStatus(String statusLine) {
+        String[] tokens = statusLine.trim().split("\\s+");
+        if (tokens.length < 2) return -1;
+        try {
+            return Integer.parseInt(tokens[1]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
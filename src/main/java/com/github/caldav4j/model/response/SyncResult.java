@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.caldav4j.model.response;
+
+import com.github.caldav4j.CalDAVResource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a {@code DAV:sync-collection} synchronization: the new sync-token, the hrefs of the
+ * members added, changed and removed since the previous token, and the resources fetched for the
+ * added and changed members.
+ *
+ * <p>The hrefs of the members and of the resources are in the same form, the full href under
+ * which the resources are cached, so that a member can be matched with its resource.
+ *
+ * @see com.github.caldav4j.model.request.SyncCollection
+ */
+public class SyncResult {
+
+    private String syncToken;
+    private boolean initial;
+    private boolean truncated;
+    private final List<String> added = new ArrayList<>();
+    private final List<String> changed = new ArrayList<>();
+    private final List<String> removed = new ArrayList<>();
+    private final List<CalDAVResource> resources = new ArrayList<>();
+
+    /** @return The sync-token identifying the state of the collection after this result. */
+    public String getSyncToken() {
+        return syncToken;
+    }
+
+    public void setSyncToken(String syncToken) {
+        this.syncToken = syncToken;
+    }
+
+    /**
+     * @return true if this was an initial synchronization, either because no token was known or
+     *     because the server rejected it.
+     */
+    public boolean isInitial() {
+        return initial;
+    }
+
+    public void setInitial(boolean initial) {
+        this.initial = initial;
+    }
+
+    /**
+     * @return true if the server truncated the results (507 Insufficient Storage on the
+     *     collection) without returning a new token to continue from. The synchronization
+     *     continues from the new token otherwise, so this is false once it completed.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    /** @return hrefs of the members added to the collection. */
+    public List<String> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    /** @return hrefs of the members whose ETag changed. */
+    public List<String> getChanged() {
+        return Collections.unmodifiableList(changed);
+    }
+
+    /** @return hrefs of the members removed from the collection. */
+    public List<String> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    /** @return Resources fetched for the added and changed members. */
+    public List<CalDAVResource> getResources() {
+        return Collections.unmodifiableList(resources);
+    }
+
+    public void addAdded(String href) {
+        added.add(href);
+    }
+
+    public void addChanged(String href) {
+        changed.add(href);
+    }
+
+    public void addRemoved(String href) {
+        removed.add(href);
+    }
+
+    public void addResources(List<CalDAVResource> resources) {
+        this.resources.addAll(resources);
+    }
+
+    /** @return true if nothing was added, changed or removed. */
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.caldav4j.model.response;
+
+import com.github.caldav4j.exceptions.CalDAV4JException;
+import java.util.List;
+
+/**
+ * Receives the progress of a cache warm-up, after every multiget, and the multigets which failed.
+ * It is invoked from the threads running the multigets, one at a time.
+ *
+ * @see com.github.caldav4j.CalDAVCollection#warmCache(org.apache.http.client.HttpClient, int,
+ *     WarmUpListener)
+ */
+@FunctionalInterface
+public interface WarmUpListener {
+
+    /**
+     * @param loaded Number of resources loaded in the cache so far
+     * @param total Number of resources to load, the members not already cached
+     */
+    void progress(int loaded, int total);
+
+    /**
+     * Receives a multiget which failed, whose resources are not loaded.
+     *
+     * @param hrefs Hrefs of the resources of the multiget
+     * @param error Error of the multiget
+     */
+    default void failed(List<String> hrefs, CalDAV4JException error) {}
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.caldav4j.model.response;
+
+import com.github.caldav4j.exceptions.CalDAV4JException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a cache warm-up: the number of members listed, already cached, loaded and not
+ * loaded, and the throughput of the load.
+ *
+ * @see com.github.caldav4j.CalDAVCollection#warmCache(org.apache.http.client.HttpClient, int,
+ *     WarmUpListener)
+ */
+public class WarmUpResult {
+
+    private int listed;
+    private int alreadyCached;
+    private int loaded;
+    private int failed;
+    private long loadedBytes;
+    private long elapsedNanos;
+    private List<CalDAV4JException> errors = new ArrayList<>();
+
+    /** @return Number of members listed in the collection. */
+    public int getListed() {
+        return listed;
+    }
+
+    public void setListed(int listed) {
+        this.listed = listed;
+    }
+
+    /** @return Number of members already cached with their current ETag, not fetched again. */
+    public int getAlreadyCached() {
+        return alreadyCached;
+    }
+
+    public void setAlreadyCached(int alreadyCached) {
+        this.alreadyCached = alreadyCached;
+    }
+
+    /** @return Number of resources fetched and put in the cache. */
+    public int getLoaded() {
+        return loaded;
+    }
+
+    public void setLoaded(int loaded) {
+        this.loaded = loaded;
+    }
+
+    /**
+     * @return Number of members which could not be loaded, because their multiget failed, see
+     *     {@link #getErrors()}, or they were removed after being listed.
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    /** @return Length in bytes of the calendar data loaded. */
+    public long getLoadedBytes() {
+        return loadedBytes;
+    }
+
+    public void setLoadedBytes(long loadedBytes) {
+        this.loadedBytes = loadedBytes;
+    }
+
+    /** @return Duration of the warm-up in nanoseconds, listing included. */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** @return The errors of the multigets which failed, in the order of their hrefs. */
+    public List<CalDAV4JException> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<CalDAV4JException> errors) {
+        this.errors = errors;
+    }
+
+    /** @return Resources loaded per second, 0 if nothing was loaded. */
+    public double getResourcesPerSecond() {
+        return elapsedNanos > 0 ? loaded * 1e9 / elapsedNanos : 0;
+    }
+
+    /** @return Bytes of calendar data loaded per second, 0 if nothing was loaded. */
+    public double getBytesPerSecond() {
+        return elapsedNanos > 0 ? loadedBytes * 1e9 / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d listed, %d already cached, %d loaded, %d failed in %d ms (%.1f resources/s)",
+                listed,
+                alreadyCached,
+                loaded,
+                failed,
+                elapsedNanos / 1000000,
+                getResourcesPerSecond());
+    }
+}
@@ -19,6 +19,8 @@ package com.github.caldav4j.util;
 
 import com.github.caldav4j.CalDAVResource;
 import com.github.caldav4j.exceptions.CalDAV4JException;
+import java.io.IOException;
+import java.net.URISyntaxException;
 import java.text.ParseException;
 import java.util.Calendar;
 import net.fortuna.ical4j.model.*;
@@ -454,4 +456,21 @@ public class ICalendarUtils {
         }
         return uid;
     }
+
+    /**
+     * Creates a deep copy of the calendar, which can be modified without affecting the original,
+     * e.g. a calendar shared by the cache.
+     *
+     * @param calendar Calendar to copy
+     * @return The copy
+     * @throws CalDAV4JException on error copying a component or property
+     */
+    public static net.fortuna.ical4j.model.Calendar copyCalendar(
+            net.fortuna.ical4j.model.Calendar calendar) throws CalDAV4JException {
+        try {
+            return new net.fortuna.ical4j.model.Calendar(calendar);
+        } catch (ParseException | IOException | URISyntaxException e) {
+            throw new CalDAV4JException("Problem copying calendar", e);
+        }
+    }
 }
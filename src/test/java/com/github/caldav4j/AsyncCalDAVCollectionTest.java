@@ -0,0 +1,148 @@
+package com.github.caldav4j;
+
+import static com.github.caldav4j.CalDAVCollectionCacheTest.calendarData;
+import static com.github.caldav4j.CalDAVCollectionCacheTest.resource;
+import static com.github.caldav4j.CalDAVCollectionCacheTest.summary;
+import static com.github.caldav4j.support.FakeHttpClient.multistatus;
+import static com.github.caldav4j.support.FakeHttpClient.propstat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.github.caldav4j.cache.ConcurrentResourceCache;
+import com.github.caldav4j.exceptions.ResourceOutOfDateException;
+import com.github.caldav4j.methods.CalDAV4JMethodFactory;
+import com.github.caldav4j.model.request.CalendarData;
+import com.github.caldav4j.model.request.CalendarMultiget;
+import com.github.caldav4j.support.FakeHttpAsyncClient;
+import com.github.caldav4j.support.FakeHttpClient;
+import com.github.caldav4j.util.ICalendarUtils;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.component.VEvent;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests the {@link AsyncCalDAVCollection} against an in-process client */
+public class AsyncCalDAVCollectionTest {
+
+    private AsyncCalDAVCollection collection;
+    private ConcurrentResourceCache cache;
+
+    @Before
+    public void setUp() {
+        collection =
+                new AsyncCalDAVCollection(
+                        "/cal/",
+                        new HttpHost("localhost", 80, "http"),
+                        new CalDAV4JMethodFactory(),
+                        CalDAVConstants.PROC_ID_DEFAULT);
+        cache = new ConcurrentResourceCache();
+        collection.setCache(cache);
+        // run the stages on the calling thread
+        collection.setExecutor(Runnable::run);
+    }
+
+    private static Calendar calendarWithoutUid() {
+        Calendar calendar = new Calendar();
+        calendar.getComponents().add(new VEvent(new Date(), "New event"));
+        return calendar;
+    }
+
+    @Test
+    public void getCalDAVResourcesCachesOnlyCalendars() throws Exception {
+        FakeHttpAsyncClient client =
+                new FakeHttpAsyncClient(
+                        request ->
+                                multistatus(
+                                        propstat(
+                                                "/cal/1.ics",
+                                                "\"1\"",
+                                                calendarData("uid-1", "Event")),
+                                        propstat("/cal/2.ics", "\"1\"", null)));
+        CalDAVResource cached = resource(collection.getHref("/cal/2.ics"), "uid-2", "\"0\"");
+        cache.putResource(cached);
+
+        CalendarMultiget query = new CalendarMultiget();
+        query.addProperty(CalDAVConstants.DNAME_GETETAG);
+        query.setCalendarDataProp(new CalendarData());
+        query.setHrefs(Arrays.asList("/cal/1.ics", "/cal/2.ics"));
+        List<CalDAVResource> resources = collection.getCalDAVResources(client, query).get();
+
+        assertEquals(2, resources.size());
+        assertNull(resources.get(1).getCalendar());
+        CalDAVResource fetched = cache.getResource(collection.getHref("/cal/1.ics"));
+        assertEquals("Event", summary(fetched));
+        assertEquals(collection.getHref("/cal/1.ics"), fetched.getResourceMetadata().getHref());
+        // the etag-only response does not replace the cached calendar
+        assertSame(cached, cache.getResource(collection.getHref("/cal/2.ics")));
+    }
+
+    @Test
+    public void addLeavesTheCalendarUnchanged() throws Exception {
+        FakeHttpAsyncClient client =
+                new FakeHttpAsyncClient(
+                        request -> FakeHttpClient.response(201, null, "ETag", "\"1\""));
+        Calendar calendar = calendarWithoutUid();
+
+        String uid = collection.add(client, calendar).get();
+
+        assertNotNull(uid);
+        assertNull(ICalendarUtils.getUIDValue(calendar));
+        HttpRequest put = client.getClient().getRequests().get(0);
+        assertTrue(put.getRequestLine().getUri().endsWith("/cal/" + uid + ".ics"));
+        CalDAVResource added = cache.getResource(collection.getHref("/cal/" + uid + ".ics"));
+        assertEquals(uid, ICalendarUtils.getUIDValue(added.getCalendar()));
+    }
+
+    @Test
+    public void addRetriesWithAnotherUid() throws Exception {
+        FakeHttpAsyncClient client =
+                new FakeHttpAsyncClient(
+                        request ->
+                                request.getRequestLine().getUri().endsWith("/cal/taken.ics")
+                                        ? FakeHttpClient.response(412, null)
+                                        : FakeHttpClient.response(201, null, "ETag", "\"1\""));
+        Calendar calendar = calendarWithoutUid();
+        ICalendarUtils.setUIDValue(calendar, "taken");
+
+        String uid = collection.add(client, calendar).get();
+
+        assertTrue(uid.startsWith("taken-"));
+        assertEquals("taken", ICalendarUtils.getUIDValue(calendar));
+        assertEquals(2, client.getClient().count("PUT"));
+    }
+
+    @Test
+    public void putFailsOnEtagMismatch() throws Exception {
+        FakeHttpAsyncClient client =
+                new FakeHttpAsyncClient(request -> FakeHttpClient.response(412, null));
+
+        try {
+            collection.put(client, calendarWithoutUid(), "/cal/1.ics", "\"1\"").get();
+            fail("The put should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ResourceOutOfDateException);
+        }
+    }
+
+    @Test
+    public void deleteRemovesFromTheCache() throws Exception {
+        cache.putResource(resource(collection.getHref("/cal/1.ics"), "uid-1", "\"1\""));
+        FakeHttpAsyncClient client =
+                new FakeHttpAsyncClient(request -> FakeHttpClient.response(204, null));
+
+        collection.delete(client, "/cal/1.ics").get();
+
+        assertEquals(1, client.getClient().count("DELETE"));
+        assertNull(cache.getResource(collection.getHref("/cal/1.ics")));
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.caldav4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.github.caldav4j.cache.ConcurrentResourceCache;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpHost;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Test;
+
+/** Tests the configuration of the {@link CalDAVClient} */
+public class CalDAVClientTest {
+
+    @Test
+    public void configurePool() throws Exception {
+        try (CalDAVClient client =
+                CalDAVClient.builder()
+                        .setMaxConnectionsPerRoute(30)
+                        .setMaxConnectionsTotal(60)
+                        .setValidateAfterInactivity(500)
+                        .setKeepAlive(10, TimeUnit.SECONDS)
+                        .setMaxIdleTime(5, TimeUnit.SECONDS)
+                        .build()) {
+            PoolingHttpClientConnectionManager connectionManager = client.getConnectionManager();
+            assertEquals(30, connectionManager.getDefaultMaxPerRoute());
+            assertEquals(60, connectionManager.getMaxTotal());
+            assertEquals(500, connectionManager.getValidateAfterInactivity());
+            assertEquals(0, client.getPoolStats().getLeased());
+        }
+    }
+
+    @Test
+    public void collectionsShareTheClientSettings() throws Exception {
+        HttpHost host = new HttpHost("calendar.example.com", 443, "https");
+        ConcurrentResourceCache cache = new ConcurrentResourceCache();
+        try (CalDAVClient client =
+                CalDAVClient.builder().setHttpHost(host).setCache(cache).build()) {
+            CalDAVCollection collection = client.getCollection("/calendars/user/events/");
+            assertEquals("/calendars/user/events/", collection.getCalendarCollectionRoot());
+            assertSame(host, collection.getHttpHost());
+            assertSame(client.getMethodFactory(), collection.getMethodFactory());
+            assertSame(cache, collection.getCache());
+        }
+    }
+
+    @Test
+    public void hostOfAbsolutePath() throws Exception {
+        try (CalDAVClient client = CalDAVClient.builder().build()) {
+            CalDAVCollection collection =
+                    client.getCollection("https://calendar.example.com/calendars/user/events/");
+            assertEquals("calendar.example.com", collection.getHttpHost().getHostName());
+            assertEquals("/calendars/user/events/", collection.getCalendarCollectionRoot());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectEmptyPool() {
+        CalDAVClient.builder().setMaxConnectionsPerRoute(0);
+    }
+}
@@ -0,0 +1,168 @@
+package com.github.caldav4j;
+
+import static com.github.caldav4j.CalDAVCollectionCacheTest.calendarData;
+import static com.github.caldav4j.CalDAVCollectionCacheTest.collection;
+import static com.github.caldav4j.support.FakeHttpClient.multistatus;
+import static com.github.caldav4j.support.FakeHttpClient.propstat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.github.caldav4j.exceptions.BadStatusException;
+import com.github.caldav4j.exceptions.ResourceNotFoundException;
+import com.github.caldav4j.exceptions.ResourceOutOfDateException;
+import com.github.caldav4j.support.FakeHttpClient;
+import com.github.caldav4j.util.ICalendarUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.component.VEvent;
+import org.apache.http.HttpRequest;
+import org.junit.Test;
+
+/** Tests the bulk operations of the {@link CalDAVCollection} */
+public class CalDAVCollectionBulkTest {
+
+    static Calendar calendar(String uid) {
+        Calendar calendar = new Calendar();
+        calendar.getComponents().add(new VEvent(new Date(), "Event " + uid));
+        ICalendarUtils.setUIDValue(calendar, uid);
+        return calendar;
+    }
+
+    @Test
+    public void addAllSplitsSuccessesAndFailures() throws Exception {
+        CalDAVCollection collection = collection();
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request ->
+                                request.getRequestLine().getUri().endsWith("/fail.ics")
+                                        ? FakeHttpClient.response(403, null)
+                                        : FakeHttpClient.response(201, null, "ETag", "\"1\""));
+        List<Calendar> calendars = new ArrayList<>();
+        calendars.add(calendar("ok-1"));
+        calendars.add(calendar("fail"));
+        calendars.add(calendar("ok-2"));
+
+        List<BulkOperationResult> results = collection.addAll(client, calendars, 2);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSucceeded());
+        assertEquals("ok-1", results.get(0).getUid());
+        assertEquals("/cal/ok-1.ics", results.get(0).getHref());
+        assertEquals("\"1\"", results.get(0).getETag());
+
+        // the failed result identifies its calendar
+        BulkOperationResult failed = results.get(1);
+        assertFalse(failed.isSucceeded());
+        assertTrue(failed.getError() instanceof BadStatusException);
+        assertEquals("fail", failed.getUid());
+        assertEquals("/cal/fail.ics", failed.getHref());
+        assertNull(failed.getETag());
+
+        assertTrue(results.get(2).isSucceeded());
+        assertEquals("ok-2", results.get(2).getUid());
+    }
+
+    @Test
+    public void addAllBoundsTheConcurrency() throws Exception {
+        CalDAVCollection collection = collection();
+        // the first PUTs wait for each other, so the pool has to run them at once
+        final CountDownLatch running = new CountDownLatch(3);
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> {
+                            running.countDown();
+                            try {
+                                running.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return FakeHttpClient.response(201, null);
+                        });
+        List<Calendar> calendars = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            calendars.add(calendar("uid-" + i));
+        }
+
+        List<BulkOperationResult> results = collection.addAll(client, calendars, 3);
+
+        assertEquals(10, results.size());
+        for (BulkOperationResult result : results) {
+            assertTrue(result.isSucceeded());
+        }
+        assertEquals(10, client.count("PUT"));
+        assertEquals(3, client.getMaxConcurrency());
+    }
+
+    @Test
+    public void deleteAllKeepsThePathOfFailures() throws Exception {
+        CalDAVCollection collection = collection();
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request ->
+                                request.getRequestLine().getUri().endsWith("/b.ics")
+                                        ? FakeHttpClient.response(404, null)
+                                        : FakeHttpClient.response(204, null));
+
+        List<BulkOperationResult> results =
+                collection.deleteAll(client, Arrays.asList("/cal/a.ics", "/cal/b.ics"), 2);
+
+        assertTrue(results.get(0).isSucceeded());
+        assertEquals("/cal/a.ics", results.get(0).getHref());
+        assertTrue(results.get(1).getError() instanceof ResourceNotFoundException);
+        assertEquals("/cal/b.ics", results.get(1).getHref());
+    }
+
+    @Test
+    public void deleteAllByUIDKeepsTheDeleteErrors() throws Exception {
+        CalDAVCollection collection = collection();
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> {
+                            String method = request.getRequestLine().getMethod();
+                            if ("REPORT".equals(method)) {
+                                return multistatus(
+                                        propstat(
+                                                "/cal/a.ics",
+                                                "\"1\"",
+                                                calendarData("uid-a", "A")),
+                                        propstat(
+                                                "/cal/b.ics",
+                                                "\"1\"",
+                                                calendarData("uid-b", "B")));
+                            }
+                            // b.ics changed since the query
+                            return request.getRequestLine().getUri().endsWith("/b.ics")
+                                    ? FakeHttpClient.response(412, null)
+                                    : FakeHttpClient.response(204, null);
+                        });
+
+        List<BulkOperationResult> results =
+                collection.deleteAllByUID(
+                        client, "VEVENT", Arrays.asList("uid-a", "uid-b", "uid-c"), 2, true);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSucceeded());
+        assertEquals("uid-a", results.get(0).getUid());
+
+        BulkOperationResult outOfDate = results.get(1);
+        assertEquals("uid-b", outOfDate.getUid());
+        assertEquals("/cal/b.ics", outOfDate.getHref());
+        assertTrue(outOfDate.getError() instanceof ResourceOutOfDateException);
+
+        assertEquals("uid-c", results.get(2).getUid());
+        assertTrue(results.get(2).getError() instanceof ResourceNotFoundException);
+
+        for (HttpRequest request : client.getRequests()) {
+            if ("DELETE".equals(request.getRequestLine().getMethod())) {
+                assertEquals("\"1\"", request.getFirstHeader("If-Match").getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.github.caldav4j;
+
+import static com.github.caldav4j.support.FakeHttpClient.multistatus;
+import static com.github.caldav4j.support.FakeHttpClient.notFound;
+import static com.github.caldav4j.support.FakeHttpClient.propstat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.github.caldav4j.cache.ConcurrentResourceCache;
+import com.github.caldav4j.cache.QueryResultCache;
+import com.github.caldav4j.exceptions.CalDAV4JException;
+import com.github.caldav4j.methods.CalDAV4JMethodFactory;
+import com.github.caldav4j.model.response.WarmUpListener;
+import com.github.caldav4j.model.response.WarmUpResult;
+import com.github.caldav4j.support.FakeHttpClient;
+import com.github.caldav4j.util.GenerateQuery;
+import com.github.caldav4j.util.ICalendarUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.property.Uid;
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests how the {@link CalDAVCollection} keeps its cache in line with the server */
+public class CalDAVCollectionCacheTest {
+
+    private CalDAVCollection collection;
+    private ConcurrentResourceCache cache;
+
+    static String calendarData(String uid, String summary) {
+        return "BEGIN:VCALENDAR\r\n"
+                + "VERSION:2.0\r\n"
+                + "PRODID:-//caldav4j//test//EN\r\n"
+                + "BEGIN:VEVENT\r\n"
+                + "UID:"
+                + uid
+                + "\r\n"
+                + "DTSTAMP:20200101T000000Z\r\n"
+                + "DTSTART:20200101T100000Z\r\n"
+                + "SUMMARY:"
+                + summary
+                + "\r\n"
+                + "END:VEVENT\r\n"
+                + "END:VCALENDAR\r\n";
+    }
+
+    static CalDAVResource resource(String href, String uid, String etag) {
+        VEvent event = new VEvent(new Date(), "Cached " + uid);
+        event.getProperties().add(new Uid(uid));
+        Calendar calendar = new Calendar();
+        calendar.getComponents().add(event);
+        return new CalDAVResource(calendar, etag, href);
+    }
+
+    static CalDAVCollection collection() {
+        return new CalDAVCollection(
+                "/cal/",
+                new HttpHost("localhost", 80, "http"),
+                new CalDAV4JMethodFactory(),
+                CalDAVConstants.PROC_ID_DEFAULT);
+    }
+
+    @Before
+    public void setUp() {
+        collection = collection();
+        cache = new ConcurrentResourceCache();
+        collection.setCache(cache);
+    }
+
+    @Test
+    public void queryResolvesAgainstTheCache() throws Exception {
+        CalDAVResource unchanged = resource(collection.getHref("/cal/1.ics"), "uid-1", "\"1\"");
+        cache.putResource(unchanged);
+        cache.putResource(resource(collection.getHref("/cal/2.ics"), "uid-2", "\"1\""));
+        cache.putResource(resource(collection.getHref("/cal/3.ics"), "uid-3", null));
+        cache.putResource(resource(collection.getHref("/cal/4.ics"), "uid-4", "\"1\""));
+
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> {
+                            String body = FakeHttpClient.body(request);
+                            if (body.contains("calendar-multiget")) {
+                                // 4.ics was deleted between the query and the multiget
+                                return multistatus(
+                                        propstat(
+                                                "/cal/2.ics",
+                                                "\"2\"",
+                                                calendarData("uid-2", "Changed")),
+                                        propstat(
+                                                "/cal/3.ics",
+                                                "\"1\"",
+                                                calendarData("uid-3", "Reloaded")),
+                                        notFound("/cal/4.ics"));
+                            }
+                            return multistatus(
+                                    propstat("/cal/1.ics", "\"1\"", null),
+                                    propstat("/cal/2.ics", "\"2\"", null),
+                                    propstat("/cal/3.ics", "\"1\"", null),
+                                    propstat("/cal/4.ics", "\"2\"", null));
+                        });
+
+        List<CalDAVResource> resources =
+                collection.getCalDAVResources(client, new GenerateQuery().generate());
+
+        assertEquals(3, resources.size());
+        // the frozen cached resource is replaced by a revalidated copy, rather than modified
+        CalDAVResource revalidated = resources.get(0);
+        assertSame(unchanged.getCalendar(), revalidated.getCalendar());
+        assertSame(revalidated, cache.getResource(collection.getHref("/cal/1.ics")));
+        assertTrue(revalidated.getResourceMetadata().getLastValidated() > 0);
+        assertEquals(0, unchanged.getResourceMetadata().getLastValidated());
+        assertEquals("Changed", summary(resources.get(1)));
+        // the cached resource without etag is reloaded
+        assertEquals("Reloaded", summary(resources.get(2)));
+        assertEquals(2, client.count("REPORT"));
+
+        // the fresh resources replace the cached ones, under the href they are looked up with
+        CalDAVResource changed = cache.getResource(collection.getHref("/cal/2.ics"));
+        assertEquals("\"2\"", changed.getResourceMetadata().getETag());
+        assertEquals(collection.getHref("/cal/2.ics"), changed.getResourceMetadata().getHref());
+        CalDAVResource reloaded = cache.getResource(collection.getHref("/cal/3.ics"));
+        assertEquals("\"1\"", reloaded.getResourceMetadata().getETag());
+        assertNull(cache.getResource(collection.getHref("/cal/4.ics")));
+
+        // so that the next query only fetches the resource missing from the cache
+        resources = collection.getCalDAVResources(client, new GenerateQuery().generate());
+        assertEquals(3, resources.size());
+        assertTrue(resources.get(1).isFrozen());
+        assertEquals(4, client.count("REPORT"));
+        String multiget = FakeHttpClient.body(client.getRequests().get(3));
+        assertTrue(multiget.contains("/cal/4.ics"));
+        assertFalse(multiget.contains("/cal/2.ics"));
+    }
+
+    @Test
+    public void deletedResourceIsRemovedFromTheCache() throws Exception {
+        cache.putResource(resource(collection.getHref("/cal/1.ics"), "uid-1", "\"0\""));
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> {
+                            String body = FakeHttpClient.body(request);
+                            if (body.contains("calendar-multiget")) {
+                                return multistatus(notFound("/cal/1.ics"));
+                            }
+                            return multistatus(propstat("/cal/1.ics", "\"1\"", null));
+                        });
+
+        List<CalDAVResource> resources =
+                collection.getCalDAVResources(client, new GenerateQuery().generate());
+        assertTrue(resources.isEmpty());
+        assertNull(cache.getResource(collection.getHref("/cal/1.ics")));
+    }
+
+    /** @return A {@code DAV:response} element holding the sync-token of the collection */
+    static String syncTokenPropstat(String href, String token) {
+        return "<D:response><D:href>"
+                + href
+                + "</D:href><D:propstat><D:prop><D:sync-token>"
+                + token
+                + "</D:sync-token></D:prop><D:status>HTTP/1.1 200 OK</D:status>"
+                + "</D:propstat></D:response>";
+    }
+
+    @Test
+    public void queryResultsAreRetainedWhileTheTagIsUnchanged() throws Exception {
+        final String[] tag = {"token-1"};
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> {
+                            if ("PROPFIND".equals(request.getRequestLine().getMethod())) {
+                                return multistatus(syncTokenPropstat("/cal/", tag[0]));
+                            }
+                            return multistatus(
+                                    propstat(
+                                            "/cal/1.ics",
+                                            "\"1\"",
+                                            calendarData("uid-1", "Event")));
+                        });
+        QueryResultCache queryResultCache = new QueryResultCache();
+        collection.setQueryResultCache(queryResultCache);
+
+        List<CalDAVResource> first =
+                collection.getCalDAVResources(client, new GenerateQuery().generate());
+        int reports = client.count("REPORT");
+        assertEquals(1, first.size());
+
+        // the tag is unchanged: only the PROPFIND is executed
+        List<CalDAVResource> second =
+                collection.getCalDAVResources(client, new GenerateQuery().generate());
+        assertEquals(reports, client.count("REPORT"));
+        assertEquals(2, client.count("PROPFIND"));
+        assertSame(first.get(0), second.get(0));
+        assertEquals(1, queryResultCache.getHitCount());
+
+        // the collection changed: the query is executed again
+        tag[0] = "token-2";
+        collection.getCalDAVResources(client, new GenerateQuery().generate());
+        assertEquals(reports + 1, client.count("REPORT"));
+        assertEquals(1, queryResultCache.getHitCount());
+
+        // another collection with the same tag does not get the retained results
+        CalDAVCollection other =
+                new CalDAVCollection(
+                        "/other/",
+                        new HttpHost("localhost", 80, "http"),
+                        new CalDAV4JMethodFactory(),
+                        CalDAVConstants.PROC_ID_DEFAULT);
+        other.setQueryResultCache(queryResultCache);
+        other.getCalDAVResources(client, new GenerateQuery().generate());
+        assertEquals(reports + 2, client.count("REPORT"));
+        assertEquals(1, queryResultCache.getHitCount());
+    }
+
+    @Test
+    public void warmCacheReplacesEntriesUnderTheirFullHref() throws Exception {
+        cache.putResource(resource(collection.getHref("/cal/1.ics"), "uid-1", "\"0\""));
+        CalDAVResource current = resource(collection.getHref("/cal/2.ics"), "uid-2", "\"1\"");
+        cache.putResource(current);
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> {
+                            String body = FakeHttpClient.body(request);
+                            if (body.contains("calendar-multiget")) {
+                                // the server answers with path-only hrefs
+                                return multistatus(
+                                        propstat(
+                                                "/cal/1.ics",
+                                                "\"1\"",
+                                                calendarData("uid-1", "Changed")),
+                                        propstat(
+                                                "/cal/3.ics",
+                                                "\"1\"",
+                                                calendarData("uid-3", "New")));
+                            }
+                            return multistatus(
+                                    propstat("/cal/1.ics", "\"1\"", null),
+                                    propstat("/cal/2.ics", "\"1\"", null),
+                                    propstat("/cal/3.ics", "\"1\"", null));
+                        });
+
+        WarmUpResult result = collection.warmCache(client, 2);
+
+        assertEquals(3, result.getListed());
+        assertEquals(1, result.getAlreadyCached());
+        assertEquals(2, result.getLoaded());
+        assertEquals(0, result.getFailed());
+        assertFalse(FakeHttpClient.body(client.getRequests().get(1)).contains("/cal/2.ics"));
+
+        // the stale entry is replaced rather than shadowed by a path-keyed one
+        assertEquals(3, cache.size());
+        CalDAVResource changed = cache.getResource(collection.getHref("/cal/1.ics"));
+        assertEquals("Changed", summary(changed));
+        assertEquals(collection.getHref("/cal/1.ics"), changed.getResourceMetadata().getHref());
+        assertEquals(collection.getHref("/cal/3.ics"), cache.getHrefForEventUID("uid-3"));
+        assertNull(cache.getResource("/cal/3.ics"));
+        assertSame(current, cache.getResource(collection.getHref("/cal/2.ics")));
+
+        // so that warming up again finds everything cached
+        result = collection.warmCache(client, 2);
+        assertEquals(3, result.getAlreadyCached());
+        assertEquals(0, result.getLoaded());
+        assertEquals(3, client.count("REPORT"));
+    }
+
+    @Test
+    public void warmCacheReportsFailedMultigets() throws Exception {
+        collection.setMultigetChunkSize(1);
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> {
+                            String body = FakeHttpClient.body(request);
+                            if (body.contains("/cal/2.ics")) {
+                                return FakeHttpClient.response(500, null);
+                            } else if (body.contains("calendar-multiget")) {
+                                return multistatus(
+                                        propstat(
+                                                "/cal/1.ics",
+                                                "\"1\"",
+                                                calendarData("uid-1", "Loaded")));
+                            }
+                            return multistatus(
+                                    propstat("/cal/1.ics", "\"1\"", null),
+                                    propstat("/cal/2.ics", "\"1\"", null));
+                        });
+        final List<List<String>> failed = new ArrayList<>();
+        WarmUpListener listener =
+                new WarmUpListener() {
+                    @Override
+                    public void progress(int loaded, int total) {}
+
+                    @Override
+                    public void failed(List<String> hrefs, CalDAV4JException error) {
+                        failed.add(hrefs);
+                    }
+                };
+
+        WarmUpResult result = collection.warmCache(client, 1, listener);
+
+        assertEquals(1, result.getLoaded());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(Collections.singletonList(Collections.singletonList("/cal/2.ics")), failed);
+        assertEquals("Loaded", summary(cache.getResource(collection.getHref("/cal/1.ics"))));
+        assertNull(cache.getResource(collection.getHref("/cal/2.ics")));
+    }
+
+    /** Answers GETs of /cal/1.ics, whose current ETag is "2", honouring If-None-Match */
+    static FakeHttpClient conditionalGetClient() {
+        return new FakeHttpClient(
+                request -> {
+                    Header ifNoneMatch = request.getFirstHeader("If-None-Match");
+                    if (ifNoneMatch != null && "\"2\"".equals(ifNoneMatch.getValue())) {
+                        return FakeHttpClient.response(304, null, "ETag", "\"2\"");
+                    }
+                    return FakeHttpClient.response(
+                            200, calendarData("uid-1", "Current"), "ETag", "\"2\"");
+                });
+    }
+
+    @Test
+    public void conditionalGetNotModified() throws Exception {
+        CalDAVResource cached = resource(collection.getHref("/cal/1.ics"), "uid-1", "\"2\"");
+        cache.putResource(cached);
+        FakeHttpClient client = conditionalGetClient();
+
+        CalDAVResource resource = collection.getCalDAVResource(client, "/cal/1.ics");
+
+        assertEquals(1, client.count("GET"));
+        Header ifNoneMatch = client.getRequests().get(0).getFirstHeader("If-None-Match");
+        assertEquals("\"2\"", ifNoneMatch.getValue());
+        assertSame(cached.getCalendar(), resource.getCalendar());
+        assertEquals("\"2\"", resource.getResourceMetadata().getETag());
+        assertEquals(1, cache.getStatistics().getRevalidationMatchedCount());
+        // the revalidated copy replaces the frozen cached resource
+        assertSame(resource, cache.getResource(collection.getHref("/cal/1.ics")));
+        assertTrue(resource.getResourceMetadata().getLastValidated() > 0);
+        assertEquals(0, cached.getResourceMetadata().getLastValidated());
+    }
+
+    @Test
+    public void conditionalGetModified() throws Exception {
+        cache.putResource(resource(collection.getHref("/cal/1.ics"), "uid-1", "\"1\""));
+        FakeHttpClient client = conditionalGetClient();
+
+        CalDAVResource resource = collection.getCalDAVResource(client, "/cal/1.ics");
+
+        Header ifNoneMatch = client.getRequests().get(0).getFirstHeader("If-None-Match");
+        assertEquals("\"1\"", ifNoneMatch.getValue());
+        assertEquals("Current", summary(resource));
+        assertEquals("\"2\"", resource.getResourceMetadata().getETag());
+        CalDAVResource replaced = cache.getResource(collection.getHref("/cal/1.ics"));
+        assertEquals("Current", summary(replaced));
+        assertEquals(1, cache.getStatistics().getRevalidationChangedCount());
+    }
+
+    @Test
+    public void uncachedGetIsUnconditional() throws Exception {
+        FakeHttpClient client = conditionalGetClient();
+
+        CalDAVResource resource = collection.getCalDAVResource(client, "/cal/1.ics");
+
+        assertNull(client.getRequests().get(0).getFirstHeader("If-None-Match"));
+        assertEquals("Current", summary(resource));
+        assertSame(resource, cache.getResource(collection.getHref("/cal/1.ics")));
+    }
+
+    @Test
+    public void staleWithinMaxStaleIsRevalidatedInBackground() throws Exception {
+        CalDAVResource cached =
+                resource(collection.getHref("/cal/1.ics"), "uid-1", "\"1\"")
+                        .revalidated(System.currentTimeMillis());
+        cache.putResource(cached);
+        List<Runnable> revalidations = new ArrayList<>();
+        collection.setMaxStale(1, TimeUnit.MINUTES);
+        collection.setRevalidationExecutor(revalidations::add);
+        FakeHttpClient client = conditionalGetClient();
+
+        // the cached copy is returned at once
+        CalDAVResource resource = collection.getCalDAVResource(client, "/cal/1.ics");
+        assertSame(cached, resource);
+        assertEquals(0, client.count("GET"));
+        assertEquals(1, revalidations.size());
+
+        revalidations.get(0).run();
+        assertEquals(1, client.count("GET"));
+        assertEquals("Current", summary(cache.getResource(collection.getHref("/cal/1.ics"))));
+    }
+
+    @Test
+    public void resourceOlderThanMaxStaleIsRevalidatedAtOnce() throws Exception {
+        CalDAVResource cached = resource(collection.getHref("/cal/1.ics"), "uid-1", "\"2\"");
+        cache.putResource(cached.revalidated(System.currentTimeMillis() - 120_000));
+        List<Runnable> revalidations = new ArrayList<>();
+        collection.setMaxStale(1, TimeUnit.MINUTES);
+        collection.setRevalidationExecutor(revalidations::add);
+        FakeHttpClient client = conditionalGetClient();
+
+        CalDAVResource resource = collection.getCalDAVResource(client, "/cal/1.ics");
+
+        assertEquals(1, client.count("GET"));
+        assertTrue(revalidations.isEmpty());
+        assertSame(cached.getCalendar(), resource.getCalendar());
+        assertSame(resource, cache.getResource(collection.getHref("/cal/1.ics")));
+    }
+
+    @Test
+    public void concurrentBackgroundRevalidationsAreDeduplicated() throws Exception {
+        CalDAVResource cached = resource(collection.getHref("/cal/1.ics"), "uid-1", "\"2\"");
+        cache.putResource(cached);
+        List<Runnable> revalidations = new ArrayList<>();
+        collection.setRevalidationExecutor(revalidations::add);
+        FakeHttpClient client = conditionalGetClient();
+
+        CompletableFuture<CalDAVResource> first =
+                collection.revalidateInBackground(client, "/cal/1.ics", cached);
+        CompletableFuture<CalDAVResource> second =
+                collection.revalidateInBackground(client, "/cal/1.ics", cached);
+
+        assertSame(first, second);
+        assertEquals(1, revalidations.size());
+        revalidations.get(0).run();
+        assertEquals(1, client.count("GET"));
+        assertSame(cached.getCalendar(), first.get().getCalendar());
+        assertSame(first.get(), cache.getResource(collection.getHref("/cal/1.ics")));
+
+        // once completed, the next revalidation runs again
+        CompletableFuture<CalDAVResource> third =
+                collection.revalidateInBackground(client, "/cal/1.ics", cached);
+        assertNotSame(first, third);
+        assertEquals(2, revalidations.size());
+    }
+
+    static String summary(CalDAVResource resource) {
+        return ICalendarUtils.getSummaryValue(
+                (VEvent) resource.getCalendar().getComponent(VEvent.VEVENT));
+    }
+}
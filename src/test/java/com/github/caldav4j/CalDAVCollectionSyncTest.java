@@ -0,0 +1,163 @@
+package com.github.caldav4j;
+
+import static com.github.caldav4j.CalDAVCollectionCacheTest.calendarData;
+import static com.github.caldav4j.CalDAVCollectionCacheTest.collection;
+import static com.github.caldav4j.CalDAVCollectionCacheTest.resource;
+import static com.github.caldav4j.support.FakeHttpClient.multistatus;
+import static com.github.caldav4j.support.FakeHttpClient.notFound;
+import static com.github.caldav4j.support.FakeHttpClient.propstat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.github.caldav4j.cache.ConcurrentResourceCache;
+import com.github.caldav4j.exceptions.CalDAV4JException;
+import com.github.caldav4j.model.response.SyncResult;
+import com.github.caldav4j.support.FakeHttpClient;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+/** Tests the {@code DAV:sync-collection} synchronization of the {@link CalDAVCollection} */
+public class CalDAVCollectionSyncTest {
+
+    private static final String TRUNCATED =
+            "<D:response><D:href>/cal/</D:href>"
+                    + "<D:status>HTTP/1.1 507 Insufficient Storage</D:status></D:response>";
+
+    private static String syncToken(String token) {
+        return "<D:sync-token>" + token + "</D:sync-token>";
+    }
+
+    private static String error(String precondition) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?><D:error xmlns:D=\"DAV:\"><D:"
+                + precondition
+                + "/></D:error>";
+    }
+
+    @Test
+    public void truncatedSyncContinuesFromTheNewToken() throws Exception {
+        CalDAVCollection collection = collection();
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> {
+                            String body = FakeHttpClient.body(request);
+                            if (body.contains("calendar-multiget")) {
+                                return multistatus(
+                                        propstat("/cal/a.ics", "\"1\"", calendarData("a", "A")),
+                                        propstat("/cal/b.ics", "\"2\"", calendarData("b", "B")));
+                            } else if (body.contains("token-1")) {
+                                return multistatus(
+                                        propstat("/cal/b.ics", "\"2\"", null),
+                                        propstat("/cal/a.ics", "\"1\"", null),
+                                        syncToken("token-2"));
+                            }
+                            return multistatus(
+                                    propstat("/cal/a.ics", "\"1\"", null),
+                                    TRUNCATED,
+                                    syncToken("token-1"));
+                        });
+
+        SyncResult result = collection.sync(client);
+
+        assertTrue(result.isInitial());
+        assertFalse(result.isTruncated());
+        assertEquals(
+                Arrays.asList(collection.getHref("/cal/a.ics"), collection.getHref("/cal/b.ics")),
+                result.getAdded());
+        assertTrue(result.getChanged().isEmpty());
+        assertTrue(result.getRemoved().isEmpty());
+        assertEquals(2, result.getResources().size());
+        // members and resources are matched by href
+        for (CalDAVResource resource : result.getResources()) {
+            assertTrue(result.getAdded().contains(resource.getResourceMetadata().getHref()));
+        }
+        assertEquals("token-2", collection.getSyncToken());
+        // two sync-collection reports and one multiget
+        assertEquals(3, client.count("REPORT"));
+    }
+
+    @Test
+    public void truncatedSyncWithoutNewTokenStops() throws Exception {
+        CalDAVCollection collection = collection();
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> {
+                            String body = FakeHttpClient.body(request);
+                            if (body.contains("calendar-multiget")) {
+                                return multistatus(
+                                        propstat("/cal/a.ics", "\"1\"", calendarData("a", "A")));
+                            }
+                            return multistatus(
+                                    propstat("/cal/a.ics", "\"1\"", null),
+                                    TRUNCATED,
+                                    syncToken("token-1"));
+                        });
+        collection.setSyncToken("token-1");
+
+        SyncResult result = collection.sync(client);
+
+        assertTrue(result.isTruncated());
+        assertEquals(
+                Collections.singletonList(collection.getHref("/cal/a.ics")), result.getAdded());
+        assertEquals(2, client.count("REPORT"));
+    }
+
+    @Test
+    public void invalidTokenFallsBackToInitialSync() throws Exception {
+        CalDAVCollection collection = collection();
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> {
+                            String body = FakeHttpClient.body(request);
+                            if (body.contains("expired")) {
+                                return FakeHttpClient.response(403, error("valid-sync-token"));
+                            }
+                            return multistatus(syncToken("token-1"));
+                        });
+        collection.setSyncToken("expired");
+
+        SyncResult result = collection.sync(client);
+
+        assertTrue(result.isInitial());
+        assertEquals("token-1", collection.getSyncToken());
+    }
+
+    @Test
+    public void otherForbiddenErrorsAreThrown() throws Exception {
+        CalDAVCollection collection = collection();
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> FakeHttpClient.response(403, error("need-privileges")));
+        collection.setSyncToken("token-1");
+
+        try {
+            collection.sync(client);
+            fail("The synchronization should fail");
+        } catch (CalDAV4JException expected) {
+            // not retried as an initial synchronization
+            assertEquals(1, client.count("REPORT"));
+            assertEquals("token-1", collection.getSyncToken());
+        }
+    }
+
+    @Test
+    public void removedMembersAreEvictedFromTheCache() throws Exception {
+        CalDAVCollection collection = collection();
+        ConcurrentResourceCache cache = new ConcurrentResourceCache();
+        collection.setCache(cache);
+        cache.putResource(resource(collection.getHref("/cal/a.ics"), "a", "\"1\""));
+        FakeHttpClient client =
+                new FakeHttpClient(
+                        request -> multistatus(notFound("/cal/a.ics"), syncToken("token-2")));
+        collection.setSyncToken("token-1");
+
+        SyncResult result = collection.sync(client);
+
+        assertEquals(
+                Collections.singletonList(collection.getHref("/cal/a.ics")), result.getRemoved());
+        assertNull(cache.getResource(collection.getHref("/cal/a.ics")));
+    }
+}
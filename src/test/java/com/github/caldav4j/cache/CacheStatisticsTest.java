@@ -0,0 +1,75 @@
+package com.github.caldav4j.cache;
+
+import static com.github.caldav4j.cache.ConcurrentResourceCacheTest.resource;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Test;
+
+/** Tests the {@link CacheStatistics} */
+public class CacheStatisticsTest {
+
+    @Test
+    public void countLookupsAndEvictions() {
+        ConcurrentResourceCache cache = new ConcurrentResourceCache(2, 0, TimeUnit.SECONDS);
+        CacheStatistics statistics = cache.getStatistics();
+
+        cache.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+        cache.getResource("/cal/1.ics");
+        cache.getResource("/cal/1.ics");
+        cache.getResource("/cal/2.ics");
+        cache.getHrefForEventUID("uid-1");
+        cache.getHrefForEventUID("uid-2");
+
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(2.0 / 3, statistics.getHitRatio(), 0.001);
+        assertEquals(1, statistics.getUidHitCount());
+        assertEquals(1, statistics.getUidMissCount());
+
+        cache.putResource(resource("/cal/2.ics", "uid-2", "\"1\""));
+        cache.putResource(resource("/cal/3.ics", "uid-3", "\"1\""));
+        assertEquals(1, statistics.getEvictionCount());
+        assertEquals(2, statistics.getSize());
+        assertEquals(-1, statistics.getBytesHeld());
+
+        statistics.reset();
+        assertEquals(0, statistics.getHitCount());
+        assertEquals(0, statistics.getHitRatio(), 0);
+    }
+
+    @Test
+    public void revalidationsAndLoads() {
+        CacheStatistics statistics = new CacheStatistics();
+        statistics.recordRevalidation(true);
+        statistics.recordRevalidation(true);
+        statistics.recordRevalidation(false);
+        statistics.recordLoad(4, TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertEquals(2, statistics.getRevalidationMatchedCount());
+        assertEquals(1, statistics.getRevalidationChangedCount());
+        assertEquals(4, statistics.getLoadCount());
+        assertEquals(5.0, statistics.getAverageLoadMillis(), 0.001);
+    }
+
+    @Test
+    public void registerWithJmx() throws Exception {
+        CacheStatistics statistics = new CacheStatistics();
+        statistics.recordHit();
+        statistics.register("/calendars/test/");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = statistics.getObjectName();
+        try {
+            assertEquals(1L, server.getAttribute(name, "HitCount"));
+        } finally {
+            statistics.unregister();
+        }
+        assertFalse(server.isRegistered(name));
+        assertNull(statistics.getObjectName());
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.caldav4j.cache;
+
+import static com.github.caldav4j.cache.ConcurrentResourceCacheTest.resource;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.github.caldav4j.CalDAVResource;
+import com.github.caldav4j.util.ICalendarUtils;
+import java.util.concurrent.TimeUnit;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.property.Description;
+import org.junit.Test;
+
+/** Tests the {@link CompactCalDAVResource} and {@link CompactResourceCache} */
+public class CompactCalDAVResourceTest {
+
+    @Test
+    public void parsesStoredText() {
+        CalDAVResource original = resource("/cal/1.ics", "uid-1", "\"1\"");
+        String text = original.getCalendar().toString();
+
+        CompactCalDAVResource compact =
+                new CompactCalDAVResource(text, "\"1\"", "/cal/1.ics", true);
+        assertEquals(text, compact.getCalendarData());
+        assertEquals("\"1\"", compact.getResourceMetadata().getETag());
+        assertEquals(text.length(), compact.getResourceMetadata().getContentLength());
+
+        Calendar calendar = compact.getCalendar();
+        assertNotNull(calendar);
+        assertSame("Parsed copy must be kept", calendar, compact.getCalendar());
+        VEvent event = ICalendarUtils.getFirstEvent(calendar);
+        assertEquals("uid-1", ICalendarUtils.getUIDValue(event));
+    }
+
+    @Test
+    public void compressRepeatedText() {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            description.append("Weekly meeting of the team. ");
+        }
+        CalDAVResource original = resource("/cal/1.ics", "uid-1", "\"1\"");
+        VEvent event = ICalendarUtils.getFirstEvent(original.getCalendar());
+        ICalendarUtils.addOrReplaceProperty(event, new Description(description.toString()));
+
+        CompactCalDAVResource plain = CompactCalDAVResource.of(original, false);
+        CompactCalDAVResource compressed = CompactCalDAVResource.of(original, true);
+
+        assertTrue(compressed.getStoredSize() * 4 < plain.getStoredSize());
+        assertEquals(plain.getCalendarData(), compressed.getCalendarData());
+    }
+
+    @Test
+    public void setCalendarReplacesText() {
+        CompactCalDAVResource compact =
+                CompactCalDAVResource.of(resource("/cal/1.ics", "uid-1", "\"1\""), true);
+        compact.setCalendar(null);
+        assertNull(compact.getCalendar());
+        assertNull(compact.getCalendarData());
+        assertEquals(0, compact.getStoredSize());
+    }
+
+    @Test
+    public void cacheStoresCompactResources() throws Exception {
+        ConcurrentResourceCache delegate =
+                new ConcurrentResourceCache(
+                        100, 100000, ResourceWeigher.DEFAULT, 0, TimeUnit.SECONDS);
+        CompactResourceCache cache = new CompactResourceCache(delegate, true);
+        cache.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+
+        CalDAVResource cached = cache.getResource("/cal/1.ics");
+        assertTrue(cached instanceof CompactCalDAVResource);
+        assertEquals("/cal/1.ics", cache.getHrefForEventUID("uid-1"));
+        assertEquals(
+                ResourceWeigher.ENTRY_OVERHEAD + ((CompactCalDAVResource) cached).getStoredSize(),
+                delegate.getWeight());
+    }
+}
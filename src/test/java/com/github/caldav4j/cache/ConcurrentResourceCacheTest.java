@@ -0,0 +1,247 @@
+package com.github.caldav4j.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.github.caldav4j.CalDAVResource;
+import com.github.caldav4j.ResourceMetadata;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.component.VToDo;
+import net.fortuna.ical4j.model.property.RecurrenceId;
+import net.fortuna.ical4j.model.property.Uid;
+import org.junit.Test;
+
+/** Tests the {@link ConcurrentResourceCache} */
+public class ConcurrentResourceCacheTest {
+
+    static CalDAVResource resource(String href, String uid, String etag) {
+        VEvent event = new VEvent(new Date(), "Event " + uid);
+        event.getProperties().add(new Uid(uid));
+        Calendar calendar = new Calendar();
+        calendar.getComponents().add(event);
+        return new CalDAVResource(calendar, etag, href);
+    }
+
+    @Test
+    public void putGetRemove() {
+        ConcurrentResourceCache cache = new ConcurrentResourceCache();
+        CalDAVResource resource = resource("/cal/1.ics", "uid-1", "\"1\"");
+        cache.putResource(resource);
+
+        assertSame(resource, cache.getResource("/cal/1.ics"));
+        assertSame(resource, cache.getResource("http://example.com//cal/1.ics"));
+        assertEquals("/cal/1.ics", cache.getHrefForEventUID("uid-1"));
+
+        cache.removeResource("/cal/1.ics");
+        assertNull(cache.getResource("/cal/1.ics"));
+        assertNull(cache.getHrefForEventUID("uid-1"));
+    }
+
+    @Test
+    public void removeByFullHref() {
+        ConcurrentResourceCache cache = new ConcurrentResourceCache();
+        cache.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+        cache.putResource(resource("http://example.com/cal/2.ics", "uid-2", "\"1\""));
+
+        // the path-keyed resource is found, thus removed, by its full href
+        cache.removeResource("http://example.com//cal/1.ics");
+        assertNull(cache.getResource("http://example.com/cal/1.ics"));
+        assertNull(cache.getResource("/cal/1.ics"));
+        assertNull(cache.getHrefForEventUID("uid-1"));
+
+        cache.removeResource("http://example.com/cal/2.ics");
+        assertNull(cache.getResource("http://example.com/cal/2.ics"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void replaceUpdatesUidIndex() {
+        ConcurrentResourceCache cache = new ConcurrentResourceCache();
+        cache.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+        cache.putResource(resource("/cal/1.ics", "uid-2", "\"2\""));
+
+        assertNull(cache.getHrefForEventUID("uid-1"));
+        assertEquals("/cal/1.ics", cache.getHrefForEventUID("uid-2"));
+        assertEquals("\"2\"", cache.getResource("/cal/1.ics").getResourceMetadata().getETag());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void cachedResourcesAreFrozen() {
+        ConcurrentResourceCache cache = new ConcurrentResourceCache();
+        CalDAVResource resource = resource("/cal/1.ics", "uid-1", "\"1\"");
+        cache.putResource(resource);
+
+        assertTrue(resource.isFrozen());
+        resource.setCalendar(new Calendar());
+    }
+
+    @Test
+    public void cachedMetadataIsFrozen() {
+        ConcurrentResourceCache cache = new ConcurrentResourceCache();
+        CalDAVResource resource = resource("/cal/1.ics", "uid-1", "\"1\"");
+        cache.putResource(resource);
+
+        ResourceMetadata metadata = cache.getResource("/cal/1.ics").getResourceMetadata();
+        assertTrue(metadata.isFrozen());
+        try {
+            metadata.setETag("\"2\"");
+            fail("The metadata of a cached resource should be read-only");
+        } catch (UnsupportedOperationException expected) {
+            assertEquals("\"1\"", metadata.getETag());
+        }
+        try {
+            metadata.setLastValidated(System.currentTimeMillis());
+            fail("The metadata of a cached resource should be read-only");
+        } catch (UnsupportedOperationException expected) {
+            assertEquals(0, metadata.getLastValidated());
+        }
+
+        // the revalidated copy is not frozen until cached
+        CalDAVResource copy = resource.revalidated(1);
+        assertFalse(copy.getResourceMetadata().isFrozen());
+        assertEquals(1, copy.getResourceMetadata().getLastValidated());
+    }
+
+    @Test
+    public void indexAllComponents() throws Exception {
+        VToDo todo = new VToDo(new Date(), "Todo");
+        todo.getProperties().add(new Uid("todo-1"));
+        VEvent override = new VEvent(new Date(), "Override");
+        override.getProperties().add(new Uid("event-1"));
+        RecurrenceId recurrenceId = new RecurrenceId(new Date("20200101"));
+        override.getProperties().add(recurrenceId);
+        Calendar calendar = new Calendar();
+        calendar.getComponents().add(todo);
+        calendar.getComponents().add(override);
+
+        ConcurrentResourceCache cache = new ConcurrentResourceCache();
+        cache.putResource(new CalDAVResource(calendar, "\"1\"", "/cal/1.ics"));
+
+        assertEquals("/cal/1.ics", cache.getHrefForUID(Component.VTODO, "todo-1"));
+        assertEquals("/cal/1.ics", cache.getHrefForEventUID("event-1"));
+        assertEquals(
+                "/cal/1.ics",
+                cache.getHrefForUID(Component.VEVENT, "event-1", recurrenceId.getValue()));
+        assertNull(cache.getHrefForUID(Component.VEVENT, "event-1", "20200102"));
+        assertNull(cache.getHrefForUID(Component.VJOURNAL, "todo-1"));
+
+        cache.removeResource("/cal/1.ics");
+        assertNull(cache.getHrefForUID(Component.VTODO, "todo-1"));
+        assertNull(cache.getHrefForUID(Component.VEVENT, "event-1", recurrenceId.getValue()));
+    }
+
+    @Test
+    public void evictUnreferencedFirst() {
+        ConcurrentResourceCache cache = new ConcurrentResourceCache(10, 0, TimeUnit.SECONDS);
+        for (int i = 0; i < 10; i++) {
+            cache.putResource(resource("/cal/" + i + ".ics", "uid-" + i, "\"1\""));
+        }
+        cache.getResource("/cal/0.ics");
+        for (int i = 10; i < 20; i++) {
+            cache.putResource(resource("/cal/" + i + ".ics", "uid-" + i, "\"1\""));
+        }
+
+        assertEquals(10, cache.size());
+        assertNotNull("Referenced entry must survive", cache.getResource("/cal/0.ics"));
+        assertNull(cache.getResource("/cal/1.ics"));
+        assertNull(cache.getHrefForEventUID("uid-1"));
+    }
+
+    @Test
+    public void evictByWeight() {
+        ConcurrentResourceCache cache =
+                new ConcurrentResourceCache(
+                        100,
+                        10000,
+                        r -> r.getResourceMetadata().getContentLength(),
+                        0,
+                        TimeUnit.SECONDS);
+        for (int i = 0; i < 10; i++) {
+            CalDAVResource small = resource("/cal/" + i + ".ics", "uid-" + i, "\"1\"");
+            small.getResourceMetadata().setContentLength(500);
+            cache.putResource(small);
+        }
+        assertEquals(10, cache.size());
+        assertEquals(5000, cache.getWeight());
+
+        CalDAVResource large = resource("/cal/large.ics", "uid-large", "\"1\"");
+        large.getResourceMetadata().setContentLength(8000);
+        cache.putResource(large);
+
+        assertTrue(cache.getWeight() <= 10000);
+        assertEquals(5, cache.size());
+        assertNotNull(cache.getResource("/cal/large.ics"));
+
+        cache.removeResource("/cal/large.ics");
+        assertEquals(2000, cache.getWeight());
+    }
+
+    @Test
+    public void expire() throws InterruptedException {
+        ConcurrentResourceCache cache = new ConcurrentResourceCache(10, 1, TimeUnit.MILLISECONDS);
+        cache.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+        Thread.sleep(10);
+
+        assertNull(cache.getResource("/cal/1.ics"));
+        assertNull(cache.getHrefForEventUID("uid-1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void indexesConsistentUnderConcurrency() throws Exception {
+        final ConcurrentResourceCache cache =
+                new ConcurrentResourceCache(50, 0, TimeUnit.SECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    for (int i = 0; i < 2000; i++) {
+                                        int n = (i * 31 + thread) % 100;
+                                        String href = "/cal/" + n + ".ics";
+                                        if (i % 5 == 0) {
+                                            cache.removeResource(href);
+                                        } else {
+                                            cache.putResource(
+                                                    resource(href, "uid-" + n, "\"" + i + "\""));
+                                        }
+                                        cache.getResource("/cal/" + (i % 100) + ".ics");
+                                    }
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // one more put runs the eviction left to the last writer
+        cache.putResource(resource("/cal/0.ics", "uid-0", "\"0\""));
+        assertTrue(cache.size() <= 50);
+        for (int n = 0; n < 100; n++) {
+            String href = cache.getHrefForEventUID("uid-" + n);
+            if (href != null) {
+                assertEquals("/cal/" + n + ".ics", href);
+                assertNotNull(cache.getResource(href));
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.caldav4j.cache;
+
+import static com.github.caldav4j.cache.ConcurrentResourceCacheTest.resource;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.github.caldav4j.CalDAVResource;
+import com.github.caldav4j.util.ICalendarUtils;
+import java.io.File;
+import java.io.RandomAccessFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests the {@link MappedFileResourceCache} */
+public class MappedFileResourceCacheTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void survivesRestart() throws Exception {
+        File file = new File(folder.getRoot(), "resources.cache");
+        try (MappedFileResourceCache cache = new MappedFileResourceCache(file, 64, 1 << 20)) {
+            for (int i = 0; i < 20; i++) {
+                cache.putResource(resource("/cal/" + i + ".ics", "uid-" + i, "\"" + i + "\""));
+            }
+            cache.putResource(resource("/cal/1.ics", "uid-1", "\"updated\""));
+            cache.removeResource("/cal/2.ics");
+        }
+
+        try (MappedFileResourceCache cache = new MappedFileResourceCache(file)) {
+            assertEquals(19, cache.size());
+            CalDAVResource resource = cache.getResource("/cal/1.ics");
+            assertEquals("\"updated\"", resource.getResourceMetadata().getETag());
+            assertEquals("uid-1", ICalendarUtils.getUIDValue(resource.getCalendar()));
+            assertEquals("/cal/5.ics", cache.getHrefForEventUID("uid-5"));
+
+            assertNull(cache.getResource("/cal/2.ics"));
+            assertNull(cache.getHrefForEventUID("uid-2"));
+        }
+    }
+
+    @Test
+    public void compact() throws Exception {
+        File file = new File(folder.getRoot(), "resources.cache");
+        try (MappedFileResourceCache cache =
+                new MappedFileResourceCache(file, 64, Long.MAX_VALUE)) {
+            for (int i = 0; i < 100; i++) {
+                cache.putResource(
+                        resource("/cal/" + (i % 10) + ".ics", "uid-" + (i % 10), "\"1\""));
+            }
+            long used = cache.getUsedBytes();
+            assertTrue(cache.getDeadBytes() > 0);
+
+            cache.compact();
+            assertEquals(0, cache.getDeadBytes());
+            assertTrue(cache.getUsedBytes() < used / 5);
+            assertEquals(10, cache.size());
+            assertEquals("/cal/3.ics", cache.getHrefForEventUID("uid-3"));
+            assertEquals("\"1\"", cache.getResource("/cal/3.ics").getResourceMetadata().getETag());
+        }
+    }
+
+    @Test
+    public void ignoreCorruptedTail() throws Exception {
+        File file = new File(folder.getRoot(), "resources.cache");
+        long end;
+        try (MappedFileResourceCache cache = new MappedFileResourceCache(file)) {
+            cache.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+            end = cache.getUsedBytes();
+            cache.putResource(resource("/cal/2.ics", "uid-2", "\"1\""));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // checksum of the second record
+            raf.seek(end + 4);
+            raf.writeInt(0);
+        }
+
+        try (MappedFileResourceCache cache = new MappedFileResourceCache(file)) {
+            assertEquals(1, cache.size());
+            assertNull(cache.getResource("/cal/2.ics"));
+
+            cache.putResource(resource("/cal/3.ics", "uid-3", "\"1\""));
+            assertEquals("/cal/3.ics", cache.getHrefForEventUID("uid-3"));
+        }
+    }
+
+    @Test
+    public void removeByFullHref() throws Exception {
+        File file = new File(folder.getRoot(), "resources.cache");
+        try (MappedFileResourceCache cache = new MappedFileResourceCache(file)) {
+            cache.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+            CalDAVResource resource = cache.getResource("http://localhost//cal/1.ics");
+            assertEquals("\"1\"", resource.getResourceMetadata().getETag());
+
+            cache.removeResource("http://localhost//cal/1.ics");
+            assertEquals(0, cache.size());
+            assertNull(cache.getResource("/cal/1.ics"));
+        }
+    }
+
+    @Test
+    public void readsReuseTheParsedCalendar() throws Exception {
+        File file = new File(folder.getRoot(), "resources.cache");
+        try (MappedFileResourceCache cache = new MappedFileResourceCache(file)) {
+            cache.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+
+            CalDAVResource first = cache.getResource("/cal/1.ics");
+            assertTrue(first.isFrozen());
+            CalDAVResource second = cache.getResource("/cal/1.ics");
+            assertSame(first, second);
+            assertSame(first.getCalendar(), second.getCalendar());
+
+            // a replaced resource is read again
+            cache.putResource(resource("/cal/1.ics", "uid-1", "\"2\""));
+            CalDAVResource replaced = cache.getResource("/cal/1.ics");
+            assertNotSame(first, replaced);
+            assertEquals("\"2\"", replaced.getResourceMetadata().getETag());
+        }
+    }
+}
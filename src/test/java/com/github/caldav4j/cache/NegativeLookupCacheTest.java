@@ -0,0 +1,65 @@
+package com.github.caldav4j.cache;
+
+import static com.github.caldav4j.cache.ConcurrentResourceCacheTest.resource;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import net.fortuna.ical4j.model.Component;
+import org.junit.Test;
+
+/** Tests the {@link NegativeLookupCache} */
+public class NegativeLookupCacheTest {
+
+    @Test
+    public void expireAfterTimeToLive() throws Exception {
+        NegativeLookupCache cache = new NegativeLookupCache(10, 50, TimeUnit.MILLISECONDS);
+        String key = NegativeLookupCache.uidKey(Component.VEVENT, "uid-1");
+        cache.putNotFound(key);
+        assertTrue(cache.isNotFound(key));
+        assertEquals(1, cache.getHitCount());
+
+        Thread.sleep(100);
+        assertFalse(cache.isNotFound(key));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        NegativeLookupCache cache = new NegativeLookupCache(2, 1, TimeUnit.MINUTES);
+        cache.putNotFound("a");
+        cache.putNotFound("b");
+        cache.isNotFound("a");
+        cache.putNotFound("c");
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.isNotFound("a"));
+        assertFalse(cache.isNotFound("b"));
+    }
+
+    @Test
+    public void pathKeyIgnoresHost() {
+        assertEquals(
+                NegativeLookupCache.pathKey("/cal/1.ics"),
+                NegativeLookupCache.pathKey("http://localhost:8080/cal//1.ics"));
+    }
+
+    @Test
+    public void invalidateCreatedResource() {
+        NegativeLookupCache cache = new NegativeLookupCache();
+        String uidKey = NegativeLookupCache.uidKey(Component.VEVENT, "uid-1");
+        String pathKey = NegativeLookupCache.pathKey("/cal/1.ics");
+        cache.putNotFound(uidKey);
+        cache.putNotFound(pathKey);
+        cache.putNotFound(NegativeLookupCache.uidKey(Component.VEVENT, "uid-2"));
+
+        cache.invalidate(
+                resource("/cal/1.ics", "uid-1", "\"1\"").getCalendar(),
+                "http://localhost/cal/1.ics");
+
+        assertFalse(cache.isNotFound(uidKey));
+        assertFalse(cache.isNotFound(pathKey));
+        assertEquals(1, cache.size());
+    }
+}
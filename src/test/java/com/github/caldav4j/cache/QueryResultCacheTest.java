@@ -0,0 +1,61 @@
+package com.github.caldav4j.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.github.caldav4j.CalDAVResource;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/** Tests the {@link QueryResultCache} */
+public class QueryResultCacheTest {
+
+    private static List<CalDAVResource> results(String href) {
+        return Collections.singletonList(new CalDAVResource(null, "\"1\"", href));
+    }
+
+    @Test
+    public void answerWhileTagUnchanged() {
+        QueryResultCache cache = new QueryResultCache();
+        assertNull(cache.get("/cal/", "query", "ctag-1"));
+
+        cache.put("/cal/", "query", "ctag-1", results("/cal/1.ics"));
+        assertNotNull(cache.get("/cal/", "query", "ctag-1"));
+        assertNull(cache.get("/cal/", "query", "ctag-2"));
+        assertNull(cache.get("/cal/", "other query", "ctag-1"));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void collectionsWithTheSameTagAreKeptApart() {
+        QueryResultCache cache = new QueryResultCache();
+        cache.put("http://localhost/a/", "query", "1", results("/a/1.ics"));
+
+        assertNull(cache.get("http://localhost/b/", "query", "1"));
+        cache.put("http://localhost/b/", "query", "1", results("/b/1.ics"));
+        assertEquals(
+                "/a/1.ics",
+                cache.get("http://localhost/a/", "query", "1")
+                        .get(0)
+                        .getResourceMetadata()
+                        .getHref());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        QueryResultCache cache = new QueryResultCache(2);
+        cache.put("/cal/", "a", "t", results("/cal/a.ics"));
+        cache.put("/cal/", "b", "t", results("/cal/b.ics"));
+        cache.get("/cal/", "a", "t");
+        cache.put("/cal/", "c", "t", results("/cal/c.ics"));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("/cal/", "a", "t"));
+        assertNull(cache.get("/cal/", "b", "t"));
+    }
+}
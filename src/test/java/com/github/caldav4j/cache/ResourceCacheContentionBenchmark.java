@@ -0,0 +1,105 @@
+package com.github.caldav4j.cache;
+
+import com.github.caldav4j.CalDAVResource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link EhCacheResourceCache} and {@link ConcurrentResourceCache}
+ * when many threads read and write them at once. Not a unit test, run it with:
+ *
+ * <pre>
+ * java ... com.github.caldav4j.cache.ResourceCacheContentionBenchmark [threads] [seconds]
+ * </pre>
+ *
+ * Every thread performs 90% reads (getResource and getHrefForEventUID) and 10% writes over a set
+ * of 1000 resources, so all of them fit in both caches.
+ */
+public class ResourceCacheContentionBenchmark {
+
+    private static final int RESOURCES = 1000;
+    private static final int WRITE_PERCENT = 10;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        CalDAVResource[] resources = new CalDAVResource[RESOURCES];
+        for (int i = 0; i < RESOURCES; i++) {
+            resources[i] =
+                    ConcurrentResourceCacheTest.resource(
+                            "/cal/" + i + ".ics", "uid-" + i, "\"" + i + "\"");
+        }
+
+        EhCacheResourceCache ehCache = EhCacheResourceCache.createSimpleCache();
+        try {
+            run("EhCacheResourceCache", ehCache, resources, threads, seconds);
+        } finally {
+            EhCacheResourceCache.removeSimpleCache();
+        }
+        run(
+                "ConcurrentResourceCache",
+                new ConcurrentResourceCache(),
+                resources,
+                threads,
+                seconds);
+    }
+
+    private static void run(
+            String name,
+            final CalDAVResourceCache cache,
+            final CalDAVResource[] resources,
+            int threads,
+            int seconds)
+            throws Exception {
+        for (CalDAVResource resource : resources) {
+            cache.putResource(resource);
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        final CountDownLatch start = new CountDownLatch(1);
+        final long[] operations = new long[threads];
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int worker = t;
+            Thread thread =
+                    new Thread(
+                            () -> {
+                                ThreadLocalRandom random = ThreadLocalRandom.current();
+                                long count = 0;
+                                try {
+                                    start.await();
+                                    while (System.nanoTime() < deadline) {
+                                        int i = random.nextInt(RESOURCES);
+                                        int op = random.nextInt(100);
+                                        if (op < WRITE_PERCENT) {
+                                            cache.putResource(resources[i]);
+                                        } else if (op < 55) {
+                                            cache.getResource("/cal/" + i + ".ics");
+                                        } else {
+                                            cache.getHrefForEventUID("uid-" + i);
+                                        }
+                                        count++;
+                                    }
+                                } catch (Exception e) {
+                                    throw new RuntimeException(e);
+                                }
+                                operations[worker] = count;
+                            });
+            workers.add(thread);
+            thread.start();
+        }
+
+        start.countDown();
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            workers.get(t).join();
+            total += operations[t];
+        }
+        System.out.printf(
+                "%-25s %3d threads: %,15d ops/s%n", name, threads, total / Math.max(1, seconds));
+    }
+}
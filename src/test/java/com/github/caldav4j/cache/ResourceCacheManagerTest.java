@@ -0,0 +1,167 @@
+package com.github.caldav4j.cache;
+
+import static com.github.caldav4j.cache.ConcurrentResourceCacheTest.resource;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.github.caldav4j.CalDAVCollection;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/** Tests the {@link ResourceCacheManager} */
+public class ResourceCacheManagerTest {
+
+    @Test
+    public void regionsAreIsolated() {
+        ResourceCacheManager manager = new ResourceCacheManager(100, 50, 0, TimeUnit.SECONDS);
+        ConcurrentResourceCache a = manager.getRegion("/a/");
+        ConcurrentResourceCache b = manager.getRegion("/b/");
+
+        assertSame(a, manager.getRegion("/a/"));
+        assertNotSame(a, b);
+
+        a.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+        assertNull(b.getResource("/cal/1.ics"));
+        assertNull(b.getHrefForEventUID("uid-1"));
+        assertEquals(1, manager.getTotalSize());
+    }
+
+    @Test
+    public void regionQuota() {
+        ResourceCacheManager manager = new ResourceCacheManager(100, 50, 0, TimeUnit.SECONDS);
+        ConcurrentResourceCache region = manager.getRegion("/a/", 10);
+        for (int i = 0; i < 20; i++) {
+            region.putResource(resource("/a/" + i + ".ics", "uid-" + i, "\"1\""));
+        }
+        assertEquals(10, region.size());
+    }
+
+    @Test
+    public void globalBudgetSharedFairly() {
+        ResourceCacheManager manager = new ResourceCacheManager(100, 100, 0, TimeUnit.SECONDS);
+        ConcurrentResourceCache small = manager.getRegion("/small/");
+        ConcurrentResourceCache large = manager.getRegion("/large/");
+        ConcurrentResourceCache other = manager.getRegion("/other/");
+
+        for (int i = 0; i < 10; i++) {
+            small.putResource(resource("/small/" + i + ".ics", "s-" + i, "\"1\""));
+        }
+        for (int i = 0; i < 100; i++) {
+            large.putResource(resource("/large/" + i + ".ics", "l-" + i, "\"1\""));
+            other.putResource(resource("/other/" + i + ".ics", "o-" + i, "\"1\""));
+        }
+        manager.balance();
+
+        assertTrue(manager.getTotalSize() <= 100);
+        // the small region keeps its entries, the others share the rest of the budget
+        assertEquals(10, small.size());
+        assertEquals(45, large.size());
+        assertEquals(45, other.size());
+    }
+
+    @Test
+    public void removeRegion() {
+        ResourceCacheManager manager = new ResourceCacheManager();
+        ConcurrentResourceCache region = manager.getRegion("tenant");
+        region.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+
+        assertTrue(manager.isRegion(region));
+        assertTrue(manager.removeRegion(region));
+        assertFalse(manager.hasRegion("tenant"));
+        assertFalse(manager.isRegion(region));
+        assertEquals(0, region.size());
+        assertFalse(manager.removeRegion(new ConcurrentResourceCache()));
+    }
+
+    @Test
+    public void regionByteQuota() {
+        ResourceCacheManager manager =
+                new ResourceCacheManager(100, 0, 100, 0, r -> 500, 0, TimeUnit.SECONDS);
+        ConcurrentResourceCache region = manager.getRegion("/a/", 100, 2000);
+        for (int i = 0; i < 10; i++) {
+            region.putResource(resource("/a/" + i + ".ics", "uid-" + i, "\"1\""));
+        }
+        assertEquals(4, region.size());
+        assertEquals(2000, region.getWeight());
+    }
+
+    @Test
+    public void globalByteBudgetSharedFairly() {
+        ResourceCacheManager manager =
+                new ResourceCacheManager(1000, 10000, 1000, 0, r -> 100, 0, TimeUnit.SECONDS);
+        ConcurrentResourceCache small = manager.getRegion("/small/");
+        ConcurrentResourceCache large = manager.getRegion("/large/");
+        ConcurrentResourceCache other = manager.getRegion("/other/");
+        assertEquals(10000, large.getMaxWeight());
+
+        for (int i = 0; i < 10; i++) {
+            small.putResource(resource("/small/" + i + ".ics", "s-" + i, "\"1\""));
+        }
+        for (int i = 0; i < 100; i++) {
+            large.putResource(resource("/large/" + i + ".ics", "l-" + i, "\"1\""));
+            other.putResource(resource("/other/" + i + ".ics", "o-" + i, "\"1\""));
+        }
+        manager.balance();
+
+        assertTrue(manager.getTotalWeight() <= 10000);
+        assertEquals(10, small.size());
+        assertEquals(45, large.size());
+        assertEquals(45, other.size());
+    }
+
+    @Test
+    public void zeroByteShareEmptiesRegion() {
+        ResourceCacheManager manager =
+                new ResourceCacheManager(1000, 2, 1000, 1000, r -> 100, 0, TimeUnit.SECONDS);
+        ConcurrentResourceCache[] regions = new ConcurrentResourceCache[3];
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = manager.getRegion("/" + i + "/");
+            regions[i].putResource(resource("/" + i + "/1.ics", "uid-" + i, "\"1\""));
+        }
+        manager.balance();
+
+        // one of the regions gets a share of 0 bytes, which must still bound it
+        assertEquals(0, manager.getTotalWeight());
+        for (ConcurrentResourceCache region : regions) {
+            assertEquals(0, region.size());
+        }
+    }
+
+    @Test
+    public void sharedRegionRemovedByLastRelease() {
+        ResourceCacheManager manager = new ResourceCacheManager();
+        ConcurrentResourceCache region = manager.acquireRegion("tenant");
+        assertSame(region, manager.acquireRegion("tenant"));
+        region.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+
+        assertFalse(manager.releaseRegion(region));
+        assertTrue(manager.hasRegion("tenant"));
+        assertEquals(1, region.size());
+
+        assertTrue(manager.releaseRegion(region));
+        assertFalse(manager.hasRegion("tenant"));
+        assertEquals(0, region.size());
+        assertFalse(manager.releaseRegion(region));
+    }
+
+    @Test
+    public void collectionsShareRegionUntilBothDisableIt() {
+        String name = "tenant-" + System.nanoTime();
+        CalDAVCollection first = new CalDAVCollection("/cal/");
+        CalDAVCollection second = new CalDAVCollection("/cal/");
+        first.enableSimpleCache(name);
+        second.enableSimpleCache(name);
+        assertSame(first.getCache(), second.getCache());
+
+        first.disableSimpleCache();
+        assertFalse(first.isCacheEnabled());
+        assertTrue(ResourceCacheManager.getInstance().hasRegion(name));
+
+        second.disableSimpleCache();
+        assertFalse(ResourceCacheManager.getInstance().hasRegion(name));
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.caldav4j.cache.invalidation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.github.caldav4j.CalDAVResource;
+import com.github.caldav4j.cache.ConcurrentResourceCache;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.property.Uid;
+import org.junit.Test;
+
+/** Tests the {@link InvalidatingResourceCache} over a {@link LoopbackTransport} */
+public class InvalidatingResourceCacheTest {
+
+    private static CalDAVResource resource(String href, String uid, String etag) {
+        VEvent event = new VEvent(new Date(), "Event " + uid);
+        event.getProperties().add(new Uid(uid));
+        Calendar calendar = new Calendar();
+        calendar.getComponents().add(event);
+        return new CalDAVResource(calendar, etag, href);
+    }
+
+    @Test
+    public void invalidateOtherNodes() throws Exception {
+        LoopbackTransport transport = new LoopbackTransport();
+        ConcurrentResourceCache local = new ConcurrentResourceCache();
+        ConcurrentResourceCache remote = new ConcurrentResourceCache();
+        try (InvalidatingResourceCache node1 =
+                        new InvalidatingResourceCache(
+                                local, transport, 1, TimeUnit.HOURS, 1000);
+                InvalidatingResourceCache node2 =
+                        new InvalidatingResourceCache(
+                                remote, transport.join(), 1, TimeUnit.HOURS, 1000)) {
+            remote.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+            remote.putResource(resource("/cal/2.ics", "uid-2", "\"1\""));
+            remote.putResource(resource("/cal/3.ics", "uid-3", "\"1\""));
+
+            node1.putResource(resource("/cal/1.ics", "uid-1", "\"2\""));
+            node1.putResource(resource("/cal/2.ics", "uid-2", "\"1\""));
+            node1.removeResource("/cal/3.ics");
+            assertNotNull(remote.getResource("/cal/1.ics"));
+
+            node1.flush();
+            assertNull(remote.getResource("/cal/1.ics"));
+            assertNull(remote.getHrefForEventUID("uid-1"));
+            assertNotNull(remote.getResource("/cal/2.ics"));
+            assertNull(remote.getResource("/cal/3.ics"));
+            assertNotNull(node2.getResource("/cal/2.ics"));
+        }
+    }
+
+    @Test
+    public void flushFullBatch() throws Exception {
+        LoopbackTransport transport = new LoopbackTransport();
+        ConcurrentResourceCache remote = new ConcurrentResourceCache();
+        remote.putResource(resource("/cal/1.ics", "uid-1", "\"1\""));
+        try (InvalidatingResourceCache node1 =
+                        new InvalidatingResourceCache(
+                                new ConcurrentResourceCache(), transport, 1, TimeUnit.HOURS, 2);
+                InvalidatingResourceCache node2 =
+                        new InvalidatingResourceCache(remote, transport.join())) {
+            node1.removeResource("/cal/1.ics");
+            node1.removeResource("/cal/1.ics");
+            node1.removeResource("/cal/2.ics");
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (remote.getResource("/cal/1.ics") != null && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertNull(remote.getResource("/cal/1.ics"));
+        }
+    }
+
+    @Test
+    public void encodeAndSplit() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("/cal/1.ics", "\"1\"");
+        entries.put("/cal/2.ics", null);
+        entries.put("/cal/3.ics", "\"3\"");
+        InvalidationMessage message = new InvalidationMessage("node", entries);
+
+        byte[] data = message.encode();
+        InvalidationMessage decoded = InvalidationMessage.decode(data, 0, data.length);
+        assertEquals("node", decoded.getOrigin());
+        assertEquals(entries, decoded.getEntries());
+
+        assertEquals(2, message.split().size());
+        assertEquals(1, message.split().get(0).getEntries().size());
+        assertEquals(2, message.split().get(1).getEntries().size());
+    }
+}
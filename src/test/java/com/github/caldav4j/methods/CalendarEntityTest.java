@@ -0,0 +1,129 @@
+package com.github.caldav4j.methods;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.github.caldav4j.model.request.CalendarRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import net.fortuna.ical4j.data.CalendarOutputter;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.Property;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.property.CalScale;
+import net.fortuna.ical4j.model.property.ProdId;
+import net.fortuna.ical4j.model.property.Uid;
+import net.fortuna.ical4j.model.property.Version;
+import net.fortuna.ical4j.validate.ValidationException;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+/** Tests the {@link CalendarEntity} */
+public class CalendarEntityTest {
+
+    private static Calendar calendar() {
+        VEvent event = new VEvent(new Date(), "Réunion");
+        event.getProperties().add(new Uid("uid-1"));
+        Calendar calendar = new Calendar();
+        calendar.getProperties().add(new ProdId("-//caldav4j//test//EN"));
+        calendar.getProperties().add(Version.VERSION_2_0);
+        calendar.getProperties().add(CalScale.GREGORIAN);
+        calendar.getComponents().add(event);
+        return calendar;
+    }
+
+    @Test
+    public void writeRepeatedly() throws Exception {
+        Calendar calendar = calendar();
+        CalendarEntity entity =
+                new CalendarEntity(calendar, new CalendarOutputter(), StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        entity.writeTo(first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        entity.writeTo(second);
+
+        assertTrue(entity.isRepeatable());
+        assertEquals(calendar.toString(), new String(first.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(first.toString("UTF-8"), second.toString("UTF-8"));
+        assertEquals(first.toString("UTF-8"), EntityUtils.toString(entity));
+        assertEquals("text/calendar; charset=UTF-8", entity.getContentType().getValue());
+    }
+
+    @Test
+    public void contentLengthIsSentByDefault() throws Exception {
+        Calendar calendar = calendar();
+        CalendarEntity entity =
+                new CalendarEntity(calendar, new CalendarOutputter(), StandardCharsets.UTF_8);
+
+        byte[] body = calendar.toString().getBytes(StandardCharsets.UTF_8);
+        assertFalse(entity.isChunked());
+        assertEquals(body.length, entity.getContentLength());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        assertArrayEquals(body, out.toByteArray());
+    }
+
+    @Test
+    public void chunkedEntityStreamsCalendar() throws Exception {
+        Calendar calendar = calendar();
+        CalendarEntity entity =
+                new CalendarEntity(calendar, new CalendarOutputter(), StandardCharsets.UTF_8);
+        entity.setChunked(true);
+
+        assertEquals(-1, entity.getContentLength());
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        entity.writeTo(first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        entity.writeTo(second);
+        assertEquals(calendar.toString(), first.toString("UTF-8"));
+        assertEquals(first.toString("UTF-8"), second.toString("UTF-8"));
+    }
+
+    @Test
+    public void putMethodSendsCalendar() throws Exception {
+        CalendarRequest request = new CalendarRequest();
+        request.setCalendar(calendar());
+        request.setCharset(StandardCharsets.UTF_8);
+        HttpPutMethod put = new HttpPutMethod("/cal/1.ics", request, new CalendarOutputter());
+
+        assertTrue(put.getEntity() instanceof CalendarEntity);
+        assertTrue(put.getEntity().getContentLength() > 0);
+        assertTrue(EntityUtils.toString(put.getEntity()).contains("SUMMARY:Réunion"));
+
+        request.setChunked(true);
+        put = new HttpPutMethod("/cal/1.ics", request, new CalendarOutputter());
+        assertTrue(put.getEntity().isChunked());
+        assertTrue(EntityUtils.toString(put.getEntity()).contains("SUMMARY:Réunion"));
+    }
+
+    @Test
+    public void putMethodRejectsInvalidCalendar() throws Exception {
+        Calendar calendar = calendar();
+        calendar.getProperties().remove(calendar.getProperty(Property.PRODID));
+        CalendarRequest request = new CalendarRequest();
+        request.setCalendar(calendar);
+        try {
+            new HttpPutMethod("/cal/1.ics", request, new CalendarOutputter());
+            fail("An invalid calendar must be rejected when building the request");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertTrue(e.getCause().getCause() instanceof ValidationException);
+        }
+
+        // a chunked request only outputs the calendar when it is executed
+        request.setChunked(true);
+        HttpPutMethod put = new HttpPutMethod("/cal/1.ics", request, new CalendarOutputter());
+        try {
+            put.getEntity().writeTo(new ByteArrayOutputStream());
+            fail("An invalid calendar must fail the request");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof ValidationException);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.caldav4j.methods;
+
+import static org.junit.Assert.assertEquals;
+
+import com.github.caldav4j.model.request.CalDAVReportRequest;
+import com.github.caldav4j.model.request.CalendarMultiget;
+import com.github.caldav4j.model.request.FreeBusyQuery;
+import com.github.caldav4j.model.request.TimeRange;
+import java.util.Arrays;
+import net.fortuna.ical4j.model.DateTime;
+import org.apache.http.HttpEntity;
+import org.apache.http.util.EntityUtils;
+import org.apache.jackrabbit.webdav.client.methods.XmlEntity;
+import org.apache.jackrabbit.webdav.property.DavPropertyName;
+import org.apache.jackrabbit.webdav.property.DavPropertyNameSet;
+import org.junit.Test;
+
+/** Tests the {@link CompiledReportRequest} against the reports built as DOM */
+public class CompiledReportRequestTest {
+
+    private static String serialise(CalDAVReportRequest request) throws Exception {
+        return EntityUtils.toString(XmlEntity.create(request));
+    }
+
+    private static CalendarMultiget multiget(String... hrefs) {
+        DavPropertyNameSet props = new DavPropertyNameSet();
+        props.add(DavPropertyName.GETETAG);
+        CalendarMultiget query = new CalendarMultiget(props, null, false, false);
+        for (String href : hrefs) query.addHref(href);
+        return query;
+    }
+
+    @Test
+    public void bindHrefs() throws Exception {
+        CompiledReportRequest compiled = CompiledReportRequest.compile(multiget("slot"), "slot");
+        assertEquals(1, compiled.getSlotCount());
+
+        HttpEntity entity =
+                compiled.createEntity(Arrays.asList("/cal/1.ics", "/cal/a&b.ics"));
+        assertEquals(
+                serialise(multiget("/cal/1.ics", "/cal/a&b.ics")), EntityUtils.toString(entity));
+        assertEquals(
+                serialise(multiget("/cal/2.ics")),
+                EntityUtils.toString(compiled.createEntity("/cal/2.ics")));
+    }
+
+    @Test
+    public void bindTimeRange() throws Exception {
+        DateTime start = new DateTime("20260101T000000Z");
+        DateTime end = new DateTime("20260201T000000Z");
+        CompiledReportRequest compiled =
+                CompiledReportRequest.compile(
+                        new FreeBusyQuery(new TimeRange(start, end)),
+                        start.toString(),
+                        end.toString());
+
+        DateTime otherStart = new DateTime("20270301T120000Z");
+        DateTime otherEnd = new DateTime("20270302T120000Z");
+        HttpEntity entity = compiled.createEntity(otherStart.toString(), otherEnd.toString());
+        assertEquals(
+                serialise(new FreeBusyQuery(new TimeRange(otherStart, otherEnd))),
+                EntityUtils.toString(entity));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingMarker() throws Exception {
+        CompiledReportRequest.compile(multiget("/cal/1.ics"), "slot");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongNumberOfValues() throws Exception {
+        CompiledReportRequest.compile(multiget("slot"), "slot").createEntity("a", "b");
+    }
+}
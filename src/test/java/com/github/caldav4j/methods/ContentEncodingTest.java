@@ -0,0 +1,75 @@
+package com.github.caldav4j.methods;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+/** Tests the compression of the request bodies and the decoding of the responses */
+public class ContentEncodingTest {
+
+    private static String body() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            body.append("<D:href>/calendars/user/events/").append(i).append(".ics</D:href>\n");
+        }
+        return body.toString();
+    }
+
+    @Test
+    public void compressAndDecode() throws Exception {
+        String body = body();
+        CompressionStatistics statistics = new CompressionStatistics();
+        HttpEntity compressed =
+                ContentEncoding.compress(
+                        new StringEntity(body, StandardCharsets.UTF_8), statistics);
+        assertEquals("gzip", compressed.getContentEncoding().getValue());
+
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        compressed.writeTo(sent);
+        assertEquals(1, statistics.getCompressedRequestCount());
+        assertEquals(body.length(), statistics.getRequestBytes());
+        assertEquals(sent.size(), statistics.getRequestBytesSent());
+        assertTrue(statistics.getRequestBytesSaved() > body.length() / 2);
+
+        BasicHttpEntity received = new BasicHttpEntity();
+        received.setContent(new ByteArrayInputStream(sent.toByteArray()));
+        received.setContentEncoding("gzip");
+        HttpEntity decoded = ContentEncoding.decode(received, statistics);
+        assertNull(decoded.getContentEncoding());
+        assertEquals(body, EntityUtils.toString(decoded, StandardCharsets.UTF_8));
+        assertEquals(1, statistics.getCompressedResponseCount());
+        assertEquals(sent.size(), statistics.getResponseBytesReceived());
+        assertEquals(body.length(), statistics.getResponseBytesDecoded());
+    }
+
+    @Test
+    public void identityIsNotDecoded() {
+        StringEntity entity = new StringEntity("BEGIN:VCALENDAR", StandardCharsets.UTF_8);
+        assertSame(entity, ContentEncoding.decode(entity, null));
+    }
+
+    @Test
+    public void factoryAdvertisesCompression() throws Exception {
+        CalDAV4JMethodFactory factory = new CalDAV4JMethodFactory();
+        HttpGetMethod get = factory.createGetMethod("/calendars/user/events/1.ics");
+        assertEquals(
+                ContentEncoding.ACCEPTED,
+                get.getFirstHeader(HttpHeaders.ACCEPT_ENCODING).getValue());
+        assertSame(factory.getCompressionStatistics(), get.getCompressionStatistics());
+
+        factory.setAcceptCompressedResponses(false);
+        get = factory.createGetMethod("/calendars/user/events/1.ics");
+        assertNull(get.getFirstHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.caldav4j.model.request;
+
+import static org.junit.Assert.assertEquals;
+
+import com.github.caldav4j.CalDAVConstants;
+import com.github.caldav4j.exceptions.DOMValidationException;
+import org.apache.jackrabbit.webdav.property.DavPropertyName;
+import org.apache.jackrabbit.webdav.property.DavPropertyNameSet;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Tests {@code SyncCollection}.
+ *
+ * @see SyncCollection
+ */
+public class SyncCollectionTest {
+
+    @Test
+    public void createInitialDocument() throws DOMValidationException {
+        Document document = createSyncCollection(null).createNewDocument();
+
+        Element root = document.getDocumentElement();
+        assertEquals(CalDAVConstants.NS_DAV, root.getNamespaceURI());
+        assertEquals(SyncCollection.ELEMENT_NAME, root.getLocalName());
+
+        NodeList children = root.getChildNodes();
+        assertEquals(3, children.getLength());
+        assertEquals(SyncCollection.ELEM_SYNC_TOKEN, children.item(0).getLocalName());
+        assertEquals("", children.item(0).getTextContent());
+        assertEquals(SyncCollection.ELEM_SYNC_LEVEL, children.item(1).getLocalName());
+        assertEquals("1", children.item(1).getTextContent());
+        assertEquals(CalDAVConstants.DAV_PROP, children.item(2).getLocalName());
+        assertEquals(
+                CalDAVConstants.ELEM_GETETAG, children.item(2).getFirstChild().getLocalName());
+    }
+
+    @Test
+    public void createDocumentWithTokenAndLimit() throws DOMValidationException {
+        SyncCollection request = createSyncCollection("http://example.com/ns/sync/1234");
+        request.setLimit(10);
+        Element root = request.createNewDocument().getDocumentElement();
+
+        NodeList children = root.getChildNodes();
+        assertEquals(4, children.getLength());
+        assertEquals("http://example.com/ns/sync/1234", children.item(0).getTextContent());
+        assertEquals(SyncCollection.ELEM_LIMIT, children.item(2).getLocalName());
+        assertEquals(
+                SyncCollection.ELEM_NRESULTS, children.item(2).getFirstChild().getLocalName());
+        assertEquals("10", children.item(2).getTextContent());
+    }
+
+    @Test(expected = DOMValidationException.class)
+    public void validateWithInvalidLevel() throws DOMValidationException {
+        SyncCollection request = createSyncCollection(null);
+        request.setSyncLevel("2");
+
+        request.validate();
+    }
+
+    @Test(expected = DOMValidationException.class)
+    public void validateWithInvalidLimit() throws DOMValidationException {
+        SyncCollection request = createSyncCollection(null);
+        request.setLimit(0);
+
+        request.validate();
+    }
+
+    private static SyncCollection createSyncCollection(String syncToken) {
+        DavPropertyNameSet properties = new DavPropertyNameSet();
+        properties.add(DavPropertyName.GETETAG);
+        return new SyncCollection(syncToken, properties);
+    }
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.util.CompatibilityHints;
 import org.apache.jackrabbit.webdav.property.DavProperty;
 import org.apache.jackrabbit.webdav.property.DavPropertyName;
 import org.apache.jackrabbit.webdav.property.DefaultDavProperty;
@@ -48,4 +49,20 @@ public class CalendarDataPropertyTest {
         etag = CalendarDataProperty.getEtagfromProperty(davProperty);
         assertEquals("etag value is not correct", value, etag);
     }
+
+    @Test
+    public void relaxedRetryLeavesGlobalHints() {
+        boolean relaxedParsing =
+                CompatibilityHints.isHintEnabled(CompatibilityHints.KEY_RELAXED_PARSING);
+        boolean relaxedUnfolding =
+                CompatibilityHints.isHintEnabled(CompatibilityHints.KEY_RELAXED_UNFOLDING);
+
+        assertNull(CalendarDataProperty.getCalendarfromString("BEGIN:VCALENDAR\nNOT A LINE\n"));
+        assertEquals(
+                relaxedParsing,
+                CompatibilityHints.isHintEnabled(CompatibilityHints.KEY_RELAXED_PARSING));
+        assertEquals(
+                relaxedUnfolding,
+                CompatibilityHints.isHintEnabled(CompatibilityHints.KEY_RELAXED_UNFOLDING));
+    }
 }
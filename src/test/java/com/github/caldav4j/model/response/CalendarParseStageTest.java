@@ -0,0 +1,78 @@
+package com.github.caldav4j.model.response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.github.caldav4j.CalDAVConstants;
+import com.github.caldav4j.CalDAVResource;
+import com.github.caldav4j.util.CalDAVStatus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.jackrabbit.webdav.property.DavPropertyName;
+import org.junit.Test;
+
+/** Tests the {@link CalendarParseStage} */
+public class CalendarParseStageTest {
+
+    private static final String CALENDAR =
+            "BEGIN:VCALENDAR\n"
+                    + "VERSION:2.0\n"
+                    + "PRODID:-//NONSGML CalDAV4j Client//EN\n"
+                    + "BEGIN:VEVENT\n"
+                    + "UID:%d\n"
+                    + "DTSTAMP:20060101T000000Z\n"
+                    + "DTSTART:20060101T100000Z\n"
+                    + "SUMMARY:Event %d\n"
+                    + "END:VEVENT\n"
+                    + "END:VCALENDAR\n";
+
+    private static MultiStatusEntry entry(int i, String data) {
+        MultiStatusEntry entry = new MultiStatusEntry("/cal/" + i + ".ics", CalDAVStatus.SC_OK);
+        entry.setProperty(DavPropertyName.GETETAG, "\"" + i + "\"");
+        entry.setProperty(CalDAVConstants.DNAME_CALENDAR_DATA, data);
+        return entry;
+    }
+
+    @Test
+    public void parseInServerOrder() {
+        List<MultiStatusEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            entries.add(entry(i, String.format(CALENDAR, i, i)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CalDAVResource> resources = new CalendarParseStage(executor).parse(entries);
+            assertEquals(50, resources.size());
+            for (int i = 0; i < 50; i++) {
+                CalDAVResource resource = resources.get(i);
+                assertEquals("/cal/" + i + ".ics", resource.getResourceMetadata().getHref());
+                assertEquals("\"" + i + "\"", resource.getResourceMetadata().getETag());
+                assertNotNull(resource.getCalendar());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void reportFailures() {
+        List<MultiStatusEntry> entries = new ArrayList<>();
+        entries.add(entry(0, String.format(CALENDAR, 0, 0)));
+        entries.add(entry(1, "NOT AN ICALENDAR"));
+        entries.add(new MultiStatusEntry("/cal/2.ics", CalDAVStatus.SC_OK));
+
+        List<String> failed = new ArrayList<>();
+        CalendarParseStage stage = new CalendarParseStage();
+        stage.setFailureHandler((entry, cause) -> failed.add(entry.getHref()));
+
+        List<CalDAVResource> resources = stage.parse(entries);
+        assertEquals(2, resources.size());
+        assertNull(resources.get(1).getCalendar());
+        assertEquals(1, failed.size());
+        assertEquals("/cal/1.ics", failed.get(0));
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.caldav4j.model.response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.github.caldav4j.CalDAVConstants;
+import com.github.caldav4j.util.CalDAVStatus;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.jackrabbit.webdav.property.DavPropertyName;
+import org.junit.Test;
+
+/** Tests the streaming {@link MultiStatusReader} */
+public class MultiStatusReaderTest {
+
+    private static final String MULTISTATUS =
+            "<?xml version=\"1.0\" encoding=\"utf-8\" ?>\n"
+                    + "<D:multistatus xmlns:D=\"DAV:\" xmlns:C=\"urn:ietf:params:xml:ns:caldav\">\n"
+                    + "  <D:response>\n"
+                    + "    <D:href>/calendars/user/home/abcd1.ics</D:href>\n"
+                    + "    <D:propstat>\n"
+                    + "      <D:prop>\n"
+                    + "        <D:getetag>\"fffff-abcd1\"</D:getetag>\n"
+                    + "        <C:calendar-data>BEGIN:VCALENDAR\n"
+                    + "VERSION:2.0\n"
+                    + "END:VCALENDAR\n"
+                    + "</C:calendar-data>\n"
+                    + "      </D:prop>\n"
+                    + "      <D:status>HTTP/1.1 200 OK</D:status>\n"
+                    + "    </D:propstat>\n"
+                    + "    <D:propstat>\n"
+                    + "      <D:prop><D:displayname/></D:prop>\n"
+                    + "      <D:status>HTTP/1.1 404 Not Found</D:status>\n"
+                    + "    </D:propstat>\n"
+                    + "  </D:response>\n"
+                    + "  <D:response>\n"
+                    + "    <D:href>/calendars/user/home/abcd2.ics</D:href>\n"
+                    + "    <D:status>HTTP/1.1 404 Not Found</D:status>\n"
+                    + "  </D:response>\n"
+                    + "  <D:sync-token>http://example.com/ns/sync/1234</D:sync-token>\n"
+                    + "</D:multistatus>";
+
+    @Test
+    public void readResponses() throws Exception {
+        final List<MultiStatusEntry> entries = new ArrayList<>();
+        final List<String> tokens = new ArrayList<>();
+
+        MultiStatusReader.read(
+                new ByteArrayInputStream(MULTISTATUS.getBytes(StandardCharsets.UTF_8)),
+                new MultiStatusHandler() {
+                    @Override
+                    public void handleResponse(MultiStatusEntry entry) {
+                        entries.add(entry);
+                    }
+
+                    @Override
+                    public void handleSyncToken(String syncToken) {
+                        tokens.add(syncToken);
+                    }
+                });
+
+        assertEquals(2, entries.size());
+
+        MultiStatusEntry first = entries.get(0);
+        assertEquals("/calendars/user/home/abcd1.ics", first.getHref());
+        assertEquals(CalDAVStatus.SC_OK, first.getStatus());
+        assertEquals("\"fffff-abcd1\"", first.getETag());
+        assertTrue(first.getCalendarData().startsWith("BEGIN:VCALENDAR"));
+        assertNull(
+                "Properties not found must not be reported",
+                first.getProperty(DavPropertyName.DISPLAYNAME));
+        assertTrue(first.getProperties().containsKey(CalDAVConstants.DNAME_CALENDAR_DATA));
+
+        MultiStatusEntry second = entries.get(1);
+        assertEquals("/calendars/user/home/abcd2.ics", second.getHref());
+        assertEquals(CalDAVStatus.SC_NOT_FOUND, second.getStatus());
+        assertNull(second.getETag());
+
+        assertEquals(1, tokens.size());
+        assertEquals("http://example.com/ns/sync/1234", tokens.get(0));
+    }
+
+    @Test
+    public void parseStatus() {
+        assertEquals(200, MultiStatusReader.parseStatus("HTTP/1.1 200 OK"));
+        assertEquals(-1, MultiStatusReader.parseStatus("garbage"));
+    }
+}
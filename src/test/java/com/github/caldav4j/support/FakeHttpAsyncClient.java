@@ -0,0 +1,84 @@
+package com.github.caldav4j.support;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * An in-process {@link HttpAsyncClient} answering the requests with the {@link
+ * FakeHttpClient.Handler} of a {@link FakeHttpClient}, which records them. Requests are answered
+ * on the calling thread, before {@code execute} returns.
+ */
+public class FakeHttpAsyncClient implements HttpAsyncClient {
+
+    private final FakeHttpClient client;
+
+    public FakeHttpAsyncClient(FakeHttpClient.Handler handler) {
+        this.client = new FakeHttpClient(handler);
+    }
+
+    /** @return The client recording the requests */
+    public FakeHttpClient getClient() {
+        return client;
+    }
+
+    @Override
+    public Future<HttpResponse> execute(
+            HttpHost target,
+            HttpRequest request,
+            HttpContext context,
+            FutureCallback<HttpResponse> callback) {
+        BasicFuture<HttpResponse> future = new BasicFuture<>(callback);
+        try {
+            future.completed(client.execute(target, request, context));
+        } catch (IOException | RuntimeException e) {
+            future.failed(e);
+        }
+        return future;
+    }
+
+    @Override
+    public Future<HttpResponse> execute(
+            HttpHost target, HttpRequest request, FutureCallback<HttpResponse> callback) {
+        return execute(target, request, null, callback);
+    }
+
+    @Override
+    public Future<HttpResponse> execute(
+            HttpUriRequest request, HttpContext context, FutureCallback<HttpResponse> callback) {
+        return execute(URIUtils.extractHost(request.getURI()), request, context, callback);
+    }
+
+    @Override
+    public Future<HttpResponse> execute(
+            HttpUriRequest request, FutureCallback<HttpResponse> callback) {
+        return execute(request, null, callback);
+    }
+
+    @Override
+    public <T> Future<T> execute(
+            HttpAsyncRequestProducer requestProducer,
+            HttpAsyncResponseConsumer<T> responseConsumer,
+            HttpContext context,
+            FutureCallback<T> callback) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> Future<T> execute(
+            HttpAsyncRequestProducer requestProducer,
+            HttpAsyncResponseConsumer<T> responseConsumer,
+            FutureCallback<T> callback) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,190 @@
+package com.github.caldav4j.support;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * An in-process {@link CloseableHttpClient} answering every request with a {@link Handler}, so
+ * the collections can be tested without a server. Contrary to the {@link FakeSocketImpl}, it
+ * serves any number of requests, from any number of threads.
+ *
+ * <p>The requests are recorded, as well as the maximum number of requests executed at once.
+ */
+public class FakeHttpClient extends CloseableHttpClient {
+
+    /** Answers the requests. Called concurrently if the client is used by several threads. */
+    public interface Handler {
+        CloseableHttpResponse handle(HttpRequest request) throws IOException;
+    }
+
+    private final Handler handler;
+    private final List<HttpRequest> requests = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger executing = new AtomicInteger();
+    private final AtomicInteger maxExecuting = new AtomicInteger();
+
+    public FakeHttpClient(Handler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * @param status Status code
+     * @param body Body of the response, null for none
+     * @param headers Name and value of each header
+     * @return A response with the given status, body and headers
+     */
+    public static CloseableHttpResponse response(int status, String body, String... headers) {
+        FakeHttpResponse response = new FakeHttpResponse(status);
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            response.addHeader(headers[i], headers[i + 1]);
+        }
+        if (body != null) {
+            response.setEntity(
+                    new StringEntity(body, ContentType.create("text/xml", StandardCharsets.UTF_8)));
+        }
+        return response;
+    }
+
+    /**
+     * @param responses {@code DAV:response} elements, see {@link #propstat(String, String,
+     *     String)} and {@link #notFound(String)}
+     * @return A 207 Multi-Status response
+     */
+    public static CloseableHttpResponse multistatus(String... responses) {
+        StringBuilder body = new StringBuilder();
+        body.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .append("<D:multistatus xmlns:D=\"DAV:\"")
+                .append(" xmlns:C=\"urn:ietf:params:xml:ns:caldav\">");
+        for (String response : responses) {
+            body.append(response);
+        }
+        body.append("</D:multistatus>");
+        return response(207, body.toString());
+    }
+
+    /**
+     * @param href Href of the resource
+     * @param etag ETag of the resource
+     * @param calendarData Calendar data of the resource, null to leave it out
+     * @return A {@code DAV:response} element with a 200 propstat
+     */
+    public static String propstat(String href, String etag, String calendarData) {
+        StringBuilder response = new StringBuilder();
+        response.append("<D:response><D:href>")
+                .append(href)
+                .append("</D:href><D:propstat><D:prop><D:getetag>")
+                .append(etag)
+                .append("</D:getetag>");
+        if (calendarData != null) {
+            response.append("<C:calendar-data>")
+                    .append(calendarData.replace("&", "&amp;").replace("<", "&lt;"))
+                    .append("</C:calendar-data>");
+        }
+        return response.append("</D:prop><D:status>HTTP/1.1 200 OK</D:status>")
+                .append("</D:propstat></D:response>")
+                .toString();
+    }
+
+    /**
+     * @param href Href of the resource
+     * @return A {@code DAV:response} element with a 404 status
+     */
+    public static String notFound(String href) {
+        return "<D:response><D:href>"
+                + href
+                + "</D:href><D:status>HTTP/1.1 404 Not Found</D:status></D:response>";
+    }
+
+    /**
+     * @param request Recorded request
+     * @return The body of the request, null if it has none
+     * @throws IOException on error reading the body
+     */
+    public static String body(HttpRequest request) throws IOException {
+        if (!(request instanceof HttpEntityEnclosingRequest)) return null;
+        HttpEntityEnclosingRequest enclosing = (HttpEntityEnclosingRequest) request;
+        return enclosing.getEntity() == null
+                ? null
+                : EntityUtils.toString(enclosing.getEntity(), StandardCharsets.UTF_8);
+    }
+
+    /** @return The requests executed so far, in order */
+    public List<HttpRequest> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    /**
+     * @param method Request method, e.g. {@code REPORT}
+     * @return The number of requests executed so far with this method
+     */
+    public int count(String method) {
+        int count = 0;
+        for (HttpRequest request : getRequests()) {
+            if (method.equals(request.getRequestLine().getMethod())) count++;
+        }
+        return count;
+    }
+
+    /** @return The maximum number of requests executed at once */
+    public int getMaxConcurrency() {
+        return maxExecuting.get();
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute(
+            HttpHost target, HttpRequest request, HttpContext context) throws IOException {
+        requests.add(request);
+        int running = executing.incrementAndGet();
+        maxExecuting.accumulateAndGet(running, Math::max);
+        try {
+            return handler.handle(request);
+        } finally {
+            executing.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public HttpParams getParams() {
+        return new BasicHttpParams();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public ClientConnectionManager getConnectionManager() {
+        throw new UnsupportedOperationException();
+    }
+
+    private static class FakeHttpResponse extends BasicHttpResponse
+            implements CloseableHttpResponse {
+
+        FakeHttpResponse(int status) {
+            super(HttpVersion.HTTP_1_1, status, null);
+        }
+
+        @Override
+        public void close() {}
+    }
+}